@@ -0,0 +1,34 @@
+package com.fastbank.bankingapi.benchmark;
+
+import com.fastbank.bankingapi.model.AccountNumbers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account number allocation: {@link AccountNumbers} against the generator it
+ * replaced, which could repeat a number within the same millisecond. Run with
+ * {@code -t N} to see the allocator's CAS under contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountNumberBenchmark {
+
+    @Benchmark
+    public String allocator() {
+        return AccountNumbers.next();
+    }
+
+    @Benchmark
+    public String timestampPlusRandom() {
+        return "ACC" + System.currentTimeMillis() + (int) (Math.random() * 1000);
+    }
+}
@@ -0,0 +1,112 @@
+package com.fastbank.bankingapi.benchmark;
+
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-point {@link Account} balance against the previous representation:
+ * an immutable {@code BigDecimal} updated under the account lock.
+ *
+ * Each operation is a deposit followed by a withdrawal, so balances stay
+ * bounded. {@code shared*} benchmarks hit one account from every thread
+ * ({@code -t N}), {@code own*} benchmarks give each thread its own account.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("12.34");
+
+    /** The balance as it was kept before: BigDecimal, guarded by the account's lock. */
+    static final class BigDecimalBalance {
+        private final ReentrantLock lock = new ReentrantLock();
+        private BigDecimal balance = new BigDecimal("1000.00");
+
+        void deposit(BigDecimal amount) {
+            lock.lock();
+            try {
+                balance = balance.add(amount);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean withdraw(BigDecimal amount) {
+            lock.lock();
+            try {
+                if (balance.compareTo(amount) < 0) {
+                    return false;
+                }
+                balance = balance.subtract(amount);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        BigDecimalBalance bigDecimal;
+        Account fixedPoint;
+
+        @Setup
+        public void setUp() {
+            bigDecimal = new BigDecimalBalance();
+            fixedPoint = new Account("Benchmark");
+            fixedPoint.setBalance(new BigDecimal("1000.00"));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Own extends Shared {
+    }
+
+    @Benchmark
+    public boolean sharedBigDecimal(Shared state) {
+        state.bigDecimal.deposit(AMOUNT);
+        return state.bigDecimal.withdraw(AMOUNT);
+    }
+
+    @Benchmark
+    public boolean sharedFixedPoint(Shared state) {
+        long units = Money.toMinorUnits(AMOUNT);
+        state.fixedPoint.creditMinorUnits(units);
+        return state.fixedPoint.tryDebitMinorUnits(units);
+    }
+
+    @Benchmark
+    public boolean ownBigDecimal(Own state) {
+        state.bigDecimal.deposit(AMOUNT);
+        return state.bigDecimal.withdraw(AMOUNT);
+    }
+
+    @Benchmark
+    public boolean ownFixedPoint(Own state) {
+        long units = Money.toMinorUnits(AMOUNT);
+        state.fixedPoint.creditMinorUnits(units);
+        return state.fixedPoint.tryDebitMinorUnits(units);
+    }
+
+    /** Converting back for the REST layer, paid once per response. */
+    @Benchmark
+    public BigDecimal readBalance(Own state) {
+        return state.fixedPoint.getBalance();
+    }
+}
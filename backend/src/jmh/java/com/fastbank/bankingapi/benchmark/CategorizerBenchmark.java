@@ -0,0 +1,87 @@
+package com.fastbank.bankingapi.benchmark;
+
+import com.fastbank.bankingapi.model.Categorizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Categorizing one description with {@code rules} merchant-style keyword
+ * rules: the compiled {@link Categorizer} automaton against lowercasing the
+ * description and trying each rule's {@code contains} in turn, as
+ * {@code Transaction} used to. About a third of the descriptions match a rule.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CategorizerBenchmark {
+
+    private static final String[] SYLLABLES = {"ka", "lo", "mer", "tis", "an", "dor", "vi", "sun", "ex", "pra", "bel", "qu"};
+
+    @Param({"1000", "10000"})
+    int rules;
+
+    List<Categorizer.Rule> ruleList;
+    Categorizer categorizer;
+    String[] descriptions;
+    int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        ruleList = new ArrayList<>(rules);
+        for (int i = 0; i < rules; i++) {
+            ruleList.add(new Categorizer.Rule(name(random, 3), "Category " + (i % 100)));
+        }
+        categorizer = Categorizer.compile(ruleList);
+        descriptions = new String[1024];
+        for (int i = 0; i < descriptions.length; i++) {
+            String merchant = i % 3 == 0 ? ruleList.get(random.nextInt(rules)).keyword() : name(random, 3);
+            descriptions[i] = "Card payment " + merchant.toUpperCase() + " Store #" + random.nextInt(1000) + " Berlin DE";
+        }
+    }
+
+    private static String name(Random random, int syllables) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return name.toString();
+    }
+
+    private String nextDescription() {
+        next = (next + 1) & (descriptions.length - 1);
+        return descriptions[next];
+    }
+
+    @Benchmark
+    public String automaton() {
+        return categorizer.categorize(nextDescription());
+    }
+
+    @Benchmark
+    public String containsChain() {
+        String description = nextDescription().toLowerCase();
+        for (Categorizer.Rule rule : ruleList) {
+            if (description.contains(rule.keyword())) {
+                return rule.category();
+            }
+        }
+        return Categorizer.DEFAULT_CATEGORY;
+    }
+}
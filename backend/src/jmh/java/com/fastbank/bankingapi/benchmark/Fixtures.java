@@ -0,0 +1,64 @@
+package com.fastbank.bankingapi.benchmark;
+
+import com.fastbank.bankingapi.audit.AuditLog;
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.repository.AccountLocks;
+import com.fastbank.bankingapi.repository.AccountRepository;
+import com.fastbank.bankingapi.service.AccountService;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/** Builds the in-memory service stack without starting Spring. */
+final class Fixtures {
+
+    private Fixtures() {}
+
+    static AccountService service(AccountRepository repository, AccountLocks locks) {
+        return service(repository, locks, "locking");
+    }
+
+    /** A service running the given {@code fastbank.engine.mode}; sequenced ones must be passed to {@link #stop}. */
+    static AccountService service(AccountRepository repository, AccountLocks locks, String engine) {
+        ReflectionTestUtils.setField(repository, "accountLocks", locks);
+        AccountService service = new AccountService();
+        ReflectionTestUtils.setField(service, "accountRepository", repository);
+        ReflectionTestUtils.setField(service, "accountLocks", locks);
+        ReflectionTestUtils.setField(service, "engineMode", engine);
+        ReflectionTestUtils.invokeMethod(service, "startEngine");
+        return service;
+    }
+
+    static void stop(AccountService service) {
+        ReflectionTestUtils.invokeMethod(service, "stopEngine");
+    }
+
+    /** Attaches an audit log writing to a temporary file, or returns null for {@code policy} "off". */
+    static AuditLog audit(AccountService service, String policy) throws IOException {
+        if (policy.equals("off")) {
+            return null;
+        }
+        Path file = Files.createTempFile("fastbank-audit-", ".log");
+        file.toFile().deleteOnExit();
+        AuditLog auditLog = new AuditLog();
+        auditLog.open(file, 65536, AuditLog.Overflow.valueOf(policy.toUpperCase(Locale.ROOT)));
+        ReflectionTestUtils.setField(service, "auditLog", auditLog);
+        return auditLog;
+    }
+
+    /** Saves {@code count} accounts numbered {@code ACC0..ACC<count-1>} and returns their numbers. */
+    static String[] accounts(AccountRepository repository, int count, BigDecimal balance) {
+        String[] numbers = new String[count];
+        for (int i = 0; i < count; i++) {
+            Account account = new Account("Owner " + i);
+            account.setAccountNumber("ACC" + i);
+            account.setBalance(balance);
+            repository.save(account);
+            numbers[i] = account.getAccountNumber();
+        }
+        return numbers;
+    }
+}
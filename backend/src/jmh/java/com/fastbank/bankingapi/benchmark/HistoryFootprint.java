@@ -0,0 +1,100 @@
+package com.fastbank.bankingapi.benchmark;
+
+import com.fastbank.bankingapi.model.HistorySegments;
+import com.fastbank.bankingapi.model.Transaction;
+import com.fastbank.bankingapi.model.TransactionHistory;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Retained heap of one million transactions in one account's history, held
+ * as {@link Transaction} objects (as {@code TransactionHistory} used to), in
+ * the columnar {@link TransactionHistory}, and in a tiered one that keeps
+ * 10,000 entries on-heap. Descriptions cycle through a small set, as real
+ * ones mostly do.
+ *
+ * Not a JMH benchmark; run it through the same profile:
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.main=com.fastbank.bankingapi.benchmark.HistoryFootprint -Djmh.args=1000000
+ * </pre>
+ */
+public final class HistoryFootprint {
+
+    private static final String[] DESCRIPTIONS = {
+        "Salary", "Rent", "Groceries at the supermarket", "Fuel", "ATM withdrawal",
+        "Transfer to ACC0987654321: Rent", "Transfer from ACC1234567890: Dinner", "Coffee"
+    };
+    private static final BigDecimal[] AMOUNTS = {
+        new BigDecimal("12.50"), new BigDecimal("2500.00"), new BigDecimal("74.99"), new BigDecimal("3.20")
+    };
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long before = usedHeap();
+        List<Object> objects = new ArrayList<>(2);
+        List<Transaction> list = new ArrayList<>();
+        long[] times = new long[count];
+        for (int i = 0; i < count; i++) {
+            list.add(transaction(i));
+            times[i] = i;
+        }
+        objects.add(list);
+        objects.add(times);
+        long objectBytes = usedHeap() - before;
+        Reference.reachabilityFence(objects);
+        objects.clear();
+        list = null;
+        times = null;
+
+        before = usedHeap();
+        TransactionHistory history = new TransactionHistory();
+        for (int i = 0; i < count; i++) {
+            history.add(transaction(i));
+        }
+        long columnarBytes = usedHeap() - before;
+        Reference.reachabilityFence(history);
+        history = null;
+
+        Path directory = Files.createTempDirectory("fastbank-history-");
+        HistorySegments segments = HistorySegments.open(directory, 64 << 20);
+        TransactionHistory.enableTiering(new TransactionHistory.Tiering(segments, 10_000, Duration.ZERO, 1024));
+        before = usedHeap();
+        TransactionHistory tiered = new TransactionHistory();
+        for (int i = 0; i < count; i++) {
+            tiered.add(transaction(i));
+        }
+        long tieredBytes = usedHeap() - before;
+        Reference.reachabilityFence(tiered);
+        TransactionHistory.disableTiering();
+
+        System.out.printf("%,d transactions%n", tiered.size());
+        System.out.printf("Transaction objects: %,10d bytes (%,d per entry, %,.1f MB per million)%n",
+            objectBytes, objectBytes / count, objectBytes * 1_000_000.0 / count / (1 << 20));
+        System.out.printf("Columnar history:    %,10d bytes (%,d per entry, %,.1f MB per million)%n",
+            columnarBytes, columnarBytes / count, columnarBytes * 1_000_000.0 / count / (1 << 20));
+        System.out.printf("Tiered history:      %,10d bytes on-heap, %,d bytes in %d mapped segments%n",
+            tieredBytes, segments.getBytesWritten(), segments.getSegmentCount());
+        segments.close();
+        Files.deleteIfExists(directory);
+    }
+
+    private static Transaction transaction(int i) {
+        return new Transaction("ACC1234567890", i % 3 == 0 ? "WITHDRAW" : "DEPOSIT",
+            AMOUNTS[i % AMOUNTS.length], DESCRIPTIONS[i % DESCRIPTIONS.length]);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
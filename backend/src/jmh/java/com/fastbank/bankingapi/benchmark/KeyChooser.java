@@ -0,0 +1,60 @@
+package com.fastbank.bankingapi.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * Picks account indexes in {@code [0, n)} either uniformly or Zipf-distributed
+ * (a few hot accounts take most of the traffic, as in real payment flows).
+ *
+ * The Zipfian sampler is the rejection-free method from Gray et al.,
+ * "Quickly Generating Billion-Record Synthetic Databases", as used by YCSB.
+ * Index 0 is the hottest account. Not thread-safe: use one per thread.
+ */
+final class KeyChooser {
+
+    static final double ZIPF_THETA = 0.99;
+
+    private final SplittableRandom random;
+    private final int n;
+    private final boolean zipfian;
+    private final double alpha;
+    private final double zetan;
+    private final double eta;
+
+    KeyChooser(String distribution, int n, long seed) {
+        this.random = new SplittableRandom(seed);
+        this.n = n;
+        this.zipfian = switch (distribution) {
+            case "uniform" -> false;
+            case "zipfian" -> true;
+            default -> throw new IllegalArgumentException("Unknown distribution: " + distribution);
+        };
+        double zeta2 = zeta(2, ZIPF_THETA);
+        this.alpha = 1.0 / (1.0 - ZIPF_THETA);
+        this.zetan = zipfian ? zeta(n, ZIPF_THETA) : 0;
+        this.eta = (1 - Math.pow(2.0 / n, 1 - ZIPF_THETA)) / (1 - zeta2 / zetan);
+    }
+
+    int next() {
+        if (!zipfian) {
+            return random.nextInt(n);
+        }
+        double u = random.nextDouble();
+        double uz = u * zetan;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < 1.0 + Math.pow(0.5, ZIPF_THETA)) {
+            return 1;
+        }
+        return Math.min(n - 1, (int) (n * Math.pow(eta * u - eta + 1, alpha)));
+    }
+
+    private static double zeta(int n, double theta) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,121 @@
+package com.fastbank.bankingapi.benchmark;
+
+import com.fastbank.bankingapi.audit.AuditLog;
+import com.fastbank.bankingapi.repository.AccountLocks;
+import com.fastbank.bankingapi.repository.AccountRepository;
+import com.fastbank.bankingapi.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AccountService} money movements against an in-memory repository.
+ *
+ * Run at several thread counts ({@code -t 1}, {@code -t 4}, ...) to see how
+ * the per-account locking scales; {@code distribution=zipfian} concentrates
+ * traffic on a few hot accounts, which is where lock contention shows up,
+ * and {@code distribution=disjoint} gives every thread an account of its
+ * own, so throughput should grow with the thread count up to the cores.
+ * {@code engine=sequenced} runs the same calls through the single-writer
+ * ring buffer instead of request-thread locking, and {@code audit} writes the
+ * ledger audit trail to a temporary file with the given overflow policy.
+ * Every account starts with enough money that withdrawals never fail.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @State(Scope.Benchmark)
+    public static class Ledger {
+        @Param({"10000"})
+        int accounts;
+
+        @Param({"uniform", "zipfian", "disjoint"})
+        String distribution;
+
+        @Param({"locking", "sequenced"})
+        String engine;
+
+        @Param({"off", "drop", "block"})
+        String audit;
+
+        AccountService service;
+        AuditLog auditLog;
+        String[] accountNumbers;
+
+        // Each iteration starts from a fresh ledger so histories do not grow without bound
+        @Setup(Level.Iteration)
+        public void setUp() throws IOException {
+            AccountRepository repository = new AccountRepository();
+            service = Fixtures.service(repository, new AccountLocks(), engine);
+            accountNumbers = Fixtures.accounts(repository, accounts, new BigDecimal("1000000000.00"));
+            auditLog = Fixtures.audit(service, audit);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws Exception {
+            Fixtures.stop(service);
+            if (auditLog != null) {
+                auditLog.close();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        KeyChooser chooser;
+        int own;
+
+        @Setup
+        public void setUp(Ledger ledger, ThreadParams thread) {
+            own = thread.getThreadIndex() % ledger.accounts;
+            if (!ledger.distribution.equals("disjoint")) {
+                chooser = new KeyChooser(ledger.distribution, ledger.accounts, 42L + thread.getThreadIndex());
+            }
+        }
+
+        int next() {
+            return chooser == null ? own : chooser.next();
+        }
+    }
+
+    @Benchmark
+    public Object deposit(Ledger ledger, Keys keys) {
+        return ledger.service.deposit(ledger.accountNumbers[keys.next()], AMOUNT, "Benchmark deposit");
+    }
+
+    @Benchmark
+    public Object withdraw(Ledger ledger, Keys keys) {
+        return ledger.service.withdraw(ledger.accountNumbers[keys.next()], AMOUNT, "Benchmark withdrawal");
+    }
+
+    @Benchmark
+    public void transfer(Ledger ledger, Keys keys) {
+        int from = keys.next();
+        int to = keys.next();
+        // Disjoint threads move money between their own account and its neighbour
+        if (to == from) {
+            to = (from + 1) % ledger.accounts;
+        }
+        ledger.service.transfer(ledger.accountNumbers[from], ledger.accountNumbers[to], AMOUNT, "Benchmark transfer");
+    }
+}
@@ -0,0 +1,207 @@
+package com.fastbank.bankingapi.benchmark;
+
+import com.fastbank.bankingapi.BankingApiApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end HTTP load against the real application, run once on Tomcat's
+ * platform thread pool and once with {@code spring.threads.virtual.enabled},
+ * reporting throughput and p50/p99/p99.9 latency for each.
+ *
+ * Every client is a virtual thread issuing requests back to back, half
+ * transfers and half account summaries. With {@code durable=true} (default)
+ * each transfer waits for its journal group commit, which is where a fixed
+ * pool of 200 platform threads runs out well before 1000 clients do.
+ *
+ * Not a JMH benchmark; run it through the same profile:
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.main=com.fastbank.bankingapi.benchmark.LoadScenario \
+ *     -Djmh.args="concurrency=1000 seconds=10"
+ * </pre>
+ * Options: {@code concurrency}, {@code seconds}, {@code warmup} (seconds),
+ * {@code accounts}, {@code durable}, {@code modes} (comma-separated
+ * {@code platform,virtual}).
+ */
+public final class LoadScenario {
+
+    private static final Pattern ACCOUNT_NUMBER = Pattern.compile("\"accountNumber\":\"([^\"]+)\"");
+
+    private final int concurrency;
+    private final int seconds;
+    private final int warmup;
+    private final int accounts;
+    private final boolean durable;
+
+    private LoadScenario(Map<String, String> options) {
+        this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        this.seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+        this.warmup = Integer.parseInt(options.getOrDefault("warmup", "3"));
+        this.accounts = Integer.parseInt(options.getOrDefault("accounts", "1000"));
+        this.durable = Boolean.parseBoolean(options.getOrDefault("durable", "true"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        // devtools is on the test classpath; its restarter would relaunch main in another class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        LoadScenario scenario = new LoadScenario(options);
+        String[] modes = options.getOrDefault("modes", "platform,virtual").split(",");
+
+        Result[] results = new Result[modes.length];
+        for (int i = 0; i < modes.length; i++) {
+            results[i] = scenario.run(modes[i].trim());
+        }
+        System.out.printf("%n%d clients, %d s measured, %d accounts, durable=%s%n",
+            scenario.concurrency, scenario.seconds, scenario.accounts, scenario.durable);
+        System.out.printf("%-10s %12s %10s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "errors");
+        for (int i = 0; i < modes.length; i++) {
+            Result r = results[i];
+            System.out.printf("%-10s %,12.0f %10.2f %10.2f %10.2f %8d%n",
+                modes[i].trim(), r.throughput(), r.percentileMillis(50), r.percentileMillis(99), r.percentileMillis(99.9), r.errors());
+        }
+        System.exit(0);
+    }
+
+    private Result run(String mode) throws Exception {
+        if (!mode.equals("platform") && !mode.equals("virtual")) {
+            throw new IllegalArgumentException("Unknown mode " + mode + "; expected platform or virtual");
+        }
+        Path dataDir = Files.createTempDirectory("fastbank-load-");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BankingApiApplication.class).run(
+            "--server.port=0",
+            "--spring.threads.virtual.enabled=" + mode.equals("virtual"),
+            "--fastbank.persistence.enabled=" + durable,
+            "--fastbank.persistence.dir=" + dataDir,
+            "--fastbank.persistence.snapshot-interval-seconds=0",
+            "--logging.level.root=WARN",
+            "--logging.level.com.fastbank.bankingapi.service.AccountService=WARN");
+        try (HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+            String[] numbers = openAccounts(http, base);
+
+            long start = System.nanoTime();
+            long measureFrom = start + TimeUnit.SECONDS.toNanos(warmup);
+            long end = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+            AtomicLong errors = new AtomicLong();
+            long[][] latencies = new long[concurrency][];
+            ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+            for (int c = 0; c < concurrency; c++) {
+                int client = c;
+                clients.submit(() -> {
+                    latencies[client] = drive(http, base, numbers, new SplittableRandom(client), measureFrom, end, errors);
+                    return null;
+                });
+            }
+            clients.shutdown();
+            clients.awaitTermination(warmup + seconds + 60L, TimeUnit.SECONDS);
+
+            long[] all = Arrays.stream(latencies).filter(l -> l != null).flatMapToLong(Arrays::stream).toArray();
+            Arrays.sort(all);
+            return new Result(all, seconds, errors.get());
+        } finally {
+            context.close();
+        }
+    }
+
+    private String[] openAccounts(HttpClient http, String base) throws IOException, InterruptedException {
+        String[] numbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            String body = post(http, base + "/accounts", "{\"ownerName\":\"Load " + i + "\"}").body();
+            Matcher matcher = ACCOUNT_NUMBER.matcher(body);
+            if (!matcher.find()) {
+                throw new IllegalStateException("Unexpected create response: " + body);
+            }
+            numbers[i] = matcher.group(1);
+            post(http, base + "/accounts/" + numbers[i] + "/deposit", "{\"amount\":1000000,\"description\":\"Load seed\"}");
+        }
+        return numbers;
+    }
+
+    /** One client's request loop; returns the latencies in nanoseconds of requests started in the measured window. */
+    private static long[] drive(HttpClient http, String base, String[] numbers, SplittableRandom random,
+                                long measureFrom, long end, AtomicLong errors) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            int from = random.nextInt(numbers.length);
+            int status;
+            try {
+                if (random.nextBoolean()) {
+                    int to = (from + 1 + random.nextInt(numbers.length - 1)) % numbers.length;
+                    status = post(http, base + "/accounts/transfer",
+                        "{\"fromAccountNumber\":\"" + numbers[from] + "\",\"toAccountNumber\":\"" + numbers[to]
+                            + "\",\"amount\":1,\"description\":\"Load transfer\"}").statusCode();
+                } else {
+                    status = http.send(HttpRequest.newBuilder(URI.create(base + "/accounts/" + numbers[from])).build(),
+                        HttpResponse.BodyHandlers.discarding()).statusCode();
+                }
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long latency = System.nanoTime() - now;
+            if (now < measureFrom) {
+                continue;
+            }
+            if (status != 200) {
+                errors.incrementAndGet();
+                continue;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static HttpResponse<String> post(HttpClient http, String uri, String json) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uri))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private record Result(long[] sortedLatencies, int seconds, long errors) {
+        double throughput() {
+            return (double) sortedLatencies.length / seconds;
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
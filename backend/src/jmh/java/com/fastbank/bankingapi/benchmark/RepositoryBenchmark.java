@@ -0,0 +1,75 @@
+package com.fastbank.bankingapi.benchmark;
+
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.repository.AccountRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing cost of {@link AccountRepository} as the number of accounts grows:
+ * the full {@code findAll} copy against one {@code findPage} page, and an
+ * owner-name prefix search against the linear scan it replaces. {@code shards}
+ * shows what the k-way merges across shards cost the ordered reads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int accounts;
+
+    @Param({"1", "4"})
+    int shards;
+
+    AccountRepository repository;
+    String middle;
+    String ownerPrefix;
+
+    @Setup
+    public void setUp() {
+        repository = new AccountRepository(shards);
+        String[] numbers = Fixtures.accounts(repository, accounts, new BigDecimal("100.00"));
+        middle = numbers[accounts / 2];
+        // Fixture owners are "Owner <i>"; this prefix matches a handful of them
+        ownerPrefix = "owner " + (accounts / 2) / 10;
+    }
+
+    @Benchmark
+    public List<Account> findAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    public List<Account> findPage() {
+        return repository.findPage(middle, 50);
+    }
+
+    @Benchmark
+    public List<Account> searchByOwner() {
+        return repository.searchByOwner(ownerPrefix, 20);
+    }
+
+    @Benchmark
+    public List<Account> scanByOwner() {
+        return repository.findAll().stream()
+            .filter(account -> account.getOwnerName().toLowerCase().startsWith(ownerPrefix))
+            .limit(20)
+            .toList();
+    }
+}
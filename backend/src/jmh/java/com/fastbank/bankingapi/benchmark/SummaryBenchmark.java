@@ -0,0 +1,71 @@
+package com.fastbank.bankingapi.benchmark;
+
+import com.fastbank.bankingapi.dto.AccountSummary;
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.Transaction;
+import com.fastbank.bankingapi.repository.AccountRepository;
+import com.fastbank.bankingapi.service.SummaryCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producing the JSON for a login or lookup of an account with
+ * {@code transactions} entries: the full {@link Account} as login used to
+ * return it, a freshly serialized {@link AccountSummary}, and the bytes kept
+ * by {@link SummaryCache} for an account that has not changed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SummaryBenchmark {
+
+    @Param({"10", "1000"})
+    int transactions;
+
+    ObjectMapper objectMapper;
+    SummaryCache cache;
+    Account account;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().findAndAddModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        cache = new SummaryCache();
+        account = new Account("Benchmark Owner");
+        for (int i = 0; i < transactions; i++) {
+            account.credit(new Transaction(account.getAccountNumber(), "DEPOSIT", new BigDecimal("12.34"), "Grocery store " + i));
+        }
+        new AccountRepository().save(account);
+    }
+
+    @Benchmark
+    public byte[] fullAccount() throws Exception {
+        return objectMapper.writeValueAsBytes(account);
+    }
+
+    @Benchmark
+    public byte[] freshSummary() throws Exception {
+        return objectMapper.writeValueAsBytes(AccountSummary.from(account));
+    }
+
+    @Benchmark
+    public byte[] cachedSummary() {
+        return cache.get(account);
+    }
+}
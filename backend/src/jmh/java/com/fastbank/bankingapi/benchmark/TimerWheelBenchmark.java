@@ -0,0 +1,74 @@
+package com.fastbank.bankingapi.benchmark;
+
+import com.fastbank.bankingapi.schedule.TimerWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.SplittableRandom;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rescheduling one standing order while {@code orders} others are pending
+ * over the next 31 days: a {@link TimerWheel} entry against a task in a
+ * {@link ScheduledThreadPoolExecutor}, whose delay queue is a binary heap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimerWheelBenchmark {
+
+    private static final long MONTH_SECONDS = 31L * 24 * 3600;
+    private static final Runnable NOTHING = () -> { };
+
+    @Param({"10000", "1000000"})
+    int orders;
+
+    TimerWheel<Integer> wheel;
+    ScheduledThreadPoolExecutor executor;
+    SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new SplittableRandom(42);
+        wheel = new TimerWheel<>(0);
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        for (int i = 0; i < orders; i++) {
+            long deadline = 1 + random.nextLong(MONTH_SECONDS);
+            wheel.schedule(i, deadline);
+            executor.schedule(NOTHING, deadline, TimeUnit.SECONDS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean timerWheel() {
+        TimerWheel.Timer<Integer> timer = wheel.schedule(-1, 1 + random.nextLong(MONTH_SECONDS));
+        return wheel.cancel(timer);
+    }
+
+    @Benchmark
+    public boolean scheduledExecutor() {
+        ScheduledFuture<?> future = executor.schedule(NOTHING, 1 + random.nextLong(MONTH_SECONDS), TimeUnit.SECONDS);
+        return future.cancel(false);
+    }
+}
@@ -0,0 +1,47 @@
+package com.fastbank.bankingapi.benchmark;
+
+import com.fastbank.bankingapi.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a {@link Transaction}: id generation, timestamp and
+ * description categorization. {@code randomUuid} isolates the id part.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("42.50");
+
+    @State(Scope.Thread)
+    public static class Description {
+        // One matching the first rule, one matching a later rule, and one matching none
+        @Param({"Weekly grocery run", "Monthly payroll", "Transfer to ACC1234567890: Rent for the flat in June"})
+        String text;
+    }
+
+    @Benchmark
+    public Transaction construct(Description description) {
+        return new Transaction("ACC1234567890", "DEPOSIT", AMOUNT, description.text);
+    }
+
+    @Benchmark
+    public UUID randomUuid() {
+        return UUID.randomUUID();
+    }
+}
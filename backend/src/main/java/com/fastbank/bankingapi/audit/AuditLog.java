@@ -0,0 +1,259 @@
+package com.fastbank.bankingapi.audit;
+
+import com.fastbank.bankingapi.metrics.MetricsSource;
+import com.fastbank.bankingapi.model.Money;
+import com.fastbank.bankingapi.model.Transaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ledger audit trail: one JSON line per balance change, with the account,
+ * transaction, amount, resulting balance, audit sequence and journal sequence.
+ *
+ * Request threads only copy a few references and longs into a preallocated
+ * slot of a bounded ring and publish it; a single {@code ledger-audit} thread
+ * formats the lines and writes them to {@code fastbank.audit.file}, so no
+ * request ever waits on disk. When the ring is full the
+ * {@code fastbank.audit.overflow} policy applies: {@code drop} counts and
+ * discards the entry, {@code block} makes the request wait for space.
+ *
+ * Audit sequences are assigned in ring order and have no gaps; dropped entries
+ * never get one. An instance that was never opened ignores everything.
+ */
+@Component
+public class AuditLog implements AutoCloseable, MetricsSource {
+
+    public enum Overflow { DROP, BLOCK }
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+
+    private static final class Slot {
+        volatile long published = -1;
+        long timestamp;
+        String accountNumber;
+        Transaction transaction;
+        long balanceMinorUnits;
+        long journalSequence;
+    }
+
+    @Value("${fastbank.audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fastbank.audit.file:logs/ledger-audit.log}")
+    private Path file;
+
+    @Value("${fastbank.audit.queue-size:65536}")
+    private int queueSize;
+
+    @Value("${fastbank.audit.overflow:drop}")
+    private String overflow;
+
+    private volatile Slot[] ring;
+    private int mask;
+    private Overflow policy;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private volatile boolean closed;
+    private final LongAdder dropped = new LongAdder();
+    private Writer writer;
+    private Thread consumer;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (enabled) {
+            open(file, queueSize, Overflow.valueOf(overflow.toUpperCase(Locale.ROOT)));
+        }
+    }
+
+    /** Starts writing to {@code file}; {@code capacity} is rounded up to a power of two. */
+    public void open(Path file, int capacity, Overflow policy) throws IOException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Audit queue size must be positive");
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE), 64 * 1024);
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        Slot[] slots = new Slot[Math.max(size, 1)];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = slots.length - 1;
+        this.policy = policy;
+        this.consumer = new Thread(this::drain, "ledger-audit");
+        this.consumer.setDaemon(true);
+        this.ring = slots;
+        this.consumer.start();
+        logger.info("Ledger audit log at {} (queue {}, overflow {})", file, slots.length, policy);
+    }
+
+    /**
+     * Queues an audit line for a balance change that has just been applied.
+     * Call it while still holding the account's lock, so {@code balanceMinorUnits}
+     * is the balance right after this change.
+     */
+    public void record(String accountNumber, Transaction transaction, long balanceMinorUnits, long journalSequence) {
+        Slot[] slots = ring;
+        if (slots == null || closed) {
+            return;
+        }
+        long sequence;
+        while (true) {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                if (policy == Overflow.DROP) {
+                    dropped.increment();
+                    return;
+                }
+                LockSupport.parkNanos(1_000);
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+        Slot slot = slots[(int) sequence & mask];
+        slot.timestamp = System.currentTimeMillis();
+        slot.accountNumber = accountNumber;
+        slot.transaction = transaction;
+        slot.balanceMinorUnits = balanceMinorUnits;
+        slot.journalSequence = journalSequence;
+        slot.published = sequence;
+    }
+
+    /** Entries discarded because the queue was full under the {@code drop} policy. */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /** Entries written so far; also the audit sequence of the next one. */
+    public long getWrittenCount() {
+        return consumed;
+    }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP fastbank_audit_entries_total Audit log entries written or dropped on a full queue.\n");
+        out.append("# TYPE fastbank_audit_entries_total counter\n");
+        out.append("fastbank_audit_entries_total{outcome=\"written\"} ").append(getWrittenCount()).append('\n');
+        out.append("fastbank_audit_entries_total{outcome=\"dropped\"} ").append(getDroppedCount()).append('\n');
+    }
+
+    private void drain() {
+        Slot[] slots = ring;
+        StringBuilder line = new StringBuilder(256);
+        char[] chars = new char[256];
+        long next = consumed;
+        boolean dirty = false;
+        while (true) {
+            Slot slot = slots[(int) next & mask];
+            if (slot.published != next) {
+                if (closed && next == claimed.get()) {
+                    break;
+                }
+                if (dirty) {
+                    // Caught up: push what we have to the file before idling
+                    flush();
+                    dirty = false;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            line.setLength(0);
+            format(line, next, slot);
+            slot.accountNumber = null;
+            slot.transaction = null;
+            consumed = ++next;
+            if (chars.length < line.length()) {
+                chars = new char[line.length() * 2];
+            }
+            line.getChars(0, line.length(), chars, 0);
+            try {
+                writer.write(chars, 0, line.length());
+                dirty = true;
+            } catch (IOException e) {
+                logger.error("Audit log write failed", e);
+            }
+        }
+        flush();
+    }
+
+    private void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            logger.error("Audit log flush failed", e);
+        }
+    }
+
+    private static void format(StringBuilder line, long sequence, Slot slot) {
+        Transaction transaction = slot.transaction;
+        line.append("{\"seq\":").append(sequence)
+            .append(",\"ts\":").append(slot.timestamp)
+            .append(",\"account\":\"");
+        escape(line, slot.accountNumber);
+        line.append("\",\"tx\":\"").append(transaction.getId())
+            .append("\",\"type\":\"").append(transaction.getType())
+            .append("\",\"amount\":\"");
+        appendMinorUnits(line, Money.toMinorUnits(transaction.getAmount()));
+        line.append("\",\"balance\":\"");
+        appendMinorUnits(line, slot.balanceMinorUnits);
+        line.append("\",\"journal\":").append(slot.journalSequence)
+            .append("}\n");
+    }
+
+    static void appendMinorUnits(StringBuilder line, long minorUnits) {
+        if (minorUnits < 0) {
+            line.append('-');
+            minorUnits = -minorUnits;
+        }
+        long cents = minorUnits % 100;
+        line.append(minorUnits / 100).append('.').append(cents < 10 ? "0" : "").append(cents);
+    }
+
+    private static void escape(StringBuilder line, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\');
+            }
+            line.append(c);
+        }
+    }
+
+    /** Stops accepting entries, writes everything already queued and closes the file. */
+    @PreDestroy
+    @Override
+    public void close() throws IOException, InterruptedException {
+        if (ring == null || closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(consumer);
+        consumer.join();
+        writer.close();
+    }
+}
@@ -0,0 +1,137 @@
+package com.fastbank.bankingapi.config;
+
+import com.fastbank.bankingapi.model.Categorizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads transaction categorization rules from {@code fastbank.categories.file}
+ * and reloads them when the file changes, checked every
+ * {@code fastbank.categories.reload-seconds}. Without a file the built-in
+ * rules stay in place.
+ *
+ * One category per line, {@code Category: keyword, keyword, ...}; blank lines
+ * and lines starting with {@code #} are skipped. Earlier lines win when a
+ * description matches several. A file that fails to parse leaves the rules
+ * in use unchanged. Existing transactions keep the category they were given.
+ */
+@Component
+public class CategoryRules {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryRules.class);
+
+    // TransactionHistory codes up to this many category strings, the default one included, in a byte
+    private static final int COMPACT_CATEGORIES = 128;
+
+    @Value("${fastbank.categories.file:}")
+    private String file = "";
+
+    @Value("${fastbank.categories.reload-seconds:10}")
+    private long reloadSeconds = 10;
+
+    private ScheduledExecutorService scheduler;
+    private FileTime loadedModified;
+    private long loadedSize = -1;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (file.isBlank()) {
+            logger.info("No fastbank.categories.file configured, using {} built-in categorization rules",
+                Categorizer.builtIn().ruleCount());
+            return;
+        }
+        // A broken file at startup is a configuration error, not something to run without
+        install(Path.of(file));
+        if (reloadSeconds > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "category-rules-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::reloadQuietly, reloadSeconds, reloadSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /** Reloads the rules if the file changed since they were last loaded. Returns whether it did. */
+    public boolean reload() throws IOException {
+        Path path = Path.of(file);
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        if (attributes.lastModifiedTime().equals(loadedModified) && attributes.size() == loadedSize) {
+            return false;
+        }
+        install(path);
+        return true;
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not reload categorization rules from {}, keeping the current ones", file, e);
+        }
+    }
+
+    private void install(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long start = System.nanoTime();
+        Categorizer categorizer = Categorizer.compile(parse(Files.readAllLines(path, StandardCharsets.UTF_8)));
+        Categorizer.install(categorizer);
+        loadedModified = attributes.lastModifiedTime();
+        loadedSize = attributes.size();
+        int categories = categorizer.categories().size();
+        logger.info("Loaded {} categorization rules in {} categories from {} in {} ms",
+            categorizer.ruleCount(), categories, path, (System.nanoTime() - start) / 1_000_000);
+        if (categories + 1 > COMPACT_CATEGORIES) {
+            logger.warn("More than {} categories: history entries in the rest are stored uncompressed", COMPACT_CATEGORIES - 1);
+        }
+    }
+
+    /** @throws IllegalArgumentException on a line without a category or keywords */
+    static List<Categorizer.Rule> parse(List<String> lines) {
+        List<Categorizer.Rule> rules = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int colon = line.indexOf(':');
+            String category = colon < 0 ? "" : line.substring(0, colon).strip();
+            if (category.isEmpty()) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": expected 'Category: keyword, ...'");
+            }
+            int before = rules.size();
+            for (String keyword : line.substring(colon + 1).split(",")) {
+                if (!keyword.isBlank()) {
+                    rules.add(new Categorizer.Rule(keyword.strip(), category));
+                }
+            }
+            if (rules.size() == before) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": no keywords for " + category);
+            }
+        }
+        return rules;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        Categorizer.install(null);
+    }
+}
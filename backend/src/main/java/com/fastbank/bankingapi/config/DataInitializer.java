@@ -3,6 +3,8 @@ package com.fastbank.bankingapi.config;
 import com.fastbank.bankingapi.model.Account;
 import com.fastbank.bankingapi.model.Transaction;
 import com.fastbank.bankingapi.repository.AccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -12,6 +14,8 @@ import java.time.LocalDateTime;
 @Component
 public class DataInitializer implements CommandLineRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
+
     @Autowired
     private AccountRepository accountRepository;
 
@@ -43,7 +47,7 @@ public class DataInitializer implements CommandLineRunner {
             johnAccount.getTransactions().add(johnWithdraw2);
 
             accountRepository.save(johnAccount);
-            System.out.println("Demo account created: ACC1234567890 for John Doe with balance: €" + johnAccount.getBalance());
+            logger.info("Demo account created: ACC1234567890 for John Doe with balance: €{}", johnAccount.getBalance());
         }
 
         if (!accountRepository.existsByAccountNumber("ACC0987654321")) {
@@ -75,9 +79,9 @@ public class DataInitializer implements CommandLineRunner {
             janeAccount.getTransactions().add(janeDeposit3);
 
             accountRepository.save(janeAccount);
-            System.out.println("Demo account created: ACC0987654321 for Jane Smith with balance: €" + janeAccount.getBalance());
+            logger.info("Demo account created: ACC0987654321 for Jane Smith with balance: €{}", janeAccount.getBalance());
         }
 
-        System.out.println("Demo data initialization completed!");
+        logger.info("Demo data initialization completed");
     }
 }
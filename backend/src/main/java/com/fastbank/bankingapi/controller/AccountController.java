@@ -1,30 +1,45 @@
 package com.fastbank.bankingapi.controller;
 
+import com.fastbank.bankingapi.dto.AccountInsights;
+import com.fastbank.bankingapi.dto.AccountPage;
+import com.fastbank.bankingapi.dto.AccountSummary;
 import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.TransactionHistory;
 import com.fastbank.bankingapi.service.AccountService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api")
 @CrossOrigin(origins = "http://localhost:3000") // For React dev server
 public class AccountController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private AccountService accountService;
 
+    // Answers with the account summary, not the full account with its history
     @PostMapping("/login")
-    public ResponseEntity<Account> login(@RequestBody Map<String, String> request) {
+    public ResponseEntity<byte[]> login(@RequestBody Map<String, String> request) {
         String accountNumber = request.get("accountNumber");
         Optional<Account> account = accountService.findByAccountNumber(accountNumber);
         
         if (account.isPresent()) {
-            return ResponseEntity.ok(account.get());
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(accountService.getSummaryJson(account.get()));
         } else {
             return ResponseEntity.status(404).body(null);
         }
@@ -37,8 +52,75 @@ public class AccountController {
     }
 
     @GetMapping("/accounts")
-    public List<Account> getAllAccounts() {
-        return accountService.getAllAccounts();
+    public ResponseEntity<AccountPage> getAccounts(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int limit,
+                                                   WebRequest request) {
+        checkLimit(limit);
+        return ifModified(request, accountService.getCollectionETag(), () -> {
+            List<AccountSummary> accounts = accountService.getAccountPage(cursor, limit).stream()
+                .map(AccountSummary::from)
+                .toList();
+            String nextCursor = accounts.size() == limit ? accounts.get(accounts.size() - 1).accountNumber() : null;
+            return new AccountPage(accounts, nextCursor);
+        });
+    }
+
+    @GetMapping("/accounts/search")
+    public ResponseEntity<List<AccountSummary>> searchAccounts(@RequestParam String owner,
+                                                               @RequestParam(defaultValue = "20") int limit,
+                                                               WebRequest request) {
+        checkLimit(limit);
+        if (owner.isBlank()) {
+            throw new IllegalArgumentException("owner must not be blank");
+        }
+        return ifModified(request, accountService.getCollectionETag(), () -> accountService.searchByOwner(owner, limit).stream()
+            .map(AccountSummary::from)
+            .toList());
+    }
+
+    @GetMapping("/accounts/{accountNumber}")
+    public ResponseEntity<byte[]> getAccount(@PathVariable String accountNumber, WebRequest request) {
+        return accountService.findByAccountNumber(accountNumber)
+            .map(account -> ifModified(request, accountService.getETag(account), () -> accountService.getSummaryJson(account)))
+            .orElse(ResponseEntity.status(404).build());
+    }
+
+    // A matching If-None-Match gets a 304 before the body is even built; the tag is taken before the data it describes.
+    // no-cache lets browsers keep the body but makes them revalidate it on every read
+    private static <T> ResponseEntity<T> ifModified(WebRequest request, String eTag, Supplier<T> body) {
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON).body(body.get());
+    }
+
+    @GetMapping("/accounts/{accountNumber}/transactions")
+    public ResponseEntity<TransactionHistory.Page> getTransactions(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        checkLimit(limit);
+        return accountService.getTransactionHistory(accountNumber, from, to, cursor, limit)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.status(404).build());
+    }
+
+    @GetMapping("/accounts/{accountNumber}/insights")
+    public ResponseEntity<AccountInsights> getInsights(@PathVariable String accountNumber) {
+        return accountService.getInsights(accountNumber)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.status(404).build());
+    }
+
+    // Server-Sent Events: a "snapshot" with the balance, then a "transaction" per change
+    @GetMapping("/accounts/{accountNumber}/events")
+    public ResponseEntity<SseEmitter> streamEvents(@PathVariable String accountNumber) {
+        return accountService.subscribe(accountNumber)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.status(404).build());
     }
 
     @PostMapping("/accounts/{accountNumber}/deposit")
@@ -63,5 +145,15 @@ public class AccountController {
         String description = request.get("description").toString();
         accountService.transfer(fromAccountNumber, toAccountNumber, amount, description);
     }
-}
 
+    private static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.fastbank.bankingapi.controller;
+
+import com.fastbank.bankingapi.dto.AccrualRequest;
+import com.fastbank.bankingapi.dto.AccrualStatus;
+import com.fastbank.bankingapi.service.AccrualService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/accruals")
+@CrossOrigin(origins = "http://localhost:3000") // For React dev server
+public class AccrualController {
+
+    @Autowired
+    private AccrualService accrualService;
+
+    /**
+     * Queues an end-of-day run over every account, or resumes a stopped one
+     * with the same run id. Poll the returned run for progress.
+     */
+    @PostMapping
+    public ResponseEntity<AccrualStatus> start(@RequestBody AccrualRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(accrualService.start(request));
+    }
+
+    @GetMapping
+    public List<AccrualStatus> getRuns() {
+        return accrualService.getRuns();
+    }
+
+    @GetMapping("/{runId}")
+    public ResponseEntity<AccrualStatus> getRun(@PathVariable String runId) {
+        return accrualService.getStatus(runId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.status(404).build());
+    }
+
+    @PostMapping("/{runId}/cancel")
+    public ResponseEntity<AccrualStatus> cancel(@PathVariable String runId) {
+        return accrualService.cancel(runId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.status(404).build());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,173 @@
+package com.fastbank.bankingapi.controller;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the outcome of a request per idempotency key.
+ *
+ * The first request for a key claims it and executes; concurrent duplicates
+ * wait on the same future instead of executing again, for at most
+ * {@code waitNanos}, and later duplicates get the stored value straight away.
+ * Only completed values are remembered: when the owner fails, the key is
+ * released and a waiting duplicate claims it and executes itself.
+ *
+ * Entries expire {@code ttlNanos} after they were claimed and at most
+ * {@code maxEntries} are kept; both are enforced oldest-first from an
+ * insertion-order queue on every claim, so there is no sweeper thread.
+ * A failed claim leaves its node behind in the queue; the bound is on the
+ * queue rather than the map, so retries that keep failing cannot grow it.
+ * A key whose request is still executing is never evicted or expired, since a
+ * retry could then claim it and move the money again; while many requests are
+ * in flight the cache holds more than {@code maxEntries}.
+ */
+public class IdempotencyCache<V> {
+
+    private static final class Entry<V> {
+        final String key;
+        final Object fingerprint;
+        final long createdAt;
+        final CompletableFuture<V> result = new CompletableFuture<>();
+
+        Entry(String key, Object fingerprint, long createdAt) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * Result of {@link #claim}: either this caller owns the key and must call
+     * {@link #complete} or {@link #fail}, or {@link #value()} is the stored result.
+     */
+    public static final class Claim<V> {
+        private final IdempotencyCache<V> cache;
+        private final Entry<V> entry;
+        private final V value;
+
+        private Claim(IdempotencyCache<V> cache, Entry<V> entry, V value) {
+            this.cache = cache;
+            this.entry = entry;
+            this.value = value;
+        }
+
+        public boolean isOwner() { return entry != null; }
+        public V value() { return value; }
+
+        /** Stores the value and releases every waiting duplicate with it. */
+        public void complete(V result) {
+            entry.result.complete(result);
+        }
+
+        /** Forgets the key so the next duplicate executes again. */
+        public void fail(Throwable cause) {
+            cache.entries.remove(entry.key, entry);
+            entry.result.completeExceptionally(cause);
+        }
+    }
+
+    /** Thrown when a key comes back with a request that does not match the one it was first used for. */
+    public static class KeyReusedException extends RuntimeException {
+        public KeyReusedException(String key) {
+            super("Idempotency-Key " + key + " was already used for a different request");
+        }
+    }
+
+    /** Thrown when a duplicate gives up waiting for the request that holds its key. */
+    public static class InProgressException extends RuntimeException {
+        public InProgressException(String key) {
+            super("A request with Idempotency-Key " + key + " is still in progress");
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry<V>> insertionOrder = new ConcurrentLinkedQueue<>();
+    // Nodes in insertionOrder, live or not; ConcurrentLinkedQueue.size() walks the whole queue
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long waitNanos;
+    private final LongSupplier clock;
+
+    public IdempotencyCache(int maxEntries, long ttlNanos, long waitNanos) {
+        this(maxEntries, ttlNanos, waitNanos, System::nanoTime);
+    }
+
+    IdempotencyCache(int maxEntries, long ttlNanos, long waitNanos, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlNanos;
+        this.waitNanos = waitNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Claims {@code key} for a request identified by {@code fingerprint}, or
+     * waits for and returns the outcome of the request that already holds it.
+     */
+    public Claim<V> claim(String key, Object fingerprint) throws InterruptedException {
+        while (true) {
+            long now = clock.getAsLong();
+            Entry<V> fresh = new Entry<>(key, fingerprint, now);
+            Entry<V> existing = entries.putIfAbsent(key, fresh);
+            if (existing != null && now - existing.createdAt > ttlNanos && existing.result.isDone()) {
+                // Expired but not yet evicted: take its place
+                if (!entries.replace(key, existing, fresh)) {
+                    continue;
+                }
+                existing = null;
+            }
+            if (existing == null) {
+                insertionOrder.add(fresh);
+                queued.incrementAndGet();
+                evict(now);
+                return new Claim<>(this, fresh, null);
+            }
+            if (!Objects.equals(existing.fingerprint, fingerprint)) {
+                throw new KeyReusedException(key);
+            }
+            try {
+                return new Claim<>(this, null, existing.result.get(waitNanos, TimeUnit.NANOSECONDS));
+            } catch (ExecutionException e) {
+                // The owner failed and released the key; try to claim it ourselves
+            } catch (TimeoutException e) {
+                throw new InProgressException(key);
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    private void evict(long now) {
+        // In-flight entries go to the back of the queue; one pass over the queue at most
+        int budget = queued.get();
+        Entry<V> oldest;
+        while (budget-- > 0 && (oldest = insertionOrder.peek()) != null
+                && (now - oldest.createdAt > ttlNanos || queued.get() > maxEntries
+                    || entries.get(oldest.key) != oldest)) {
+            // Another claimer may have polled it first; then this takes the next-oldest, which is just as due
+            Entry<V> evicted = insertionOrder.poll();
+            if (evicted == null) {
+                continue;
+            }
+            if (entries.get(evicted.key) == evicted && !evicted.result.isDone()) {
+                insertionOrder.add(evicted);
+                continue;
+            }
+            queued.decrementAndGet();
+            entries.remove(evicted.key, evicted);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.fastbank.bankingapi.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Makes the money-moving endpoints safe to retry. A POST carrying an
+ * {@code Idempotency-Key} header is executed once; any repeat with the same
+ * key and the same body gets the original response back, marked with
+ * {@code Idempotent-Replayed: true}, without reaching the controller. Repeats
+ * that arrive while the first request is still running wait for its result,
+ * and get 409 if it takes longer than {@code fastbank.idempotency.wait-seconds}.
+ *
+ * Only 2xx responses are remembered, since failed requests moved no money;
+ * reusing a key for a different request is answered with 422.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Pattern MONEY_MOVEMENT = Pattern.compile("/api/(accounts/(transfer|[^/]+/(deposit|withdraw))|transactions/batch)");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    /** A response as first sent, headers included so CORS headers are replayed too. */
+    record StoredResponse(int status, String contentType, List<Map.Entry<String, String>> headers, byte[] body) {}
+
+    /** What a key was first used for: the same key with another request is a client error. */
+    private record Fingerprint(String uri, byte[] body) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Fingerprint that && uri.equals(that.uri) && Arrays.equals(body, that.body);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * uri.hashCode() + Arrays.hashCode(body);
+        }
+    }
+
+    private final IdempotencyCache<StoredResponse> cache;
+
+    @Autowired
+    public IdempotencyFilter(@Value("${fastbank.idempotency.max-entries:100000}") int maxEntries,
+                             @Value("${fastbank.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                             @Value("${fastbank.idempotency.wait-seconds:30}") long waitSeconds) {
+        this.cache = new IdempotencyCache<>(maxEntries, TimeUnit.SECONDS.toNanos(ttlSeconds), TimeUnit.SECONDS.toNanos(waitSeconds));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+            || request.getHeader(KEY_HEADER) == null
+            || !MONEY_MOVEMENT.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(KEY_HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            sendError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        byte[] body = request.getInputStream().readAllBytes();
+
+        IdempotencyCache.Claim<StoredResponse> claim;
+        try {
+            claim = cache.claim(key, new Fingerprint(request.getRequestURI(), body));
+        } catch (IdempotencyCache.KeyReusedException e) {
+            sendError(response, HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage());
+            return;
+        } catch (IdempotencyCache.InProgressException e) {
+            sendError(response, HttpStatus.CONFLICT, e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while waiting for a duplicate request", e);
+        }
+        if (!claim.isOwner()) {
+            replay(claim.value(), response);
+            return;
+        }
+
+        ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(new BufferedBodyRequest(request, body), captured);
+        } catch (Throwable e) {
+            // Errors too: an entry left pending would block every duplicate until it expires
+            claim.fail(e);
+            throw e;
+        }
+        int status = captured.getStatus();
+        if (status >= 200 && status < 300) {
+            List<Map.Entry<String, String>> headers = new ArrayList<>();
+            for (String name : captured.getHeaderNames()) {
+                if (name.equalsIgnoreCase("Content-Type") || name.equalsIgnoreCase("Content-Length")) {
+                    continue;
+                }
+                for (String value : captured.getHeaders(name)) {
+                    headers.add(Map.entry(name, value));
+                }
+            }
+            claim.complete(new StoredResponse(status, captured.getContentType(), headers, captured.getContentAsByteArray()));
+        } else {
+            claim.fail(new IllegalStateException("Request failed with status " + status));
+        }
+        captured.copyBodyToResponse();
+    }
+
+    private static void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        for (Map.Entry<String, String> header : stored.headers()) {
+            response.addHeader(header.getKey(), header.getValue());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static void sendError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}");
+    }
+
+    /** Hands the already-read body to the rest of the chain. */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override public int read() { return in.read(); }
+                @Override public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+                @Override public boolean isFinished() { return in.available() == 0; }
+                @Override public boolean isReady() { return true; }
+                @Override public void setReadListener(ReadListener listener) { throw new UnsupportedOperationException(); }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
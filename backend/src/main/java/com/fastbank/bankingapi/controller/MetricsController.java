@@ -0,0 +1,49 @@
+package com.fastbank.bankingapi.controller;
+
+import com.fastbank.bankingapi.metrics.MetricsSource;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+@RestController
+public class MetricsController {
+
+    static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+    // Every component that reports metrics; ledger counters, locks, audit, events, caches, ...
+    @Autowired
+    private List<MetricsSource> sources;
+
+    // Metrics are for a scraper on the same host unless explicitly opened up
+    @Value("${fastbank.metrics.local-only:true}")
+    private boolean localOnly;
+
+    /** Ledger counters and latency summaries in the Prometheus text exposition format. */
+    @GetMapping(value = "/metrics", produces = PROMETHEUS_TEXT)
+    public ResponseEntity<String> metrics(HttpServletRequest request) {
+        if (localOnly && !isLoopback(request.getRemoteAddr())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        StringBuilder out = new StringBuilder(8192);
+        for (MetricsSource source : sources) {
+            source.writePrometheus(out);
+        }
+        return ResponseEntity.ok(out.toString());
+    }
+
+    private static boolean isLoopback(String address) {
+        try {
+            // A literal address, so no DNS lookup happens here
+            return InetAddress.getByName(address).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
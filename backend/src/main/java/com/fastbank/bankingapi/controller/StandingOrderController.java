@@ -0,0 +1,66 @@
+package com.fastbank.bankingapi.controller;
+
+import com.fastbank.bankingapi.dto.StandingOrder;
+import com.fastbank.bankingapi.dto.StandingOrderExecution;
+import com.fastbank.bankingapi.dto.StandingOrderRequest;
+import com.fastbank.bankingapi.service.StandingOrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/standing-orders")
+@CrossOrigin(origins = "http://localhost:3000") // For React dev server
+public class StandingOrderController {
+
+    @Autowired
+    private StandingOrderService standingOrderService;
+
+    @PostMapping
+    public ResponseEntity<StandingOrder> create(@RequestBody StandingOrderRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(standingOrderService.create(request));
+    }
+
+    /** Orders paying out of the account. */
+    @GetMapping
+    public List<StandingOrder> getByAccount(@RequestParam String account) {
+        return standingOrderService.getByAccount(account);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<StandingOrder> get(@PathVariable String id) {
+        return standingOrderService.get(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.status(404).build());
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<StandingOrder> update(@PathVariable String id, @RequestBody StandingOrderRequest request) {
+        return standingOrderService.update(id, request)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.status(404).build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable String id) {
+        return standingOrderService.delete(id)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.status(404).build();
+    }
+
+    /** The order's recent executions, newest first. */
+    @GetMapping("/{id}/executions")
+    public ResponseEntity<List<StandingOrderExecution>> getHistory(@PathVariable String id) {
+        return standingOrderService.getHistory(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.status(404).build());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,32 @@
+package com.fastbank.bankingapi.controller;
+
+import com.fastbank.bankingapi.dto.BatchRequest;
+import com.fastbank.bankingapi.dto.BatchResult;
+import com.fastbank.bankingapi.service.BatchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/transactions")
+@CrossOrigin(origins = "http://localhost:3000") // For React dev server
+public class TransactionController {
+
+    @Autowired
+    private BatchService batchService;
+
+    /**
+     * Applies up to {@link BatchService#MAX_OPERATIONS} operations in one
+     * request and reports each one's outcome in request order.
+     */
+    @PostMapping("/batch")
+    public BatchResult batch(@RequestBody BatchRequest request) {
+        return batchService.apply(request);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
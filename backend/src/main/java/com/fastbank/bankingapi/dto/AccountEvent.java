@@ -0,0 +1,10 @@
+package com.fastbank.bankingapi.dto;
+
+import com.fastbank.bankingapi.model.Transaction;
+import java.math.BigDecimal;
+
+/**
+ * Payload of an account event stream message: the balance after the change,
+ * and the transaction that made it. A {@code snapshot} carries no transaction.
+ */
+public record AccountEvent(String accountNumber, BigDecimal balance, Transaction transaction) {}
@@ -0,0 +1,30 @@
+package com.fastbank.bankingapi.dto;
+
+import com.fastbank.bankingapi.model.Money;
+import com.fastbank.bankingapi.model.SpendingInsights;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Spending insights of one account: totals per category, largest outgoing
+ * first, then largest incoming, and per month for up to the last {@value SpendingInsights#MONTHS}
+ * months, oldest first. Months are formatted {@code yyyy-MM}.
+ */
+public record AccountInsights(String accountNumber, List<CategoryTotal> categories, List<MonthTotal> months) {
+
+    public record CategoryTotal(String category, BigDecimal incoming, BigDecimal outgoing, long count) {}
+
+    public record MonthTotal(String month, BigDecimal incoming, BigDecimal outgoing, long count) {}
+
+    public static AccountInsights from(String accountNumber, SpendingInsights insights) {
+        List<CategoryTotal> categories = insights.byCategory().entrySet().stream()
+            .map(entry -> new CategoryTotal(entry.getKey(), Money.fromMinorUnits(entry.getValue().incoming()),
+                Money.fromMinorUnits(entry.getValue().outgoing()), entry.getValue().count()))
+            .toList();
+        List<MonthTotal> months = insights.byMonth().entrySet().stream()
+            .map(entry -> new MonthTotal(entry.getKey().toString(), Money.fromMinorUnits(entry.getValue().incoming()),
+                Money.fromMinorUnits(entry.getValue().outgoing()), entry.getValue().count()))
+            .toList();
+        return new AccountInsights(accountNumber, categories, months);
+    }
+}
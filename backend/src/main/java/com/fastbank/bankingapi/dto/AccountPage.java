@@ -0,0 +1,9 @@
+package com.fastbank.bankingapi.dto;
+
+import java.util.List;
+
+/**
+ * One page of accounts ordered by account number. {@code nextCursor} is the
+ * last account number on the page, or null when there are no more pages.
+ */
+public record AccountPage(List<AccountSummary> accounts, String nextCursor) {}
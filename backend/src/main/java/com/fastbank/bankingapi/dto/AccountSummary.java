@@ -0,0 +1,18 @@
+package com.fastbank.bankingapi.dto;
+
+import com.fastbank.bankingapi.model.Account;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Account as returned by lookups and listings: everything except the
+ * transaction history, which is paged separately.
+ */
+public record AccountSummary(String accountNumber, String ownerName, BigDecimal balance,
+                             LocalDateTime createdAt, int transactionCount) {
+
+    public static AccountSummary from(Account account) {
+        return new AccountSummary(account.getAccountNumber(), account.getOwnerName(), account.getBalance(),
+            account.getCreatedAt(), account.getTransactions().size());
+    }
+}
@@ -0,0 +1,14 @@
+package com.fastbank.bankingapi.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Body of {@code POST /api/accruals}: one end-of-day run over every account.
+ * {@code INTEREST} credits {@code rate} times a positive balance, rounded to
+ * the cent; {@code FEE} debits {@code amount} from every account that covers
+ * it. Posting the same {@code runId} again resumes that run, never repeats it.
+ */
+public record AccrualRequest(String runId, Type type, BigDecimal rate, BigDecimal amount) {
+
+    public enum Type { INTEREST, FEE }
+}
@@ -0,0 +1,24 @@
+package com.fastbank.bankingapi.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of an accrual run. Counts cover every attempt of the run; the
+ * throughput is that of the current or last attempt. {@code totalAccounts}
+ * is -1 until the run has listed the accounts.
+ */
+public record AccrualStatus(String runId, AccrualRequest.Type type, State state, long totalAccounts, long processedAccounts,
+                            long posted, long skipped, long failed, LocalDateTime startedAt, LocalDateTime finishedAt,
+                            double accountsPerSecond, String error) {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        /** Stopped on request; posting the run again resumes it. */
+        CANCELLED,
+        /** Stopped by a shutdown or crash; posting the run again resumes it. */
+        INTERRUPTED,
+        FAILED
+    }
+}
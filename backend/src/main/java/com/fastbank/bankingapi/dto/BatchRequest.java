@@ -0,0 +1,16 @@
+package com.fastbank.bankingapi.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Body of {@code POST /api/transactions/batch}. With {@code atomic} set,
+ * either every operation is applied or none is.
+ */
+public record BatchRequest(boolean atomic, List<Operation> operations) {
+
+    public enum Type { DEPOSIT, WITHDRAW, TRANSFER }
+
+    /** {@code toAccountNumber} is only used by transfers, where {@code accountNumber} is the source. */
+    public record Operation(Type type, String accountNumber, String toAccountNumber, BigDecimal amount, String description) {}
+}
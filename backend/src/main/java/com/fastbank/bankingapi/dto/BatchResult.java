@@ -0,0 +1,16 @@
+package com.fastbank.bankingapi.dto;
+
+import java.util.List;
+
+/** Outcome of a batch, with one item per operation in request order. */
+public record BatchResult(int applied, int failed, List<Item> items) {
+
+    public enum Status {
+        APPLIED,
+        FAILED,
+        /** Valid, but not applied because another operation of an atomic batch failed. */
+        NOT_APPLIED
+    }
+
+    public record Item(int index, Status status, String error) {}
+}
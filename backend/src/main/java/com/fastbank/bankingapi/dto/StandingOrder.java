@@ -0,0 +1,13 @@
+package com.fastbank.bankingapi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A standing order as the API shows it. {@code nextRunAt} is the next
+ * attempt, which is a retry when {@code retries} is above 0.
+ */
+public record StandingOrder(String id, String fromAccountNumber, String toAccountNumber, BigDecimal amount,
+                            String description, StandingOrderRequest.Frequency frequency, LocalDateTime firstRunAt,
+                            LocalDateTime nextRunAt, int retries, LocalDateTime createdAt) {
+}
@@ -0,0 +1,16 @@
+package com.fastbank.bankingapi.dto;
+
+import java.time.LocalDateTime;
+
+/** One attempt at a standing order's transfer; {@code attempt} is 0 for the first try of a run. */
+public record StandingOrderExecution(LocalDateTime executedAt, LocalDateTime scheduledFor, int attempt,
+                                     Outcome outcome, String error) {
+
+    public enum Outcome {
+        EXECUTED,
+        /** Refused for insufficient funds; tried again later. */
+        RETRYING,
+        /** Refused, with no retry left before the next run. */
+        FAILED
+    }
+}
@@ -0,0 +1,15 @@
+package com.fastbank.bankingapi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Body of {@code POST} and {@code PUT /api/standing-orders}: a transfer of
+ * {@code amount} repeated at {@code frequency}, first at {@code firstRunAt}
+ * (now if absent). Later runs keep the first run's day and time of day.
+ */
+public record StandingOrderRequest(String fromAccountNumber, String toAccountNumber, BigDecimal amount,
+                                   String description, Frequency frequency, LocalDateTime firstRunAt) {
+
+    public enum Frequency { DAILY, WEEKLY, MONTHLY }
+}
@@ -0,0 +1,214 @@
+package com.fastbank.bankingapi.events;
+
+import com.fastbank.bankingapi.dto.AccountEvent;
+import com.fastbank.bankingapi.metrics.MetricsSource;
+import com.fastbank.bankingapi.model.Money;
+import com.fastbank.bankingapi.model.Transaction;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live balance changes and new transactions per account, streamed as
+ * Server-Sent Events to subscribers of {@code GET /api/accounts/{n}/events}.
+ *
+ * {@link #publish} runs under the account's lock right after a change is
+ * applied and never waits: it appends to each subscriber's bounded queue of
+ * {@code fastbank.events.buffer-size} events and, unless that subscriber is
+ * already being written to, starts a virtual thread to drain it, so a slow
+ * client only ever holds up its own stream. When a queue is full its pending
+ * events are discarded and coalesced into a single {@code snapshot} with the
+ * latest balance, which tells the client to refetch its recent transactions.
+ *
+ * Every stream opens with a snapshot, then sends a {@code transaction} event
+ * per change. Events go out as soon as a change is applied, which may be
+ * before its journal record is durable.
+ */
+@Component
+public class AccountEvents implements MetricsSource {
+
+    public static final String SNAPSHOT = "snapshot";
+    public static final String TRANSACTION = "transaction";
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountEvents.class);
+
+    // A change without a transaction is a snapshot
+    private record Change(Transaction transaction, long balanceMinorUnits) {}
+
+    @Value("${fastbank.events.buffer-size:256}")
+    private int bufferSize = 256;
+
+    // Streams are closed after this long and the browser reconnects; 0 keeps them open indefinitely
+    @Value("${fastbank.events.timeout-ms:1800000}")
+    private long timeoutMillis = 1_800_000;
+
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("account-events-", 0).factory());
+    private final AtomicInteger open = new AtomicInteger();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Opens a stream of the account's changes, starting from
+     * {@code balanceMinorUnits}. Call it under the account's lock so no change
+     * falls between that balance and the subscription.
+     */
+    public SseEmitter subscribe(String accountNumber, long balanceMinorUnits) {
+        return subscribe(accountNumber, balanceMinorUnits, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(String accountNumber, long balanceMinorUnits, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(accountNumber, emitter, balanceMinorUnits);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        // Registered inside compute so it cannot race the last subscriber's close removing the list
+        subscribers.compute(accountNumber, (key, listeners) -> {
+            List<Subscriber> list = listeners == null ? new CopyOnWriteArrayList<>() : listeners;
+            list.add(subscriber);
+            return list;
+        });
+        open.incrementAndGet();
+        subscriber.schedule();
+        return emitter;
+    }
+
+    /**
+     * Queues a change for the account's subscribers; call it while still
+     * holding the account's lock, so changes are queued in the order applied.
+     */
+    public void publish(String accountNumber, Transaction transaction, long balanceMinorUnits) {
+        List<Subscriber> listeners = subscribers.get(accountNumber);
+        if (listeners == null) {
+            return;
+        }
+        Change change = new Change(transaction, balanceMinorUnits);
+        for (Subscriber subscriber : listeners) {
+            subscriber.offer(change);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return open.get();
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    /** Events discarded from full queues and folded into a snapshot. */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP fastbank_event_streams Open account event streams.\n");
+        out.append("# TYPE fastbank_event_streams gauge\n");
+        out.append("fastbank_event_streams ").append(getSubscriberCount()).append('\n');
+        out.append("# HELP fastbank_events_total Account events sent, or coalesced into a snapshot for a slow client.\n");
+        out.append("# TYPE fastbank_events_total counter\n");
+        out.append("fastbank_events_total{outcome=\"sent\"} ").append(getSentCount()).append('\n');
+        out.append("fastbank_events_total{outcome=\"coalesced\"} ").append(getCoalescedCount()).append('\n');
+    }
+
+    @PreDestroy
+    public void close() {
+        for (List<Subscriber> listeners : subscribers.values()) {
+            for (Subscriber subscriber : listeners) {
+                subscriber.emitter.complete();
+                subscriber.close();
+            }
+        }
+        senders.shutdownNow();
+    }
+
+    private final class Subscriber {
+        final String accountNumber;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<Change> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(String accountNumber, SseEmitter emitter, long balanceMinorUnits) {
+            this.accountNumber = accountNumber;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(Math.max(bufferSize, 1));
+            queue.add(new Change(null, balanceMinorUnits));
+        }
+
+        // Publishers of one account are serialized by its lock, so after the clear the snapshot always fits
+        void offer(Change change) {
+            if (!queue.offer(change)) {
+                int discarded = queue.size() + 1;
+                queue.clear();
+                queue.offer(new Change(null, change.balanceMinorUnits()));
+                coalesced.add(discarded);
+            }
+            schedule();
+        }
+
+        void schedule() {
+            if (!closed.get() && draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Change change;
+                while (!closed.get() && (change = queue.poll()) != null) {
+                    send(change.transaction() == null ? SNAPSHOT : TRANSACTION, new AccountEvent(accountNumber,
+                        Money.fromMinorUnits(change.balanceMinorUnits()), change.transaction()));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+                logger.debug("Closing event stream for {}: {}", accountNumber, e.toString());
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // A change offered after the last poll but before draining was cleared would otherwise wait for the next one
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void send(String name, AccountEvent event) throws IOException {
+            emitter.send(SseEmitter.event().name(name).data(event, MediaType.APPLICATION_JSON));
+            sent.increment();
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.computeIfPresent(accountNumber, (key, listeners) -> {
+                    listeners.remove(this);
+                    return listeners.isEmpty() ? null : listeners;
+                });
+                queue.clear();
+                open.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.fastbank.bankingapi.metrics;
+
+import com.fastbank.bankingapi.model.AccountNotFoundException;
+import com.fastbank.bankingapi.model.InsufficientFundsException;
+import org.springframework.stereotype.Component;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for the ledger operations in
+ * {@code AccountService}. Recording is a {@link LongAdder} increment plus a
+ * {@link LatencyHistogram} bucket increment, so it is cheap enough for every
+ * request; {@link #writePrometheus} renders them in the Prometheus text
+ * exposition format when scraped, alongside the other {@link MetricsSource}s.
+ */
+@Component
+public class LedgerMetrics implements MetricsSource {
+
+    public enum Operation { DEPOSIT, WITHDRAW, TRANSFER, CREATE, LOOKUP, INTEREST, FEE }
+
+    public enum Failure { NOT_FOUND, INSUFFICIENT_FUNDS, INVALID_AMOUNT, OTHER }
+
+    private final LongAdder[] successes = new LongAdder[Operation.values().length];
+    private final LongAdder[][] failures = new LongAdder[Operation.values().length][Failure.values().length];
+    private final LatencyHistogram[] durations = new LatencyHistogram[Operation.values().length];
+
+    public LedgerMetrics() {
+        for (Operation operation : Operation.values()) {
+            successes[operation.ordinal()] = new LongAdder();
+            durations[operation.ordinal()] = new LatencyHistogram();
+            for (Failure failure : Failure.values()) {
+                failures[operation.ordinal()][failure.ordinal()] = new LongAdder();
+            }
+        }
+    }
+
+    /** Records a successful operation that started at {@code startNanos} ({@link System#nanoTime()}). */
+    public void success(Operation operation, long startNanos) {
+        durations[operation.ordinal()].record(System.nanoTime() - startNanos);
+        successes[operation.ordinal()].increment();
+    }
+
+    public void failure(Operation operation, Failure reason, long startNanos) {
+        durations[operation.ordinal()].record(System.nanoTime() - startNanos);
+        failures[operation.ordinal()][reason.ordinal()].increment();
+    }
+
+    /** Records a failed operation, classifying the exception the service threw. */
+    public void failure(Operation operation, RuntimeException cause, long startNanos) {
+        failure(operation, classify(cause), startNanos);
+    }
+
+    public long getSuccessCount(Operation operation) {
+        return successes[operation.ordinal()].sum();
+    }
+
+    public long getFailureCount(Operation operation, Failure reason) {
+        return failures[operation.ordinal()][reason.ordinal()].sum();
+    }
+
+    public LatencyHistogram.Snapshot getDurations(Operation operation) {
+        return durations[operation.ordinal()].snapshot();
+    }
+
+    static Failure classify(RuntimeException cause) {
+        if (cause instanceof IllegalArgumentException) {
+            return Failure.INVALID_AMOUNT;
+        }
+        if (cause instanceof AccountNotFoundException) {
+            return Failure.NOT_FOUND;
+        }
+        if (cause instanceof InsufficientFundsException) {
+            return Failure.INSUFFICIENT_FUNDS;
+        }
+        return Failure.OTHER;
+    }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP fastbank_operations_total Ledger operations that completed successfully.\n");
+        out.append("# TYPE fastbank_operations_total counter\n");
+        for (Operation operation : Operation.values()) {
+            out.append("fastbank_operations_total{operation=\"").append(label(operation)).append("\"} ")
+                .append(getSuccessCount(operation)).append('\n');
+        }
+
+        out.append("# HELP fastbank_operation_failures_total Ledger operations that failed, by reason.\n");
+        out.append("# TYPE fastbank_operation_failures_total counter\n");
+        for (Operation operation : Operation.values()) {
+            for (Failure reason : Failure.values()) {
+                out.append("fastbank_operation_failures_total{operation=\"").append(label(operation))
+                    .append("\",reason=\"").append(label(reason)).append("\"} ")
+                    .append(getFailureCount(operation, reason)).append('\n');
+            }
+        }
+
+        out.append("# HELP fastbank_operation_duration_seconds Ledger operation latency, successes and failures.\n");
+        out.append("# TYPE fastbank_operation_duration_seconds summary\n");
+        for (Operation operation : Operation.values()) {
+            MetricsSource.writeSummary(out, "fastbank_operation_duration_seconds",
+                "operation=\"" + label(operation) + "\"", getDurations(operation));
+        }
+    }
+
+    private static String label(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
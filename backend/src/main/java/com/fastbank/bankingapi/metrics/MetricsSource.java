@@ -0,0 +1,28 @@
+package com.fastbank.bankingapi.metrics;
+
+/**
+ * A component that exposes its own counters on {@code GET /metrics}. The
+ * controller collects every bean implementing this, so the metrics package
+ * never has to depend on the components it reports on.
+ */
+public interface MetricsSource {
+
+    /** Appends this component's metrics in the Prometheus text exposition format. */
+    void writePrometheus(StringBuilder out);
+
+    /** Writes {@code snapshot} as a Prometheus summary; {@code labels} may be null. */
+    static void writeSummary(StringBuilder out, String name, String labels, LatencyHistogram.Snapshot snapshot) {
+        String prefix = labels == null ? "" : labels + ",";
+        for (double quantile : new double[] {0.5, 0.9, 0.99, 0.999}) {
+            out.append(name).append('{').append(prefix).append("quantile=\"").append(quantile).append("\"} ")
+                .append(seconds(snapshot.valueAtPercentile(quantile * 100))).append('\n');
+        }
+        String suffix = labels == null ? "" : "{" + labels + "}";
+        out.append(name).append("_sum").append(suffix).append(' ').append(seconds(snapshot.getSum())).append('\n');
+        out.append(name).append("_count").append(suffix).append(' ').append(snapshot.getCount()).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+}
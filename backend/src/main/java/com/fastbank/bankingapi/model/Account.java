@@ -1,32 +1,85 @@
 package com.fastbank.bankingapi.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 public class Account {
+    private static final VarHandle BALANCE;
+    private static final VarHandle VERSION;
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(Account.class, "balanceMinorUnits", long.class);
+            VERSION = MethodHandles.lookup().findVarHandle(Account.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private String accountNumber;  // Primary key
     private String ownerName;
-    private BigDecimal balance;
+    private volatile long balanceMinorUnits;  // Fixed-point, see Money; updated by CAS only
     private LocalDateTime createdAt;
-    private List<Transaction> transactions;
+    private TransactionHistory transactions;
+    private long journalSequence;  // Last ledger journal record applied to this account
+    private volatile long version;  // Bumped by AccountRepository.save after every change, starting over on restart
 
     // Default constructor for Spring
     public Account() {
-        this.transactions = new ArrayList<>();
+        this.transactions = new TransactionHistory();
     }
 
     public Account(String ownerName) {
-        this.accountNumber = generateAccountNumber();  
+        this.accountNumber = AccountNumbers.next();
         this.ownerName = ownerName;
-        this.balance = BigDecimal.ZERO;
         this.createdAt = LocalDateTime.now();
-        this.transactions = new ArrayList<>();
+        this.transactions = new TransactionHistory();
+    }
+
+    // Ledger postings; callers hold the account's lock, which orders the history, not the balance
+    public void credit(Transaction transaction) {
+        creditMinorUnits(Money.toMinorUnits(transaction.getAmount()));
+        this.transactions.add(transaction);
+    }
+
+    public void debit(Transaction transaction) {
+        if (!tryDebitMinorUnits(Money.toMinorUnits(transaction.getAmount()))) {
+            throw new InsufficientFundsException();
+        }
+        this.transactions.add(transaction);
     }
 
-    private String generateAccountNumber() {
-        return "ACC" + System.currentTimeMillis() + (int)(Math.random() * 1000);
+    /**
+     * Atomically adds to the balance and returns the new balance. Throws
+     * {@link ArithmeticException} instead of wrapping around on overflow.
+     */
+    public long creditMinorUnits(long amount) {
+        long current;
+        long next;
+        do {
+            current = balanceMinorUnits;
+            next = Math.addExact(current, amount);
+        } while (!BALANCE.compareAndSet(this, current, next));
+        return next;
+    }
+
+    /**
+     * Atomically subtracts from the balance if it covers the amount. Returns
+     * false, leaving the balance untouched, when funds are insufficient.
+     */
+    public boolean tryDebitMinorUnits(long amount) {
+        long current;
+        do {
+            current = balanceMinorUnits;
+            if (current < amount) {
+                return false;
+            }
+        } while (!BALANCE.compareAndSet(this, current, Math.subtractExact(current, amount)));
+        return true;
     }
 
     // Getters and setters
@@ -36,12 +89,31 @@ public class Account {
     public String getOwnerName() { return ownerName; }
     public void setOwnerName(String ownerName) { this.ownerName = ownerName; }
 
-    public BigDecimal getBalance() { return balance; }
-    public void setBalance(BigDecimal balance) { this.balance = balance; }
+    public BigDecimal getBalance() { return Money.fromMinorUnits(balanceMinorUnits); }
+    public void setBalance(BigDecimal balance) { this.balanceMinorUnits = Money.toMinorUnits(balance); }
+
+    @JsonIgnore
+    public long getBalanceMinorUnits() { return balanceMinorUnits; }
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
     public List<Transaction> getTransactions() { return transactions; }
-    public void setTransactions(List<Transaction> transactions) { this.transactions = transactions; }
+    public void setTransactions(List<Transaction> transactions) { this.transactions = new TransactionHistory(transactions); }
+
+    @JsonIgnore
+    public TransactionHistory getTransactionHistory() { return transactions; }
+
+    /**
+     * Bumped after a change is applied, never before, so whatever is read
+     * after this is at least as new as the version returned.
+     */
+    @JsonIgnore
+    public long getVersion() { return version; }
+
+    public long nextVersion() { return (long) VERSION.getAndAdd(this, 1L) + 1; }
+
+    @JsonIgnore
+    public long getJournalSequence() { return journalSequence; }
+    public void setJournalSequence(long journalSequence) { this.journalSequence = journalSequence; }
 }
@@ -0,0 +1,12 @@
+package com.fastbank.bankingapi.model;
+
+/**
+ * A money movement named an account that does not exist. The message says
+ * which side it was: "Account not found", "Source account not found" or
+ * "Destination account not found".
+ */
+public class AccountNotFoundException extends RuntimeException {
+    public AccountNotFoundException(String message) {
+        super(message);
+    }
+}
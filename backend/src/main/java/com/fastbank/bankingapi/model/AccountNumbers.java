@@ -0,0 +1,94 @@
+package com.fastbank.bankingapi.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free allocator of unique account numbers, Snowflake style.
+ *
+ * Each number is a 63-bit id {@code [41 bits ms since 2026-01-01][12 bits sequence][10 bits node]},
+ * written as {@code ACC}, 19 zero-padded digits and a Luhn check digit. The
+ * fixed width makes numbers sort in creation order.
+ *
+ * Allocation is one CAS on the time-and-sequence counter: the next value is the
+ * later of "previous + 1" and "now with sequence 0". A burst of more than 4096
+ * creations in a millisecond borrows from the next millisecond instead of
+ * waiting, and a clock stepping back never repeats an id. The node id keeps
+ * numbers from separate instances apart; instances sharing a node must not
+ * share a ledger.
+ */
+public final class AccountNumbers {
+
+    public static final String PREFIX = "ACC";
+
+    static final long EPOCH_MILLIS = 1_767_225_600_000L;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+    private static final int DIGITS = 19;
+
+    private static final AtomicLong ticks = new AtomicLong();
+    private static volatile int node;
+
+    private AccountNumbers() {}
+
+    public static void setNode(int node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE);
+        }
+        AccountNumbers.node = node;
+    }
+
+    public static String next() {
+        return format(nextId());
+    }
+
+    static long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long tick = ticks.updateAndGet(previous -> Math.max(previous + 1, now));
+        return tick << NODE_BITS | node;
+    }
+
+    static String format(long id) {
+        char[] chars = new char[PREFIX.length() + DIGITS + 1];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        int sum = 0;
+        for (int i = 0; i < DIGITS; i++) {
+            int digit = (int) (id % 10);
+            id /= 10;
+            chars[PREFIX.length() + DIGITS - 1 - i] = (char) ('0' + digit);
+            // Luhn: double every second digit counting from the one next to the check digit
+            if (i % 2 == 0) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        chars[chars.length - 1] = (char) ('0' + (10 - sum % 10) % 10);
+        return new String(chars);
+    }
+
+    /** Whether {@code accountNumber} has this allocator's format and a correct check digit. */
+    public static boolean isValid(String accountNumber) {
+        if (accountNumber == null || accountNumber.length() != PREFIX.length() + DIGITS + 1
+                || !accountNumber.startsWith(PREFIX)) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = accountNumber.length() - 1, position = 0; i >= PREFIX.length(); i--, position++) {
+            int digit = accountNumber.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            if (position % 2 == 1) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        return sum % 10 == 0;
+    }
+}
@@ -0,0 +1,167 @@
+package com.fastbank.bankingapi.model;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keyword rules compiled into an Aho-Corasick automaton that assigns a
+ * {@link Transaction} its category.
+ *
+ * A description is categorized in one pass: each character is case-folded
+ * with {@link Character#toLowerCase(char)} as it is read, so no lowercase copy
+ * is made, and every keyword it contains is found. When several match, the
+ * rule listed first wins; with none, the category is {@link #DEFAULT_CATEGORY}.
+ *
+ * The failure links are resolved at compile time into a dense transition
+ * table over the characters that occur in keywords, so a step is one array
+ * read. Instances are immutable; {@link #install} swaps the one new
+ * transactions use, which is how rules are reloaded.
+ */
+public final class Categorizer {
+
+    public static final String DEFAULT_CATEGORY = "Other";
+
+    public record Rule(String keyword, String category) {}
+
+    private static final Categorizer BUILT_IN = compile(List.of(
+        new Rule("grocery", "Food"), new Rule("supermarket", "Food"),
+        new Rule("gas", "Transportation"), new Rule("fuel", "Transportation"),
+        new Rule("salary", "Income"), new Rule("payroll", "Income")));
+
+    private static volatile Categorizer current = BUILT_IN;
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    // Folded character -> column, 0 for characters that occur in no keyword
+    private final char[] columns;
+    private final int width;
+    private final int[] transitions;
+    // Lowest rule index ending at each state, directly or through a suffix
+    private final int[] matches;
+    private final String[] categories;
+
+    private Categorizer(char[] columns, int width, int[] transitions, int[] matches, String[] categories) {
+        this.columns = columns;
+        this.width = width;
+        this.transitions = transitions;
+        this.matches = matches;
+        this.categories = categories;
+    }
+
+    /** The categorizer new transactions use. */
+    public static Categorizer current() {
+        return current;
+    }
+
+    public static void install(Categorizer categorizer) {
+        current = categorizer == null ? BUILT_IN : categorizer;
+    }
+
+    /** The rules used when none are configured. */
+    public static Categorizer builtIn() {
+        return BUILT_IN;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a keyword or category is blank, or
+     *         the keywords use more than 65,535 distinct characters
+     */
+    public static Categorizer compile(List<Rule> rules) {
+        char[] columns = new char[Character.MAX_VALUE + 1];
+        int width = 1;
+        int length = 0;
+        for (Rule rule : rules) {
+            if (rule.keyword() == null || rule.keyword().isBlank() || rule.category() == null || rule.category().isBlank()) {
+                throw new IllegalArgumentException("Blank keyword or category in rule " + rule);
+            }
+            for (int i = 0; i < rule.keyword().length(); i++) {
+                char folded = Character.toLowerCase(rule.keyword().charAt(i));
+                if (columns[folded] == 0) {
+                    if (width == Character.MAX_VALUE) {
+                        throw new IllegalArgumentException("Too many distinct keyword characters");
+                    }
+                    columns[folded] = (char) width++;
+                }
+            }
+            length += rule.keyword().length();
+        }
+
+        // Trie: state 0 is the root, and 0 also marks a missing edge since no edge leads back to it
+        int[] transitions = new int[(length + 1) * width];
+        int[] matches = new int[length + 1];
+        Arrays.fill(matches, NO_MATCH);
+        int states = 1;
+        String[] categories = new String[rules.size()];
+        for (int r = 0; r < rules.size(); r++) {
+            Rule rule = rules.get(r);
+            categories[r] = rule.category();
+            int state = 0;
+            for (int i = 0; i < rule.keyword().length(); i++) {
+                int edge = state * width + columns[Character.toLowerCase(rule.keyword().charAt(i))];
+                if (transitions[edge] == 0) {
+                    transitions[edge] = states++;
+                }
+                state = transitions[edge];
+            }
+            matches[state] = Math.min(matches[state], r);
+        }
+
+        // Breadth-first over the trie, replacing missing edges with the failure state's edges
+        int[] failures = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int column = 1; column < width; column++) {
+            int child = transitions[column];
+            if (child != 0) {
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int failure = failures[state];
+            matches[state] = Math.min(matches[state], matches[failure]);
+            for (int column = 1; column < width; column++) {
+                int edge = state * width + column;
+                int child = transitions[edge];
+                if (child == 0) {
+                    transitions[edge] = transitions[failure * width + column];
+                } else {
+                    failures[child] = transitions[failure * width + column];
+                    queue.add(child);
+                }
+            }
+        }
+        return new Categorizer(columns, width, Arrays.copyOf(transitions, states * width),
+            Arrays.copyOf(matches, states), categories);
+    }
+
+    public String categorize(CharSequence description) {
+        if (description == null) {
+            return DEFAULT_CATEGORY;
+        }
+        int state = 0;
+        int best = NO_MATCH;
+        for (int i = 0; i < description.length(); i++) {
+            state = transitions[state * width + columns[Character.toLowerCase(description.charAt(i))]];
+            int match = matches[state];
+            if (match < best) {
+                best = match;
+                if (best == 0) {
+                    break;
+                }
+            }
+        }
+        return best == NO_MATCH ? DEFAULT_CATEGORY : categories[best];
+    }
+
+    public int ruleCount() {
+        return categories.length;
+    }
+
+    /** Distinct categories, in rule order, without the default. */
+    public Set<String> categories() {
+        return new LinkedHashSet<>(Arrays.asList(categories));
+    }
+}
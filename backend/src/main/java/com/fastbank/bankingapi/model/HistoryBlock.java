@@ -0,0 +1,160 @@
+package com.fastbank.bankingapi.model;
+
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One block of cold history: consecutive entries of one account, written once
+ * to a {@link HistorySegments} file and read in place from the mapping.
+ *
+ * Layout: {@code [int count]}, then {@code count} fixed 40-byte rows
+ * {@code [long time][long amount][long idHigh][long idLow][byte type][byte category][byte flags][byte 0][int text]},
+ * then the text the rows point into. Strings are {@code [int length][UTF-8]},
+ * length -1 for null. A regular row's {@code text} is the offset of its
+ * description, shared by every row in the block with the same one, or -1.
+ * An irregular row keeps its id, account id, type, amount, description and
+ * category as six strings there instead, so it reads back exactly as stored.
+ *
+ * Type and category are {@link TransactionHistory}'s in-process dictionary
+ * codes, which is fine because segments never outlive the process.
+ */
+final class HistoryBlock {
+
+    private static final int HEADER = 4;
+    private static final int ROW = 40;
+    private static final int TYPE = 32;
+    private static final int CATEGORY = 33;
+    private static final int FLAGS = 34;
+    private static final int TEXT = 36;
+    private static final byte IRREGULAR = 1;
+
+    private final ByteBuffer buffer;
+    private final int count;
+
+    private HistoryBlock(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.count = buffer.getInt(0);
+    }
+
+    int size() {
+        return count;
+    }
+
+    long timeAt(int index) {
+        return buffer.getLong(HEADER + index * ROW);
+    }
+
+    Transaction materialize(int index, String accountId) {
+        int row = HEADER + index * ROW;
+        Transaction transaction = new Transaction();
+        long time = buffer.getLong(row);
+        transaction.setTimestamp(time == TransactionHistory.NO_TIMESTAMP ? null : TransactionHistory.fromNanos(time));
+        int text = buffer.getInt(row + TEXT);
+        if (buffer.get(row + FLAGS) == IRREGULAR) {
+            String[] fields = new String[6];
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = readString(text);
+                text += 4 + Math.max(0, buffer.getInt(text));
+            }
+            transaction.setId(fields[0]);
+            transaction.setAccountId(fields[1]);
+            transaction.setType(fields[2]);
+            transaction.setAmount(fields[3] == null ? null : new BigDecimal(fields[3]));
+            transaction.setDescription(fields[4]);
+            transaction.setCategory(fields[5]);
+            return transaction;
+        }
+        transaction.setId(new UUID(buffer.getLong(row + 16), buffer.getLong(row + 24)).toString());
+        transaction.setAccountId(accountId);
+        transaction.setType(TransactionHistory.TYPES.valueOf(buffer.get(row + TYPE)));
+        transaction.setAmount(Money.fromMinorUnits(buffer.getLong(row + 8)));
+        transaction.setDescription(readString(text));
+        transaction.setCategory(TransactionHistory.CATEGORIES.valueOf(buffer.get(row + CATEGORY)));
+        return transaction;
+    }
+
+    private String readString(int offset) {
+        if (offset < 0) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Encodes rows {@code [from, from + count)} of {@code slots} and appends them to {@code segments}. */
+    static HistoryBlock write(HistorySegments segments, TransactionHistory.Slots slots, int from, int count) {
+        ByteBuffer scratch = ByteBuffer.allocate(HEADER + count * (ROW + 16));
+        while (true) {
+            try {
+                encode(slots, from, count, scratch.clear());
+                break;
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+        return new HistoryBlock(segments.append(scratch.flip()));
+    }
+
+    private static void encode(TransactionHistory.Slots slots, int from, int count, ByteBuffer out) {
+        out.putInt(count);
+        int textStart = HEADER + count * ROW;
+        if (textStart > out.capacity()) {
+            throw new BufferOverflowException();
+        }
+        out.position(textStart);
+        Map<String, Integer> descriptions = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            int slot = from + i;
+            int row = HEADER + i * ROW;
+            out.putLong(row, slots.times[slot]);
+            Transaction irregular = slots.irregular == null ? null : slots.irregular[slot];
+            if (irregular != null) {
+                out.putLong(row + 8, 0).putLong(row + 16, 0).putLong(row + 24, 0);
+                out.put(row + TYPE, TransactionHistory.NO_CODE).put(row + CATEGORY, TransactionHistory.NO_CODE);
+                out.put(row + FLAGS, IRREGULAR).put(row + FLAGS + 1, (byte) 0);
+                out.putInt(row + TEXT, out.position());
+                putString(out, irregular.getId());
+                putString(out, irregular.getAccountId());
+                putString(out, irregular.getType());
+                putString(out, irregular.getAmount() == null ? null : irregular.getAmount().toPlainString());
+                putString(out, irregular.getDescription());
+                putString(out, irregular.getCategory());
+                continue;
+            }
+            out.putLong(row + 8, slots.amounts[slot]).putLong(row + 16, slots.idHigh[slot]).putLong(row + 24, slots.idLow[slot]);
+            out.put(row + TYPE, slots.types[slot]).put(row + CATEGORY, slots.categories[slot]);
+            out.put(row + FLAGS, (byte) 0).put(row + FLAGS + 1, (byte) 0);
+            String description = slots.descriptions[slot];
+            int text = -1;
+            if (description != null) {
+                Integer shared = descriptions.get(description);
+                if (shared == null) {
+                    shared = out.position();
+                    putString(out, description);
+                    descriptions.put(description, shared);
+                }
+                text = shared;
+            }
+            out.putInt(row + TEXT, text);
+        }
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length).put(bytes);
+    }
+}
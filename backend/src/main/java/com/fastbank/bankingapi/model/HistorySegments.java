@@ -0,0 +1,145 @@
+package com.fastbank.bankingapi.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, memory-mapped segment files holding the cold tier of every
+ * account's {@link TransactionHistory}.
+ *
+ * {@link #append} reserves the next bytes of the current segment, copies the
+ * block in and returns a read-only view of the mapping, which the history
+ * reads in place from then on. Appends from different accounts only contend
+ * on the position bump; the copy happens outside the lock. A segment that
+ * cannot fit the next block is left as is and a new one is mapped.
+ *
+ * Segments are scratch space for this process: the journal and snapshots
+ * stay the durable copy of history, so {@link #open} clears out segments left
+ * by an earlier run, and space taken by blocks that were rewritten is not
+ * reclaimed until the next start.
+ */
+public class HistorySegments implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistorySegments.class);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("history-\\d{6}\\.seg");
+
+    private final Path directory;
+    private final int segmentBytes;
+    // Not a monitor: rolling a segment does file I/O, and a virtual thread blocking inside synchronized pins its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder bytesWritten = new LongAdder();
+    private MappedByteBuffer current;
+    private int segments;
+    private volatile boolean closed;
+
+    private HistorySegments(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /** Opens {@code directory} for a fresh set of segments, deleting any left over. */
+    public static HistorySegments open(Path directory, int segmentBytes) throws IOException {
+        if (segmentBytes <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        Files.createDirectories(directory);
+        deleteSegments(directory);
+        return new HistorySegments(directory, segmentBytes);
+    }
+
+    /**
+     * Copies the remaining bytes of {@code block} into a segment and returns
+     * a read-only view of them, positioned at 0.
+     *
+     * @throws UncheckedIOException if a new segment could not be created
+     */
+    public ByteBuffer append(ByteBuffer block) {
+        int length = block.remaining();
+        ByteBuffer target;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("History segments are closed");
+            }
+            if (current == null || current.remaining() < length) {
+                roll(Math.max(segmentBytes, length));
+            }
+            target = current.slice(current.position(), length);
+            current.position(current.position() + length);
+        } finally {
+            lock.unlock();
+        }
+        target.put(block);
+        bytesWritten.add(length);
+        return target.clear().asReadOnlyBuffer();
+    }
+
+    private void roll(int size) {
+        Path path = directory.resolve(String.format("history-%06d.seg", segments + 1));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            current = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            segments++;
+        } catch (IOException e) {
+            logger.error("Could not create history segment {}", path, e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Bytes of history blocks appended so far, including rewritten ones. */
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public int getSegmentCount() {
+        lock.lock();
+        try {
+            return segments;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting blocks and deletes the segment files. Blocks already
+     * handed out stay readable for as long as they are referenced.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            current = null;
+        } finally {
+            lock.unlock();
+        }
+        deleteSegments(directory);
+    }
+
+    private static void deleteSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (SEGMENT_NAME.matcher(file.getFileName().toString()).matches()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.fastbank.bankingapi.model;
+
+/** A debit would have taken an account's balance below zero; nothing was applied. */
+public class InsufficientFundsException extends RuntimeException {
+    public InsufficientFundsException() {
+        super("Insufficient funds");
+    }
+}
@@ -0,0 +1,30 @@
+package com.fastbank.bankingapi.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversion between the {@code BigDecimal} amounts of the REST layer and the
+ * fixed-point minor units (cents) balances are kept in.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {}
+
+    /**
+     * Converts an amount to minor units. Amounts with more than two decimal
+     * places or outside the {@code long} range are rejected rather than rounded.
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid amount: " + amount.toPlainString());
+        }
+    }
+
+    public static BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+}
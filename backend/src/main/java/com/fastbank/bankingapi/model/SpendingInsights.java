@@ -0,0 +1,118 @@
+package com.fastbank.bankingapi.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Running totals of one account's history per category and per calendar
+ * month, updated as each entry is added so reading them costs
+ * O(categories + months) and never rescans the history.
+ *
+ * Category totals cover the whole history. Months are rolling buckets: a ring
+ * of the last {@link #MONTHS} months up to the newest entry's month. A bucket
+ * is reset when a later month takes its slot, and an entry older than the
+ * ring only counts towards its category.
+ *
+ * Maintained by {@link TransactionHistory} under the account's lock; read it
+ * under that lock too.
+ */
+public class SpendingInsights {
+
+    public static final int MONTHS = 24;
+
+    // Money leaving the account; every other type is money coming in. TRANSFER only occurs in seeded outgoing transfers
+    private static final Set<String> OUTGOING = Set.of("WITHDRAW", "TRANSFER", "TRANSFER_OUT", "FEE");
+
+    /** Amounts in minor units. */
+    public record Totals(long incoming, long outgoing, long count) {}
+
+    private static final class Bucket {
+        long incoming;
+        long outgoing;
+        long count;
+
+        void add(boolean outgoing, long amount) {
+            if (outgoing) {
+                this.outgoing += amount;
+            } else {
+                this.incoming += amount;
+            }
+            count++;
+        }
+
+        Totals totals() {
+            return new Totals(incoming, outgoing, count);
+        }
+    }
+
+    private final Map<String, Bucket> categories = new HashMap<>();
+    // Month number (year * 12 + month - 1) held by each slot, -1 while empty
+    private final int[] monthOfSlot = new int[MONTHS];
+    private final Bucket[] months = new Bucket[MONTHS];
+    private int newestMonth = -1;
+
+    SpendingInsights() {
+        Arrays.fill(monthOfSlot, -1);
+    }
+
+    void record(Transaction transaction) {
+        boolean outgoing = OUTGOING.contains(transaction.getType());
+        long amount = minorUnitsOf(transaction.getAmount());
+        String category = transaction.getCategory() == null ? Categorizer.DEFAULT_CATEGORY : transaction.getCategory();
+        categories.computeIfAbsent(category, c -> new Bucket()).add(outgoing, amount);
+
+        LocalDateTime time = transaction.getTimestamp();
+        if (time == null) {
+            return;
+        }
+        int month = time.getYear() * 12 + time.getMonthValue() - 1;
+        if (month <= newestMonth - MONTHS) {
+            return;
+        }
+        newestMonth = Math.max(newestMonth, month);
+        int slot = Math.floorMod(month, MONTHS);
+        if (monthOfSlot[slot] != month) {
+            monthOfSlot[slot] = month;
+            months[slot] = new Bucket();
+        }
+        months[slot].add(outgoing, amount);
+    }
+
+    // Sub-cent amounts only occur in imported entries; totals round them to the cent
+    private static long minorUnitsOf(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(Money.SCALE).setScale(0, RoundingMode.HALF_EVEN).longValue();
+    }
+
+    /** Totals per category, largest outgoing first, then largest incoming. */
+    public Map<String, Totals> byCategory() {
+        Map<String, Totals> totals = new LinkedHashMap<>();
+        categories.entrySet().stream()
+            .sorted(Comparator.<Map.Entry<String, Bucket>>comparingLong(entry -> -entry.getValue().outgoing)
+                .thenComparingLong(entry -> -entry.getValue().incoming)
+                .thenComparing(Map.Entry::getKey))
+            .forEach(entry -> totals.put(entry.getKey(), entry.getValue().totals()));
+        return totals;
+    }
+
+    /** Totals of the months in the ring that have entries, oldest first. */
+    public Map<YearMonth, Totals> byMonth() {
+        Map<YearMonth, Totals> totals = new TreeMap<>();
+        for (int slot = 0; slot < MONTHS; slot++) {
+            int month = monthOfSlot[slot];
+            // A slot left over from before the newest month moved on by a full ring is stale
+            if (month >= 0 && month > newestMonth - MONTHS) {
+                totals.put(YearMonth.of(month / 12, month % 12 + 1), months[slot].totals());
+            }
+        }
+        return totals;
+    }
+}
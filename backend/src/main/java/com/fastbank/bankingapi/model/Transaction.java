@@ -2,16 +2,17 @@ package com.fastbank.bankingapi.model;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Objects;
 import java.util.UUID;
 
 public class Transaction {
     private String id;
     private String accountId;
-    private String type; // DEPOSIT, WITHDRAW, TRANSFER_IN, TRANSFER_OUT
+    private String type; // DEPOSIT, WITHDRAW, TRANSFER_IN, TRANSFER_OUT, INTEREST, FEE
     private BigDecimal amount;
     private String description;
     private LocalDateTime timestamp;
-    private String category; // For AI categorization
+    private String category; // Assigned by Categorizer
 
     // Default constructor for Spring
     public Transaction() {}
@@ -23,16 +24,7 @@ public class Transaction {
         this.amount = amount;
         this.description = description;
         this.timestamp = LocalDateTime.now();
-        this.category = categorizeTransaction(description); // Simple categorization
-    }
-
-    private String categorizeTransaction(String description) {
-        // Simple rule-based categorization for now
-        String desc = description.toLowerCase();
-        if (desc.contains("grocery") || desc.contains("supermarket")) return "Food";
-        if (desc.contains("gas") || desc.contains("fuel")) return "Transportation";
-        if (desc.contains("salary") || desc.contains("payroll")) return "Income";
-        return "Other";
+        this.category = Categorizer.current().categorize(description);
     }
 
     // Getters and setters
@@ -56,4 +48,23 @@ public class Transaction {
     
     public String getCategory() { return category; }
     public void setCategory(String category) { this.category = category; }
-}
\ No newline at end of file
+
+    // Histories hand out fresh copies on every read, so equality is by value; amounts compare numerically
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Transaction that)) return false;
+        return Objects.equals(id, that.id)
+            && Objects.equals(accountId, that.accountId)
+            && Objects.equals(type, that.type)
+            && (amount == null ? that.amount == null : that.amount != null && amount.compareTo(that.amount) == 0)
+            && Objects.equals(description, that.description)
+            && Objects.equals(timestamp, that.timestamp)
+            && Objects.equals(category, that.category);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, accountId, type, description, timestamp, category);
+    }
+}
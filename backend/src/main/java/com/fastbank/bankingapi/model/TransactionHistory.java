@@ -0,0 +1,568 @@
+package com.fastbank.bankingapi.model;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Time-ordered transaction history of one account, stored column by column.
+ *
+ * Instead of one {@link Transaction} object per entry (with its UUID string,
+ * {@code BigDecimal} and {@code LocalDateTime}), each entry is a row across
+ * primitive arrays: epoch-nanosecond timestamp, amount in minor units, the id
+ * as two longs, one-byte type and category codes, and an interned
+ * description. That is about 40 bytes per entry plus any description not
+ * shared with another entry. {@code Transaction} objects are materialized
+ * only when read, so a page of history costs a page of objects.
+ *
+ * Entries are kept sorted by timestamp, so a time-range page is two binary
+ * searches plus a copy of the page: O(log n + page) instead of a scan. New
+ * transactions carry the current time and are simply appended; an entry with
+ * an older timestamp (seeded or replayed data) is inserted at its position.
+ * The rare entry the columns cannot hold exactly (an id that is not a
+ * canonical UUID, an amount with sub-cent digits, another account's id) is
+ * kept as the original object in a side column.
+ *
+ * With {@linkplain #enableTiering tiering} on, only recent entries stay in
+ * those arrays (the hot tier). Once the hot tier exceeds its entry or age
+ * limit, its oldest entries are written as a {@link HistoryBlock} to
+ * memory-mapped {@link HistorySegments} (the cold tier) and read from the
+ * mapping from then on. The blocks, with the index of each one's first entry,
+ * are the account's sparse index into the segments. Indexes, pages and
+ * cursors span both tiers, so callers cannot tell where an entry lives.
+ *
+ * Every added entry is also counted into the history's {@link SpendingInsights}.
+ *
+ * Writers are serialized by the account's lock. Readers take no lock: an
+ * append writes the row first and publishes the new size last, and every
+ * other change publishes a new {@link View}, so a reader always sees a
+ * consistent prefix.
+ */
+public class TransactionHistory extends AbstractList<Transaction> {
+
+    private static final int INITIAL_CAPACITY = 8;
+    static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    static final byte NO_CODE = -1;
+
+    /** Shared code tables for type and category strings; at most 128 distinct values each. */
+    static final Dictionary TYPES = new Dictionary();
+    static final Dictionary CATEGORIES = new Dictionary();
+
+    /**
+     * Hot tier limits: at most {@code hotEntries} entries plus one block, and
+     * when {@code hotAge} is not zero, no complete block older than that.
+     */
+    public record Tiering(HistorySegments segments, int hotEntries, Duration hotAge, int blockEntries) {
+        public Tiering {
+            if (hotEntries < 0 || blockEntries <= 0 || hotAge.isNegative()) {
+                throw new IllegalArgumentException("Invalid history tiering limits");
+            }
+        }
+    }
+
+    // Null while all history stays on-heap
+    private static volatile Tiering tiering;
+
+    // Descriptions repeat a lot ("Salary", "Rent"); share one String per distinct text, up to a bound
+    private static final int MAX_INTERNED_DESCRIPTIONS = 100_000;
+    private static final ConcurrentHashMap<String, String> DESCRIPTIONS = new ConcurrentHashMap<>();
+
+    static final class Slots {
+        final long[] times;
+        final long[] amounts;
+        final long[] idHigh;
+        final long[] idLow;
+        final byte[] types;
+        final byte[] categories;
+        final String[] descriptions;
+        // Allocated on the first entry that does not fit the columns
+        Transaction[] irregular;
+
+        Slots(int capacity) {
+            this.times = new long[capacity];
+            this.amounts = new long[capacity];
+            this.idHigh = new long[capacity];
+            this.idLow = new long[capacity];
+            this.types = new byte[capacity];
+            this.categories = new byte[capacity];
+            this.descriptions = new String[capacity];
+        }
+
+        int capacity() {
+            return times.length;
+        }
+
+        static void copy(Slots from, int fromIndex, Slots to, int toIndex, int length) {
+            System.arraycopy(from.times, fromIndex, to.times, toIndex, length);
+            System.arraycopy(from.amounts, fromIndex, to.amounts, toIndex, length);
+            System.arraycopy(from.idHigh, fromIndex, to.idHigh, toIndex, length);
+            System.arraycopy(from.idLow, fromIndex, to.idLow, toIndex, length);
+            System.arraycopy(from.types, fromIndex, to.types, toIndex, length);
+            System.arraycopy(from.categories, fromIndex, to.categories, toIndex, length);
+            System.arraycopy(from.descriptions, fromIndex, to.descriptions, toIndex, length);
+            if (from.irregular != null) {
+                if (to.irregular == null) {
+                    to.irregular = new Transaction[to.capacity()];
+                }
+                System.arraycopy(from.irregular, fromIndex, to.irregular, toIndex, length);
+            }
+        }
+    }
+
+    /** The cold blocks, oldest first, and the ordinal of each block's first entry. */
+    private static final class Cold {
+        static final Cold EMPTY = new Cold(new HistoryBlock[0], new int[0], 0);
+
+        final HistoryBlock[] blocks;
+        final int[] firsts;
+        final int size;
+
+        Cold(HistoryBlock[] blocks, int[] firsts, int size) {
+            this.blocks = blocks;
+            this.firsts = firsts;
+            this.size = size;
+        }
+
+        Cold append(HistoryBlock block) {
+            HistoryBlock[] grownBlocks = Arrays.copyOf(blocks, blocks.length + 1);
+            int[] grownFirsts = Arrays.copyOf(firsts, firsts.length + 1);
+            grownBlocks[blocks.length] = block;
+            grownFirsts[firsts.length] = size;
+            return new Cold(grownBlocks, grownFirsts, size + block.size());
+        }
+
+        /** The first {@code count} blocks. */
+        Cold prefix(int count) {
+            return new Cold(Arrays.copyOf(blocks, count), Arrays.copyOf(firsts, count), count == blocks.length ? size : firsts[count]);
+        }
+
+        int blockOf(int ordinal) {
+            int found = Arrays.binarySearch(firsts, ordinal);
+            return found >= 0 ? found : -found - 2;
+        }
+
+        long timeAt(int ordinal) {
+            int block = blockOf(ordinal);
+            return blocks[block].timeAt(ordinal - firsts[block]);
+        }
+
+        Transaction materialize(int ordinal, String accountId) {
+            int block = blockOf(ordinal);
+            return blocks[block].materialize(ordinal - firsts[block], accountId);
+        }
+    }
+
+    /**
+     * Where each entry lives: ordinals below {@code cold.size} are in the cold
+     * blocks, the rest at {@code ordinal - base} in {@code slots}. Slots below
+     * {@code cold.size - base} have been spilled and are dropped on the next grow.
+     */
+    private record View(Cold cold, Slots slots, int base) {}
+
+    /** One page of a range query, newest first. */
+    public record Page(List<Transaction> items, Integer nextCursor) {}
+
+    private volatile View view = new View(Cold.EMPTY, new Slots(INITIAL_CAPACITY), 0);
+    private volatile int size;
+    // Every regular entry belongs to this account; taken from the first entry stored
+    private volatile String accountId;
+    private final SpendingInsights insights = new SpendingInsights();
+
+    public TransactionHistory() {
+    }
+
+    public TransactionHistory(Collection<Transaction> transactions) {
+        Transaction[] sorted = transactions.toArray(new Transaction[0]);
+        // Stable, so entries with equal timestamps keep their original order
+        Arrays.sort(sorted, Comparator.comparingLong(TransactionHistory::timeOf));
+        Slots initial = new Slots(Math.max(INITIAL_CAPACITY, sorted.length));
+        for (int i = 0; i < sorted.length; i++) {
+            store(initial, i, sorted[i]);
+            insights.record(sorted[i]);
+        }
+        this.view = new View(Cold.EMPTY, initial, 0);
+        this.size = sorted.length;
+        spill();
+        View spilled = view;
+        if (spilled.cold().size > 0) {
+            // Let go of the rows that were just spilled instead of waiting for the next grow
+            int hot = size - spilled.cold().size;
+            Slots compact = new Slots(Math.max(INITIAL_CAPACITY, hot));
+            Slots.copy(spilled.slots(), spilled.cold().size, compact, 0, hot);
+            this.view = new View(spilled.cold(), compact, spilled.cold().size);
+        }
+    }
+
+    /** Turns on the cold tier for every history; entries move there as histories grow. */
+    public static void enableTiering(Tiering limits) {
+        tiering = limits;
+    }
+
+    /** Stops spilling; entries already in the cold tier stay there. */
+    public static void disableTiering() {
+        tiering = null;
+    }
+
+    /** Running per-category and per-month totals; read them under the account's lock. */
+    public SpendingInsights insights() {
+        return insights;
+    }
+
+    @Override
+    public Transaction get(int index) {
+        int n = size;
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + n);
+        }
+        return materialize(view, index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the transaction at its place in time order, which for a new
+     * transaction is the end.
+     */
+    @Override
+    public boolean add(Transaction transaction) {
+        long time = timeOf(transaction);
+        int n = size;
+        View current = view;
+        if (n == 0 || timeAt(current, n - 1) <= time) {
+            Slots slots = current.slots();
+            int end = n - current.base();
+            if (end == slots.capacity()) {
+                // Grow, leaving spilled rows behind
+                int first = current.cold().size - current.base();
+                Slots grown = new Slots(Math.max(INITIAL_CAPACITY, (end - first) * 2));
+                Slots.copy(slots, first, grown, 0, end - first);
+                current = new View(current.cold(), grown, current.cold().size);
+                view = current;
+                slots = grown;
+                end -= first;
+            }
+            store(slots, end, transaction);
+            size = n + 1;
+        } else {
+            insert(current, n, upperBound(current, n, time), transaction);
+        }
+        insights.record(transaction);
+        modCount++;
+        spill();
+        return true;
+    }
+
+    /**
+     * Back-dated entry: insert into a fresh copy so concurrent readers never
+     * see a shift in place. An entry older than the newest cold one brings the
+     * cold blocks from its position onwards back into the hot tier, to be
+     * spilled again in order.
+     */
+    private void insert(View current, int n, int at, Transaction transaction) {
+        Cold cold = current.cold();
+        int from = cold.size;
+        Cold kept = cold;
+        if (at < cold.size) {
+            int block = cold.blockOf(at);
+            from = cold.firsts[block];
+            kept = cold.prefix(block);
+        }
+        Slots copy = new Slots(Math.max(INITIAL_CAPACITY, (n + 1 - from) * 2));
+        int index = 0;
+        for (int ordinal = from; ordinal < cold.size; ordinal++) {
+            if (ordinal == at) {
+                store(copy, index++, transaction);
+            }
+            store(copy, index++, cold.materialize(ordinal, accountId));
+        }
+        int hotFrom = cold.size - current.base();
+        int hot = n - cold.size;
+        int split = Math.max(0, at - cold.size);
+        Slots.copy(current.slots(), hotFrom, copy, index, split);
+        index += split;
+        if (at >= cold.size) {
+            store(copy, index++, transaction);
+        }
+        Slots.copy(current.slots(), hotFrom + split, copy, index, hot - split);
+        view = new View(kept, copy, from);
+        size = n + 1;
+    }
+
+    /** Moves the oldest hot entries to the cold tier, a block at a time, while the hot tier is over its limits. */
+    private void spill() {
+        Tiering limits = tiering;
+        if (limits == null) {
+            return;
+        }
+        int block = limits.blockEntries();
+        long cutoff = Long.MIN_VALUE;
+        if (!limits.hotAge().isZero()) {
+            cutoff = toNanos(LocalDateTime.now()) - limits.hotAge().toNanos();
+        }
+        while (true) {
+            View current = view;
+            int hot = size - current.cold().size;
+            if (hot < block) {
+                return;
+            }
+            int first = current.cold().size - current.base();
+            if (hot - block < limits.hotEntries() && current.slots().times[first + block - 1] >= cutoff) {
+                return;
+            }
+            HistoryBlock spilled;
+            try {
+                spilled = HistoryBlock.write(limits.segments(), current.slots(), first, block);
+            } catch (UncheckedIOException | IllegalStateException e) {
+                // No room for a new segment, or tiering is shutting down: keep the entries hot for now
+                return;
+            }
+            view = new View(current.cold().append(spilled), current.slots(), current.base());
+        }
+    }
+
+    /** Entries currently held on-heap. */
+    int hotSize() {
+        return size - view.cold().size;
+    }
+
+    /**
+     * Returns up to {@code limit} transactions with {@code from <= timestamp < to},
+     * newest first. Either bound may be null. {@code cursor} is the
+     * {@code nextCursor} of the previous page, or null for the first page.
+     */
+    public Page page(LocalDateTime from, LocalDateTime to, Integer cursor, int limit) {
+        int n = size;
+        View current = view;
+        int lo = from == null ? 0 : lowerBound(current, n, toNanos(from));
+        int hi = to == null ? n : lowerBound(current, n, toNanos(to));
+        if (cursor != null) {
+            if (cursor < 0 || cursor > n) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            hi = Math.min(hi, cursor);
+        }
+        int start = Math.max(lo, hi - limit);
+        List<Transaction> items = new ArrayList<>(Math.max(0, hi - start));
+        for (int i = hi - 1; i >= start; i--) {
+            items.add(materialize(current, i));
+        }
+        return new Page(items, start > lo ? start : null);
+    }
+
+    private void store(Slots target, int index, Transaction transaction) {
+        if (accountId == null && transaction.getAccountId() != null) {
+            accountId = transaction.getAccountId();
+        }
+        long amount = minorUnitsOf(transaction.getAmount());
+        byte type = TYPES.codeOf(transaction.getType());
+        byte category = CATEGORIES.codeOf(transaction.getCategory());
+        boolean regular = amount != Long.MIN_VALUE
+            && type != Dictionary.FULL
+            && category != Dictionary.FULL
+            && transaction.getAccountId() != null && transaction.getAccountId().equals(accountId)
+            && parseId(transaction.getId(), target, index);
+
+        target.times[index] = timeOf(transaction);
+        if (regular) {
+            target.amounts[index] = amount;
+            target.types[index] = type;
+            target.categories[index] = category;
+            target.descriptions[index] = intern(transaction.getDescription());
+            if (target.irregular != null) {
+                target.irregular[index] = null;
+            }
+        } else {
+            if (target.irregular == null) {
+                target.irregular = new Transaction[target.capacity()];
+            }
+            target.irregular[index] = transaction;
+            target.descriptions[index] = null;
+        }
+    }
+
+    private Transaction materialize(View source, int ordinal) {
+        if (ordinal < source.cold().size) {
+            return source.cold().materialize(ordinal, accountId);
+        }
+        return materialize(source.slots(), ordinal - source.base());
+    }
+
+    private Transaction materialize(Slots source, int index) {
+        if (source.irregular != null && source.irregular[index] != null) {
+            return source.irregular[index];
+        }
+        Transaction transaction = new Transaction();
+        transaction.setId(new UUID(source.idHigh[index], source.idLow[index]).toString());
+        transaction.setAccountId(accountId);
+        transaction.setType(TYPES.valueOf(source.types[index]));
+        transaction.setAmount(Money.fromMinorUnits(source.amounts[index]));
+        transaction.setDescription(source.descriptions[index]);
+        long time = source.times[index];
+        transaction.setTimestamp(time == NO_TIMESTAMP ? null : fromNanos(time));
+        transaction.setCategory(CATEGORIES.valueOf(source.categories[index]));
+        return transaction;
+    }
+
+    /**
+     * Stores a canonical (lower-case, hyphenated) UUID string as two longs
+     * without allocating. Anything else would not round-trip, so it is rejected.
+     */
+    private static boolean parseId(String id, Slots target, int index) {
+        if (id == null || id.length() != 36
+                || id.charAt(8) != '-' || id.charAt(13) != '-' || id.charAt(18) != '-' || id.charAt(23) != '-') {
+            return false;
+        }
+        long high = 0;
+        long low = 0;
+        int digits = 0;
+        for (int i = 0; i < 36; i++) {
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                continue;
+            }
+            char c = id.charAt(i);
+            int nibble;
+            if (c >= '0' && c <= '9') {
+                nibble = c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                nibble = c - 'a' + 10;
+            } else {
+                return false;
+            }
+            if (digits++ < 16) {
+                high = (high << 4) | nibble;
+            } else {
+                low = (low << 4) | nibble;
+            }
+        }
+        target.idHigh[index] = high;
+        target.idLow[index] = low;
+        return true;
+    }
+
+    // Long.MIN_VALUE when the amount is missing or has sub-cent digits
+    private static long minorUnitsOf(BigDecimal amount) {
+        if (amount == null) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Money.toMinorUnits(amount);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static String intern(String description) {
+        if (description == null) {
+            return null;
+        }
+        String shared = DESCRIPTIONS.get(description);
+        if (shared != null) {
+            return shared;
+        }
+        if (DESCRIPTIONS.size() >= MAX_INTERNED_DESCRIPTIONS) {
+            return description;
+        }
+        shared = DESCRIPTIONS.putIfAbsent(description, description);
+        return shared == null ? description : shared;
+    }
+
+    private static long timeAt(View source, int ordinal) {
+        if (ordinal < source.cold().size) {
+            return source.cold().timeAt(ordinal);
+        }
+        return source.slots().times[ordinal - source.base()];
+    }
+
+    // First index whose time is >= key
+    private static int lowerBound(View source, int n, long key) {
+        int low = 0;
+        int high = n;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timeAt(source, mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First index whose time is > key
+    private static int upperBound(View source, int n, long key) {
+        int low = 0;
+        int high = n;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timeAt(source, mid) <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long timeOf(Transaction transaction) {
+        LocalDateTime timestamp = transaction.getTimestamp();
+        return timestamp == null ? NO_TIMESTAMP : toNanos(timestamp);
+    }
+
+    private static long toNanos(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    static LocalDateTime fromNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    /** Append-only string-to-byte code table shared by all histories. */
+    static final class Dictionary {
+        static final byte FULL = -2;
+
+        private final ConcurrentHashMap<String, Byte> codes = new ConcurrentHashMap<>();
+        private volatile String[] values = new String[0];
+
+        byte codeOf(String value) {
+            if (value == null) {
+                return NO_CODE;
+            }
+            Byte code = codes.get(value);
+            return code != null ? code : register(value);
+        }
+
+        String valueOf(byte code) {
+            return code == NO_CODE ? null : values[code];
+        }
+
+        private synchronized byte register(String value) {
+            Byte code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            String[] current = values;
+            if (current.length > Byte.MAX_VALUE) {
+                return FULL;
+            }
+            String[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = value;
+            // Publish the value before the code, so a reader holding the code can always resolve it
+            values = grown;
+            codes.put(value, (byte) current.length);
+            return (byte) current.length;
+        }
+    }
+}
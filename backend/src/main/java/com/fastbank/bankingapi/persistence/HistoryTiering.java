@@ -0,0 +1,69 @@
+package com.fastbank.bankingapi.persistence;
+
+import com.fastbank.bankingapi.model.HistorySegments;
+import com.fastbank.bankingapi.model.TransactionHistory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Tiered transaction history. Enabled with {@code fastbank.history.tiering.enabled=true}:
+ * each account keeps its newest {@code fastbank.history.hot-entries} entries
+ * (and, when {@code fastbank.history.hot-days} is set, nothing older) on the
+ * heap, and older ones move in blocks of {@code fastbank.history.block-entries}
+ * to memory-mapped segment files under {@code fastbank.history.dir}.
+ */
+@Component
+@ConditionalOnProperty(name = "fastbank.history.tiering.enabled", havingValue = "true")
+public class HistoryTiering {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryTiering.class);
+
+    @Value("${fastbank.history.dir:data/history}")
+    private Path directory;
+
+    @Value("${fastbank.history.hot-entries:10000}")
+    private int hotEntries;
+
+    @Value("${fastbank.history.hot-days:0}")
+    private int hotDays;
+
+    @Value("${fastbank.history.block-entries:1024}")
+    private int blockEntries;
+
+    @Value("${fastbank.history.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    private HistorySegments segments;
+
+    @PostConstruct
+    public void start() throws IOException {
+        // A segment is one mapped buffer, and those are indexed by int
+        if (segmentSizeMb < 1 || segmentSizeMb > 1024) {
+            throw new IllegalArgumentException("fastbank.history.segment-size-mb must be 1-1024, was " + segmentSizeMb);
+        }
+        segments = HistorySegments.open(directory, segmentSizeMb << 20);
+        TransactionHistory.enableTiering(
+            new TransactionHistory.Tiering(segments, hotEntries, Duration.ofDays(hotDays), blockEntries));
+        logger.info("Tiered history in {}: {} hot entries{}, blocks of {}",
+            directory, hotEntries, hotDays > 0 ? " up to " + hotDays + " days old" : "", blockEntries);
+    }
+
+    public HistorySegments getSegments() {
+        return segments;
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        TransactionHistory.disableTiering();
+        logger.info("Closing history segments: {} written in {} segments", segments.getBytesWritten(), segments.getSegmentCount());
+        segments.close();
+    }
+}
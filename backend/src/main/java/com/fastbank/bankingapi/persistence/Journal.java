@@ -0,0 +1,411 @@
+package com.fastbank.bankingapi.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only ledger journal with group commit.
+ *
+ * Callers encode records into an in-memory buffer under a short lock and get
+ * back the record's sequence number. A single flusher thread swaps the buffer
+ * out, writes it with one {@link FileChannel#write} and one
+ * {@link FileChannel#force}, then wakes everyone waiting in
+ * {@link #awaitDurable(long)}. Every request arriving within the same commit
+ * window therefore shares a single fsync.
+ *
+ * The journal is split into segment files named after the first sequence they
+ * may contain. {@link #roll()} starts a new segment so that a snapshot can
+ * later drop every segment it fully covers with {@link #deleteSegmentsBefore(long)}.
+ *
+ * On disk each record is framed as {@code [int length][int crc32c][payload]}.
+ * Replay stops at the first short or corrupt frame of the last segment and
+ * truncates the torn tail.
+ */
+public class Journal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(Journal.class);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("ledger-(\\d{20})\\.journal");
+    private static final int FRAME_HEADER = 8;
+    private static final int INITIAL_BUFFER = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Path directory;
+    private final long commitWindowNanos;
+    private final boolean fsync;
+
+    // Guards the channel: held by whoever writes a batch or switches segments
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private FileChannel channel;
+    private Path segment;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private ByteBuffer active = ByteBuffer.allocate(INITIAL_BUFFER);
+    private ByteBuffer standby = ByteBuffer.allocate(INITIAL_BUFFER);
+    private long nextSequence = 1;
+    private volatile long appendedSequence;
+
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durableAdvanced = durableLock.newCondition();
+    private volatile long durableSequence;
+    private volatile IOException failure;
+
+    private boolean replayed;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public Journal(Path directory, long commitWindowMillis, boolean fsync) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.commitWindowNanos = TimeUnit.MILLISECONDS.toNanos(commitWindowMillis);
+        this.fsync = fsync;
+    }
+
+    public Path getDirectory() { return directory; }
+
+    public long replay(Consumer<JournalRecord> consumer) throws IOException {
+        return replay(consumer, 0);
+    }
+
+    /**
+     * Reads every intact record with a sequence at or after {@code fromSequence}
+     * and opens the last segment for appending. Segments that end before
+     * {@code fromSequence} are skipped without being read. Fails if the
+     * oldest segment starts after {@code fromSequence}, since the records in
+     * between are gone. Must be called before {@link #start()}.
+     */
+    public long replay(Consumer<JournalRecord> consumer, long fromSequence) throws IOException {
+        List<Segment> segments = listSegments();
+        if (!segments.isEmpty() && segments.get(0).firstSequence() > Math.max(fromSequence, 1)) {
+            throw new IOException("Journal in " + directory + " starts at sequence " + segments.get(0).firstSequence()
+                + " but replay needs sequence " + Math.max(fromSequence, 1));
+        }
+        nextSequence = Math.max(nextSequence, fromSequence);
+        long count = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            Segment current = segments.get(i);
+            boolean last = i == segments.size() - 1;
+            nextSequence = Math.max(nextSequence, current.firstSequence());
+            if (!last && segments.get(i + 1).firstSequence() <= fromSequence) {
+                continue;
+            }
+            count += replaySegment(current.path(), consumer, fromSequence, last);
+        }
+
+        Path tail = segments.isEmpty() ? segmentPath(nextSequence) : segments.get(segments.size() - 1).path();
+        openSegment(tail);
+        appendedSequence = nextSequence - 1;
+        durableSequence = appendedSequence;
+        replayed = true;
+        return count;
+    }
+
+    private long replaySegment(Path path, Consumer<JournalRecord> consumer, long fromSequence, boolean last) throws IOException {
+        long count = 0;
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = 0;
+            long size = in.size();
+            ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER);
+            ByteBuffer payload = ByteBuffer.allocate(INITIAL_BUFFER);
+            CRC32C crc = new CRC32C();
+
+            while (position + FRAME_HEADER <= size) {
+                header.clear();
+                in.read(header, position);
+                header.flip();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                if (length <= 0 || position + FRAME_HEADER + length > size) {
+                    break;
+                }
+                if (payload.capacity() < length) {
+                    payload = ByteBuffer.allocate(Math.max(length, payload.capacity() * 2));
+                }
+                payload.clear().limit(length);
+                in.read(payload, position + FRAME_HEADER);
+                payload.flip();
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                JournalRecord record = JournalCodec.decode(payload);
+                nextSequence = Math.max(nextSequence, record.getSequence() + 1);
+                if (record.getSequence() >= fromSequence) {
+                    consumer.accept(record);
+                    count++;
+                }
+                position += FRAME_HEADER + length;
+            }
+
+            if (position < size) {
+                if (!last) {
+                    throw new IOException("Corrupt journal segment " + path + " at offset " + position);
+                }
+                logger.warn("Truncating torn journal tail in {}: {} trailing bytes discarded", path, size - position);
+                in.truncate(position);
+            }
+        }
+        return count;
+    }
+
+    public void start() throws IOException {
+        if (!replayed) {
+            // Never append over records that were not read back
+            replay(record -> { });
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "ledger-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Assigns the record the next sequence number and buffers it for the next
+     * group commit. Returns the sequence to pass to {@link #awaitDurable(long)}.
+     */
+    public long append(JournalRecord record) {
+        checkHealthy();
+        long sequence;
+        appendLock.lock();
+        try {
+            sequence = nextSequence;
+            record.setSequence(sequence);
+            encodeFrame(record);
+            nextSequence = sequence + 1;
+            appendedSequence = sequence;
+        } finally {
+            appendLock.unlock();
+        }
+        LockSupport.unpark(flusher);
+        return sequence;
+    }
+
+    /**
+     * Blocks until the record with the given sequence (and everything before
+     * it) has been written and, if enabled, fsynced.
+     */
+    public void awaitDurable(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        durableLock.lock();
+        try {
+            while (durableSequence < sequence) {
+                checkHealthy();
+                durableAdvanced.awaitUninterruptibly();
+            }
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    public long getDurableSequence() { return durableSequence; }
+
+    public long getAppendedSequence() { return appendedSequence; }
+
+    /**
+     * Flushes everything appended so far into the current segment and starts a
+     * new one. Returns the cut: every record with a lower sequence is in an
+     * older segment, every later record in the new one.
+     */
+    public long roll() throws IOException {
+        writeLock.lock();
+        try {
+            long cut;
+            appendLock.lock();
+            try {
+                cut = nextSequence;
+            } finally {
+                appendLock.unlock();
+            }
+            writeBatch();
+            if (!segment.equals(segmentPath(cut))) {
+                channel.force(true);
+                channel.close();
+                openSegment(segmentPath(cut));
+            }
+            return cut;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Deletes segments that only hold records older than {@code sequence}. */
+    public int deleteSegmentsBefore(long sequence) throws IOException {
+        List<Segment> segments = listSegments();
+        int deleted = 0;
+        for (int i = 0; i < segments.size() - 1; i++) {
+            if (segments.get(i + 1).firstSequence() <= sequence) {
+                Files.deleteIfExists(segments.get(i).path());
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private void encodeFrame(JournalRecord record) {
+        while (true) {
+            int start = active.position();
+            try {
+                if (active.remaining() < FRAME_HEADER) {
+                    throw new BufferOverflowException();
+                }
+                active.position(start + FRAME_HEADER);
+                JournalCodec.encode(record, active);
+                int end = active.position();
+                CRC32C crc = new CRC32C();
+                crc.update(active.duplicate().position(start + FRAME_HEADER).limit(end));
+                active.putInt(start, end - start - FRAME_HEADER);
+                active.putInt(start + 4, (int) crc.getValue());
+                return;
+            } catch (IllegalArgumentException e) {
+                active.position(start);
+                throw e;
+            } catch (BufferOverflowException e) {
+                active.position(start);
+                ByteBuffer grown = ByteBuffer.allocate(active.capacity() * 2);
+                active.flip();
+                grown.put(active);
+                active = grown;
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (running || appendedSequence > durableSequence) {
+            if (appendedSequence == durableSequence) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            if (commitWindowNanos > 0 && running) {
+                // Let more writers join this commit
+                LockSupport.parkNanos(this, commitWindowNanos);
+            }
+            writeLock.lock();
+            try {
+                writeBatch();
+            } catch (IOException e) {
+                logger.error("Journal write to {} failed", segment, e);
+                failure = e;
+                signalDurable();
+                return;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    // Caller holds writeLock
+    private void writeBatch() throws IOException {
+        long target;
+        ByteBuffer batch;
+        appendLock.lock();
+        try {
+            target = appendedSequence;
+            batch = active;
+            active = standby;
+            active.clear();
+            standby = batch;
+        } finally {
+            appendLock.unlock();
+        }
+        if (target <= durableSequence) {
+            return;
+        }
+        batch.flip();
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+        durableSequence = target;
+        signalDurable();
+    }
+
+    private void openSegment(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        segment = path;
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("ledger-%020d.journal", firstSequence));
+    }
+
+    private List<Segment> listSegments() throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.add(new Segment(Long.parseLong(matcher.group(1)), file));
+                }
+            });
+        }
+        segments.sort((a, b) -> Long.compare(a.firstSequence(), b.firstSequence()));
+        return segments;
+    }
+
+    private record Segment(long firstSequence, Path path) {}
+
+    private void signalDurable() {
+        durableLock.lock();
+        try {
+            durableAdvanced.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private void checkHealthy() {
+        IOException e = failure;
+        if (e != null) {
+            throw new UncheckedIOException("Journal " + directory + " is unavailable", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writeLock.lock();
+        try {
+            if (channel != null) {
+                writeBatch();
+                channel.force(true);
+                channel.close();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
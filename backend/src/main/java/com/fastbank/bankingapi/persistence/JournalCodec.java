@@ -0,0 +1,244 @@
+package com.fastbank.bankingapi.persistence;
+
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.Transaction;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary layout shared by the journal and snapshot files.
+ *
+ * Strings are a signed short length (-1 for null) followed by UTF-8 bytes,
+ * amounts are a scale byte plus the unscaled value's two's-complement bytes,
+ * and timestamps are nanoseconds since the epoch (UTC). Transaction ids that
+ * are UUIDs are stored as two longs instead of 36 characters.
+ *
+ * Encoders write into the caller's buffer and throw
+ * {@link java.nio.BufferOverflowException} when it is too small; the caller
+ * grows the buffer and retries.
+ */
+public final class JournalCodec {
+
+    private static final byte ID_NULL = 0;
+    private static final byte ID_UUID = 1;
+    private static final byte ID_STRING = 2;
+
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    private JournalCodec() {}
+
+    public static void encode(JournalRecord record, ByteBuffer out) {
+        out.put((byte) record.getKind().ordinal());
+        out.putLong(record.getSequence());
+        switch (record.getKind()) {
+            case OPEN -> writeAccount(record.getAccount(), out);
+            case POSTING -> writePostings(record.getPostings(), out);
+            case PREPARE -> {
+                out.putLong(record.getTransactionId());
+                writePostings(record.getPostings(), out);
+            }
+            case COMMIT -> out.putLong(record.getTransactionId());
+        }
+    }
+
+    public static JournalRecord decode(ByteBuffer in) {
+        JournalRecord.Kind kind = JournalRecord.Kind.values()[in.get()];
+        long sequence = in.getLong();
+        JournalRecord record = switch (kind) {
+            case OPEN -> JournalRecord.open(readAccount(in));
+            case POSTING -> JournalRecord.posting(readPostings(in));
+            case PREPARE -> {
+                long transactionId = in.getLong();
+                yield JournalRecord.prepare(transactionId, List.of(readPostings(in)));
+            }
+            case COMMIT -> JournalRecord.commit(in.getLong());
+        };
+        record.setSequence(sequence);
+        return record;
+    }
+
+    // The count is an unsigned varint: one byte, as it always was, below 128 legs
+    private static void writePostings(List<JournalRecord.Posting> postings, ByteBuffer out) {
+        int count = postings.size();
+        while (count >= 0x80) {
+            out.put((byte) (count | 0x80));
+            count >>>= 7;
+        }
+        out.put((byte) count);
+        for (JournalRecord.Posting posting : postings) {
+            writeString(posting.accountNumber(), out);
+            out.put(posting.credit() ? (byte) 1 : (byte) 0);
+            writeTransaction(posting.transaction(), out);
+        }
+    }
+
+    private static JournalRecord.Posting[] readPostings(ByteBuffer in) {
+        int count = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            count |= (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        JournalRecord.Posting[] postings = new JournalRecord.Posting[count];
+        for (int i = 0; i < count; i++) {
+            String accountNumber = readString(in);
+            boolean credit = in.get() == 1;
+            postings[i] = new JournalRecord.Posting(accountNumber, credit, readTransaction(accountNumber, in));
+        }
+        return postings;
+    }
+
+    public static void writeAccount(Account account, ByteBuffer out) {
+        writeString(account.getAccountNumber(), out);
+        writeString(account.getOwnerName(), out);
+        writeTime(account.getCreatedAt(), out);
+        writeAmount(account.getBalance(), out);
+        List<Transaction> transactions = account.getTransactions();
+        out.putInt(transactions.size());
+        for (Transaction transaction : transactions) {
+            writeTransaction(transaction, out);
+        }
+    }
+
+    public static Account readAccount(ByteBuffer in) {
+        Account account = new Account();
+        account.setAccountNumber(readString(in));
+        account.setOwnerName(readString(in));
+        account.setCreatedAt(readTime(in));
+        account.setBalance(readAmount(in));
+        int count = in.getInt();
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(readTransaction(account.getAccountNumber(), in));
+        }
+        account.setTransactions(transactions);
+        return account;
+    }
+
+    public static void writeTransaction(Transaction transaction, ByteBuffer out) {
+        writeId(transaction.getId(), out);
+        writeString(transaction.getType(), out);
+        writeAmount(transaction.getAmount(), out);
+        writeString(transaction.getDescription(), out);
+        writeTime(transaction.getTimestamp(), out);
+        writeString(transaction.getCategory(), out);
+    }
+
+    public static Transaction readTransaction(String accountNumber, ByteBuffer in) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountNumber);
+        transaction.setId(readId(in));
+        transaction.setType(readString(in));
+        transaction.setAmount(readAmount(in));
+        transaction.setDescription(readString(in));
+        transaction.setTimestamp(readTime(in));
+        transaction.setCategory(readString(in));
+        return transaction;
+    }
+
+    static void writeId(String id, ByteBuffer out) {
+        if (id == null) {
+            out.put(ID_NULL);
+            return;
+        }
+        if (id.length() == 36) {
+            try {
+                UUID uuid = UUID.fromString(id);
+                // Only canonical lower-case ids round-trip through the binary form
+                if (uuid.toString().equals(id)) {
+                    out.put(ID_UUID);
+                    out.putLong(uuid.getMostSignificantBits());
+                    out.putLong(uuid.getLeastSignificantBits());
+                    return;
+                }
+            } catch (IllegalArgumentException notAUuid) {
+                // Fall through and store it verbatim
+            }
+        }
+        out.put(ID_STRING);
+        writeString(id, out);
+    }
+
+    static String readId(ByteBuffer in) {
+        byte tag = in.get();
+        return switch (tag) {
+            case ID_NULL -> null;
+            case ID_UUID -> new UUID(in.getLong(), in.getLong()).toString();
+            default -> readString(in);
+        };
+    }
+
+    static void writeString(String value, ByteBuffer out) {
+        if (value == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String too long for journal: " + bytes.length + " bytes");
+        }
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeAmount(BigDecimal amount, ByteBuffer out) {
+        if (amount == null) {
+            out.put((byte) -1);
+            return;
+        }
+        byte[] unscaled = amount.unscaledValue().toByteArray();
+        if (unscaled.length > Byte.MAX_VALUE || amount.scale() != (byte) amount.scale()) {
+            throw new IllegalArgumentException("Amount out of journal range: " + amount);
+        }
+        out.put((byte) unscaled.length);
+        out.put((byte) amount.scale());
+        out.put(unscaled);
+    }
+
+    static BigDecimal readAmount(ByteBuffer in) {
+        int length = in.get();
+        if (length < 0) {
+            return null;
+        }
+        int scale = in.get();
+        byte[] unscaled = new byte[length];
+        in.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    static void writeTime(LocalDateTime time, ByteBuffer out) {
+        if (time == null) {
+            out.putLong(NULL_TIME);
+            return;
+        }
+        out.putLong(time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano());
+    }
+
+    static LocalDateTime readTime(ByteBuffer in) {
+        long nanos = in.getLong();
+        if (nanos == NULL_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+            (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
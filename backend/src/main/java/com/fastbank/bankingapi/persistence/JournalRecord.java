@@ -0,0 +1,76 @@
+package com.fastbank.bankingapi.persistence;
+
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.Transaction;
+import java.util.List;
+
+/**
+ * One entry in the ledger journal. An OPEN record carries the full image of a
+ * newly saved account; a POSTING record carries one or more balance changes
+ * that must be replayed together (a transfer is a single record with two legs).
+ *
+ * Postings that span repository shards are journaled in two phases instead:
+ * each shard gets a PREPARE record with its own legs, and then, once every
+ * PREPARE is durable, a COMMIT record with the same transaction id. A
+ * prepared leg is only replayed if a COMMIT for it exists in some shard.
+ */
+public final class JournalRecord {
+
+    // Ordinals are written to disk: append only
+    public enum Kind { OPEN, POSTING, PREPARE, COMMIT }
+
+    /**
+     * A single balance change: the transaction that was appended to the
+     * account's history and whether it credited or debited the balance.
+     */
+    public record Posting(String accountNumber, boolean credit, Transaction transaction) {}
+
+    private final Kind kind;
+    private final Account account;
+    private final List<Posting> postings;
+    private final long transactionId;
+    private long sequence;
+
+    private JournalRecord(Kind kind, Account account, List<Posting> postings, long transactionId) {
+        this.kind = kind;
+        this.account = account;
+        this.postings = postings;
+        this.transactionId = transactionId;
+    }
+
+    public static JournalRecord open(Account account) {
+        return new JournalRecord(Kind.OPEN, account, List.of(), 0);
+    }
+
+    public static JournalRecord posting(Posting... postings) {
+        return new JournalRecord(Kind.POSTING, null, List.of(postings), 0);
+    }
+
+    /** One shard's legs of a posting that spans shards; applied only once committed. */
+    public static JournalRecord prepare(long transactionId, List<Posting> postings) {
+        return new JournalRecord(Kind.PREPARE, null, List.copyOf(postings), transactionId);
+    }
+
+    public static JournalRecord commit(long transactionId) {
+        return new JournalRecord(Kind.COMMIT, null, List.of(), transactionId);
+    }
+
+    public static JournalRecord credit(String accountNumber, Transaction transaction) {
+        return posting(new Posting(accountNumber, true, transaction));
+    }
+
+    public static JournalRecord debit(String accountNumber, Transaction transaction) {
+        return posting(new Posting(accountNumber, false, transaction));
+    }
+
+    public Kind getKind() { return kind; }
+
+    public Account getAccount() { return account; }
+
+    public List<Posting> getPostings() { return postings; }
+
+    public long getTransactionId() { return transactionId; }
+
+    public long getSequence() { return sequence; }
+    void setSequence(long sequence) { this.sequence = sequence; }
+}
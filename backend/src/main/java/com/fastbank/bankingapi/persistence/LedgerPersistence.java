@@ -0,0 +1,265 @@
+package com.fastbank.bankingapi.persistence;
+
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.repository.AccountLocks;
+import com.fastbank.bankingapi.repository.AccountRepository;
+import com.fastbank.bankingapi.repository.AccountShard;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Durable mode for {@link AccountRepository}. Enabled with
+ * {@code fastbank.persistence.enabled=true}: on startup the latest snapshot is
+ * loaded and only the journal tail after it is replayed, then the journal is
+ * attached to the repository so all further ledger changes are appended to it.
+ * Snapshots are taken every {@code fastbank.persistence.snapshot-interval-seconds}
+ * and let the journal segments they cover be deleted.
+ *
+ * Every repository shard has its own journal and snapshots, in
+ * {@code shard-NN} under the data directory (directly in it with a single
+ * shard). Recovery reads every shard's journal tail before applying any of
+ * it, so prepared legs of cross-shard postings are replayed exactly when some
+ * shard holds their COMMIT.
+ */
+@Component
+@ConditionalOnProperty(name = "fastbank.persistence.enabled", havingValue = "true")
+public class LedgerPersistence {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerPersistence.class);
+
+    private static final Pattern SHARD_DIRECTORY = Pattern.compile("shard-\\d+");
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountLocks accountLocks;
+
+    // Unused here, but the cold history tier has to be in place before recovery rebuilds histories
+    @Autowired(required = false)
+    private HistoryTiering historyTiering;
+
+    @Value("${fastbank.persistence.dir:data}")
+    private Path directory;
+
+    @Value("${fastbank.persistence.group-commit-window-ms:2}")
+    private long groupCommitWindowMillis;
+
+    @Value("${fastbank.persistence.fsync:true}")
+    private boolean fsync;
+
+    @Value("${fastbank.persistence.snapshot-interval-seconds:300}")
+    private long snapshotIntervalSeconds;
+
+    private Journal[] journals;
+    private SnapshotStore[] snapshots;
+    private ScheduledExecutorService scheduler;
+    // Not a monitor: snapshots do file I/O, and a virtual thread blocking inside synchronized pins its carrier
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    @PostConstruct
+    public void recover() throws IOException {
+        long start = System.nanoTime();
+        int shards = accountRepository.shardCount();
+        checkLayout(shards);
+        journals = new Journal[shards];
+        snapshots = new SnapshotStore[shards];
+        List<List<JournalRecord>> tails = new ArrayList<>(shards);
+        Set<Long> committed = new HashSet<>();
+        int snapshotAccounts = 0;
+        long snapshotTransactions = 0;
+        long records = 0;
+        for (int i = 0; i < shards; i++) {
+            Path shardDirectory = shards == 1 ? directory : directory.resolve(String.format("shard-%02d", i));
+            snapshots[i] = new SnapshotStore(shardDirectory);
+            SnapshotStore.Summary snapshot = snapshots[i].loadLatest(accountRepository::restore);
+            if (snapshot != null) {
+                snapshotAccounts += snapshot.accounts();
+                snapshotTransactions += snapshot.transactions();
+            }
+            journals[i] = new Journal(shardDirectory, groupCommitWindowMillis, fsync);
+            List<JournalRecord> tail = new ArrayList<>();
+            records += journals[i].replay(record -> {
+                if (record.getKind() == JournalRecord.Kind.COMMIT) {
+                    committed.add(record.getTransactionId());
+                }
+                tail.add(record);
+            }, snapshot == null ? 0 : snapshot.cut());
+            tails.add(tail);
+        }
+        long loaded = System.nanoTime();
+
+        for (List<JournalRecord> tail : tails) {
+            for (JournalRecord record : tail) {
+                apply(record, committed);
+            }
+        }
+        for (Journal journal : journals) {
+            journal.start();
+        }
+        accountRepository.attachJournals(journals);
+        long end = System.nanoTime();
+
+        logger.info("Recovered {} accounts in {} shards: snapshots hold {} accounts and {} transactions, loaded with {} journal records in {} ms, replayed in {} ms",
+            accountRepository.count(), shards, snapshotAccounts, snapshotTransactions, records,
+            (loaded - start) / 1_000_000, (end - loaded) / 1_000_000);
+
+        if (snapshotIntervalSeconds > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ledger-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    // Accounts hash to different shards for different shard counts, so data written with another count is refused
+    private void checkLayout(int shards) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        long shardDirectories;
+        boolean rootFiles;
+        try (Stream<Path> files = Files.list(directory)) {
+            List<String> names = files.map(file -> file.getFileName().toString()).toList();
+            shardDirectories = names.stream().filter(name -> SHARD_DIRECTORY.matcher(name).matches()).count();
+            rootFiles = names.stream().anyMatch(name -> name.endsWith(".journal") || name.endsWith(".snap"));
+        }
+        if ((shards == 1 && shardDirectories > 0) || (shards > 1 && (rootFiles || (shardDirectories > 0 && shardDirectories != shards)))) {
+            throw new IllegalStateException("Ledger data in " + directory + " was written with a different number of shards than "
+                + "fastbank.repository.shards=" + shards);
+        }
+    }
+
+    /**
+     * Takes a snapshot of every shard without pausing writers, then drops the
+     * journal segments and older snapshots they make redundant. The returned
+     * summary adds up the shards; its cut is the highest shard cut.
+     */
+    public SnapshotStore.Summary snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            long start = System.nanoTime();
+            long[] cuts = new long[journals.length];
+            long cut = 0;
+            int accounts = 0;
+            long transactions = 0;
+            long bytes = 0;
+            for (int i = 0; i < journals.length; i++) {
+                cuts[i] = journals[i].roll();
+                AccountShard shard = accountRepository.shard(i);
+                SnapshotStore.Summary summary = snapshots[i].write(cuts[i], shard.accounts(), accountLocks);
+                cut = Math.max(cut, cuts[i]);
+                accounts += summary.accounts();
+                transactions += summary.transactions();
+                bytes += summary.bytes();
+            }
+            // A COMMIT about to be dropped with its segment may be the only one of its transaction
+            // on disk; the other shards' COMMITs were appended before the copy could lock the
+            // accounts, so once everything appended so far is durable they are safe to rely on
+            for (Journal journal : journals) {
+                journal.awaitDurable(journal.getAppendedSequence());
+            }
+            int segments = 0;
+            for (int i = 0; i < journals.length; i++) {
+                segments += journals[i].deleteSegmentsBefore(cuts[i]);
+                snapshots[i].deleteOlderThan(cuts[i]);
+            }
+            logger.info("Snapshot of {} shards: {} accounts, {} transactions, {} bytes in {} ms; {} journal segments deleted",
+                journals.length, accounts, transactions, bytes, (System.nanoTime() - start) / 1_000_000, segments);
+            return new SnapshotStore.Summary(cut, accounts, transactions, bytes);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Snapshot failed", e);
+        }
+    }
+
+    void apply(JournalRecord record, Set<Long> committed) {
+        long sequence = record.getSequence();
+        switch (record.getKind()) {
+            case OPEN -> {
+                Account existing = accountRepository.findByAccountNumber(record.getAccount().getAccountNumber()).orElse(null);
+                if (existing == null || existing.getJournalSequence() < sequence) {
+                    record.getAccount().setJournalSequence(sequence);
+                    accountRepository.restore(record.getAccount());
+                }
+                return;
+            }
+            case COMMIT -> {
+                return;
+            }
+            case PREPARE -> {
+                if (!committed.contains(record.getTransactionId())) {
+                    logger.warn("Discarding journal record {}: prepared transaction {} was never committed",
+                        sequence, record.getTransactionId());
+                    return;
+                }
+            }
+            case POSTING -> { }
+        }
+        // A batch record can hold several legs for one account: decide once per account, before its first leg
+        Map<Account, Boolean> applying = new IdentityHashMap<>();
+        for (JournalRecord.Posting posting : record.getPostings()) {
+            Account account = accountRepository.findByAccountNumber(posting.accountNumber()).orElse(null);
+            if (account == null) {
+                logger.warn("Journal record {} references unknown account {}", sequence, posting.accountNumber());
+                continue;
+            }
+            if (!applying.computeIfAbsent(account, a -> a.getJournalSequence() < sequence)) {
+                // Already part of the snapshot copy
+                continue;
+            }
+            if (posting.credit()) {
+                account.credit(posting.transaction());
+            } else {
+                account.debit(posting.transaction());
+            }
+            account.setJournalSequence(sequence);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        snapshotLock.lock();
+        try {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+            accountRepository.attachJournals(null);
+            for (Journal journal : journals) {
+                journal.close();
+            }
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.fastbank.bankingapi.persistence;
+
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.repository.AccountLocks;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Memory-mapped account snapshots.
+ *
+ * A snapshot is a fuzzy checkpoint: the journal is rolled to obtain a cut
+ * sequence, then each account is copied under its own stripe lock while
+ * writers keep going on every other account. Every record below the cut is
+ * guaranteed to be in the copy; records at or after the cut may or may not be,
+ * which is why each account entry carries the last journal sequence applied
+ * to it. Recovery replays the journal from the cut and skips any posting an
+ * account has already seen.
+ *
+ * Layout: a 32-byte header ({@code magic, version, cut, account count}),
+ * then per account {@code [int length][int crc32c][long journalSequence][account image]}
+ * using the {@link JournalCodec} account encoding.
+ */
+public class SnapshotStore {
+
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d{20})\\.snap");
+    private static final int MAGIC = 0x46425350; // "FBSP"
+    private static final int VERSION = 1;
+    private static final int HEADER = 32;
+    private static final int ENTRY_HEADER = 8;
+    private static final int WINDOW = 64 * 1024 * 1024;
+
+    private final Path directory;
+
+    public SnapshotStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    /** What a snapshot covers; {@code cut} is where journal replay resumes. */
+    public record Summary(long cut, int accounts, long transactions, long bytes) {}
+
+    public Summary write(long cut, Iterable<Account> accounts, AccountLocks locks) throws IOException {
+        Path target = snapshotPath(cut);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        ByteBuffer scratch = ByteBuffer.allocate(64 * 1024);
+        CRC32C crc = new CRC32C();
+        int count = 0;
+        long transactions = 0;
+        long position = HEADER;
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_WRITE, position, WINDOW);
+            long windowStart = position;
+
+            for (Account account : accounts) {
+                // Only this account's stripe is held while it is copied
+                try (AccountLocks.Handle ignored = locks.lock(account.getAccountNumber())) {
+                    scratch = encodeEntry(account, scratch);
+                    transactions += account.getTransactions().size();
+                }
+                scratch.flip();
+                int length = scratch.remaining();
+                crc.reset();
+                crc.update(scratch.duplicate());
+
+                if (window.remaining() < ENTRY_HEADER + length) {
+                    window.force();
+                    windowStart = position;
+                    window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, Math.max(WINDOW, ENTRY_HEADER + length));
+                }
+                window.putInt(length);
+                window.putInt((int) crc.getValue());
+                window.put(scratch);
+                position += ENTRY_HEADER + length;
+                count++;
+            }
+            window.force();
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+            header.putInt(MAGIC).putInt(VERSION).putLong(cut).putInt(count);
+            header.force();
+            // Drop the unused tail of the last mapped window
+            channel.truncate(position);
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new Summary(cut, count, transactions, position);
+    }
+
+    private static ByteBuffer encodeEntry(Account account, ByteBuffer scratch) {
+        while (true) {
+            scratch.clear();
+            try {
+                scratch.putLong(account.getJournalSequence());
+                JournalCodec.writeAccount(account, scratch);
+                return scratch;
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+    }
+
+    /**
+     * Loads the newest snapshot, handing every account to the consumer.
+     * Returns null when there is no snapshot to load. An unreadable newest
+     * snapshot is an error rather than a reason to fall back: the journal
+     * segments and older snapshots it replaced are already gone, so anything
+     * older would silently lose part of the ledger.
+     */
+    public Summary loadLatest(Consumer<Account> consumer) throws IOException {
+        List<Path> snapshots = listSnapshots();
+        if (snapshots.isEmpty()) {
+            return null;
+        }
+        Path path = snapshots.get(snapshots.size() - 1);
+        try {
+            return load(path, consumer);
+        } catch (IOException | RuntimeException e) {
+            throw new IOException("Snapshot " + path + " is unreadable: " + e.getMessage(), e);
+        }
+    }
+
+    private Summary load(Path path, Consumer<Account> consumer) throws IOException {
+        // Decode into a staging list so a corrupt file never leaves half its accounts behind
+        List<Account> accounts = new ArrayList<>();
+        long transactions = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a snapshot file");
+            }
+            long cut = header.getLong();
+            int count = header.getInt();
+
+            CRC32C crc = new CRC32C();
+            long position = HEADER;
+            MappedByteBuffer window = null;
+            long windowStart = position;
+            for (int i = 0; i < count; i++) {
+                if (window == null || position + ENTRY_HEADER > windowStart + window.limit()) {
+                    windowStart = position;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(WINDOW, size - windowStart));
+                }
+                int offset = (int) (position - windowStart);
+                int length = window.getInt(offset);
+                int checksum = window.getInt(offset + 4);
+                if (offset + ENTRY_HEADER + length > window.limit()) {
+                    windowStart = position;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                        Math.min(Math.max(WINDOW, ENTRY_HEADER + length), size - windowStart));
+                    offset = 0;
+                }
+                ByteBuffer entry = window.slice(offset + ENTRY_HEADER, length);
+                crc.reset();
+                crc.update(entry.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    throw new IOException("Checksum mismatch in entry " + i);
+                }
+                long journalSequence = entry.getLong();
+                Account account = JournalCodec.readAccount(entry);
+                account.setJournalSequence(journalSequence);
+                transactions += account.getTransactions().size();
+                accounts.add(account);
+                position += ENTRY_HEADER + length;
+            }
+            accounts.forEach(consumer);
+            return new Summary(cut, count, transactions, size);
+        }
+    }
+
+    /** Removes every snapshot older than the one taken at {@code cut}. */
+    public void deleteOlderThan(long cut) throws IOException {
+        for (Path path : listSnapshots()) {
+            if (sequenceOf(path) < cut) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private Path snapshotPath(long cut) {
+        return directory.resolve(String.format("snapshot-%020d.snap", cut));
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> SNAPSHOT_NAME.matcher(file.getFileName().toString()).matches())
+                .forEach(snapshots::add);
+        }
+        snapshots.sort((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)));
+        return snapshots;
+    }
+
+    private static long sequenceOf(Path path) {
+        Matcher matcher = SNAPSHOT_NAME.matcher(path.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+}
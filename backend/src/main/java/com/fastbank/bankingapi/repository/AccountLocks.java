@@ -0,0 +1,175 @@
+package com.fastbank.bankingapi.repository;
+
+import com.fastbank.bankingapi.metrics.LatencyHistogram;
+import com.fastbank.bankingapi.metrics.MetricsSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped per-account locks. Every account number hashes onto one of a fixed
+ * number of stripes, so operations on unrelated accounts run in parallel while
+ * operations on the same account are serialized.
+ *
+ * With several repository shards, the stripes are split into one contiguous
+ * range per shard and an account only ever maps into its own shard's range,
+ * so shards are separate lock domains.
+ *
+ * Multi-account operations must go through {@link #lockBoth(String, String)}
+ * or {@link #lockAll(Collection)}, which always acquire stripes in ascending
+ * index order so that concurrent transfers in opposite directions cannot
+ * deadlock. Across shards that order is by shard first.
+ */
+@Component
+public class AccountLocks implements MetricsSource {
+
+    public static final int DEFAULT_STRIPES = 1024;
+
+    private final ReentrantLock[] stripes;
+    private final Handle[] releases;
+    private final int mask;
+    private final int shardCount;
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+
+    public AccountLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public AccountLocks(int stripeCount) {
+        this(stripeCount, AccountRepository.DEFAULT_SHARDS);
+    }
+
+    /** {@code stripeCount} is rounded up to a power of two per shard. */
+    @Autowired
+    public AccountLocks(@Value("${fastbank.locks.stripes:" + DEFAULT_STRIPES + "}") int stripeCount,
+                        @Value("${fastbank.repository.shards:" + AccountRepository.DEFAULT_SHARDS + "}") int shardCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        int perShard = Math.max(1, (stripeCount + shardCount - 1) / shardCount);
+        perShard = perShard == 1 ? 1 : Integer.highestOneBit(perShard - 1) << 1;
+        int size = perShard * shardCount;
+        this.shardCount = shardCount;
+        this.stripes = new ReentrantLock[size];
+        this.releases = new Handle[size];
+        for (int i = 0; i < size; i++) {
+            ReentrantLock lock = new ReentrantLock();
+            stripes[i] = lock;
+            releases[i] = lock::unlock;
+        }
+        this.mask = perShard - 1;
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    /** How long acquisitions that found their stripe held waited for it, in nanoseconds. */
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP fastbank_lock_wait_seconds Time spent waiting for a contended account lock stripe.\n");
+        out.append("# TYPE fastbank_lock_wait_seconds summary\n");
+        MetricsSource.writeSummary(out, "fastbank_lock_wait_seconds", null, waitTimes.snapshot());
+    }
+
+    public int stripeOf(String accountNumber) {
+        int h = accountNumber.hashCode();
+        // Spread the high bits so account numbers sharing a long prefix do not cluster
+        h ^= (h >>> 16);
+        int base = shardCount == 1 ? 0 : Shards.shardOf(accountNumber, shardCount) * (mask + 1);
+        return base + (h & mask);
+    }
+
+    public Handle lock(String accountNumber) {
+        int stripe = stripeOf(accountNumber);
+        acquire(stripes[stripe]);
+        return releases[stripe];
+    }
+
+    public Handle lockBoth(String first, String second) {
+        int a = stripeOf(first);
+        int b = stripeOf(second);
+        if (a == b) {
+            acquire(stripes[a]);
+            return releases[a];
+        }
+        ReentrantLock low = stripes[Math.min(a, b)];
+        ReentrantLock high = stripes[Math.max(a, b)];
+        acquire(low);
+        try {
+            acquire(high);
+        } catch (RuntimeException | Error e) {
+            low.unlock();
+            throw e;
+        }
+        return () -> {
+            high.unlock();
+            low.unlock();
+        };
+    }
+
+    /**
+     * Locks every stripe the given accounts map to, each once, in ascending
+     * order. Used for batches that must see several accounts at once.
+     */
+    public Handle lockAll(Collection<String> accountNumbers) {
+        int[] indexes = new int[accountNumbers.size()];
+        int n = 0;
+        for (String accountNumber : accountNumbers) {
+            indexes[n++] = stripeOf(accountNumber);
+        }
+        Arrays.sort(indexes);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || indexes[distinct - 1] != indexes[i]) {
+                indexes[distinct++] = indexes[i];
+            }
+        }
+        int[] held = Arrays.copyOf(indexes, distinct);
+        int locked = 0;
+        try {
+            for (; locked < held.length; locked++) {
+                acquire(stripes[held[locked]]);
+            }
+        } catch (RuntimeException | Error e) {
+            unlock(held, locked);
+            throw e;
+        }
+        return () -> unlock(held, held.length);
+    }
+
+    // Uncontended acquisitions skip the clock entirely; only real waits are timed
+    private void acquire(ReentrantLock lock) {
+        if (!lock.tryLock()) {
+            long start = System.nanoTime();
+            lock.lock();
+            waitTimes.record(System.nanoTime() - start);
+        }
+    }
+
+    private void unlock(int[] held, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[held[i]].unlock();
+        }
+    }
+
+    /**
+     * Releases the stripes acquired by {@link #lock}, {@link #lockBoth} or {@link #lockAll}.
+     * Intended for try-with-resources.
+     */
+    @FunctionalInterface
+    public interface Handle extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
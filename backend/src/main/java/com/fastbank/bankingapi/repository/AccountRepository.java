@@ -1,29 +1,311 @@
 package com.fastbank.bankingapi.repository;
 
 import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.persistence.Journal;
+import com.fastbank.bankingapi.persistence.JournalRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Accounts, partitioned into {@code fastbank.repository.shards} shards by a
+ * consistent hash of the account number (see {@link Shards}). Each
+ * {@link AccountShard} has its own storage, owner index, lock stripes and, in
+ * durable mode, journal, so shards only meet in operations that span them.
+ *
+ * A posting whose legs all live in one shard is a single journal record, as
+ * before. One that spans shards is committed in two phases: a PREPARE record
+ * with that shard's legs is appended to every shard involved, and only once
+ * all of them are durable is a COMMIT appended to each. Recovery replays a
+ * prepared leg only if some shard holds its COMMIT, so a crash in between
+ * can never apply half a transfer. Callers hold every involved account's lock
+ * throughout, including while the PREPAREs are made durable: until the
+ * COMMIT is appended no later record may follow them for those accounts. So
+ * every account on either stripe, in both shards, waits out a group-commit
+ * window plus an fsync behind a cross-shard posting.
+ */
 @Repository
 public class AccountRepository {
-    private final ConcurrentHashMap<String, Account> accounts = new ConcurrentHashMap<>();
 
+    public static final int DEFAULT_SHARDS = 1;
+
+    private final AccountShard[] shards;
+    private final long epoch = System.currentTimeMillis();
+
+    @Autowired
+    private AccountLocks accountLocks = new AccountLocks();
+
+    public AccountRepository() {
+        this(DEFAULT_SHARDS);
+    }
+
+    @Autowired
+    public AccountRepository(@Value("${fastbank.repository.shards:" + DEFAULT_SHARDS + "}") int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.shards = new AccountShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new AccountShard(i);
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    public AccountShard shard(int index) {
+        return shards[index];
+    }
+
+    public AccountShard shardOf(String accountNumber) {
+        return shards[Shards.shardOf(accountNumber, shards.length)];
+    }
+
+    /**
+     * Stores a new account, or re-indexes one already stored. A different
+     * account under an existing number is rejected, never overwritten.
+     *
+     * @throws IllegalStateException if the account number is already taken
+     */
     public Account save(Account account) {
-        accounts.put(account.getAccountNumber(), account);
+        AccountShard shard = shardOf(account.getAccountNumber());
+        Journal current = shard.journal();
+        if (current != null && shard.get(account.getAccountNumber()) != account) {
+            // A new account is journaled as a full image. Publishing and journaling
+            // under the account's lock keeps snapshots from missing it and postings from interleaving.
+            long sequence;
+            try (AccountLocks.Handle ignored = accountLocks.lock(account.getAccountNumber())) {
+                shard.insert(account);
+                sequence = current.append(JournalRecord.open(account));
+                account.setJournalSequence(sequence);
+                modified(shard, account);
+            }
+            current.awaitDurable(sequence);
+            return account;
+        }
+        shard.insert(account);
+        modified(shard, account);
         return account;
     }
 
+    // Services save an account after every change they apply to it, which is what makes this the place to count them
+    private static void modified(AccountShard shard, Account account) {
+        account.nextVersion();
+        shard.modified();
+    }
+
+    /**
+     * Number of changes saved to any account, for validating listings: it
+     * grows with every save or restore and is never reset while running.
+     */
+    public long version() {
+        long version = 0;
+        for (AccountShard shard : shards) {
+            version += shard.version();
+        }
+        return version;
+    }
+
+    /** Start time of this repository; versions count from zero again in a new one. */
+    public long epoch() {
+        return epoch;
+    }
+
     public Optional<Account> findByAccountNumber(String accountNumber) {
-        return Optional.ofNullable(accounts.get(accountNumber));
+        return Optional.ofNullable(shardOf(accountNumber).get(accountNumber));
     }
 
+    /** Every account, gathered from the shards in parallel. Prefer {@link #findPage} for listings. */
     public List<Account> findAll() {
-        return accounts.values().stream().toList();
+        if (shards.length == 1) {
+            return shards[0].accounts().stream().toList();
+        }
+        List<List<Account>> copies = Arrays.stream(shards).parallel()
+            .map(shard -> List.copyOf(shard.accounts()))
+            .toList();
+        List<Account> all = new ArrayList<>(copies.stream().mapToInt(List::size).sum());
+        copies.forEach(all::addAll);
+        return all;
+    }
+
+    public int count() {
+        int count = 0;
+        for (AccountShard shard : shards) {
+            count += shard.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns up to {@code limit} accounts in account-number order, starting
+     * after {@code after} (exclusive), or from the beginning when it is null.
+     * Merges the shards' sorted key sets, so a page costs O(limit log shards).
+     */
+    public List<Account> findPage(String after, int limit) {
+        List<Account> page = new ArrayList<>(Math.min(limit, 64));
+        if (shards.length == 1) {
+            for (Iterator<String> keys = shards[0].accountNumbersAfter(after); keys.hasNext() && page.size() < limit; ) {
+                addIfPresent(page, keys.next());
+            }
+            return page;
+        }
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(shards.length);
+        for (AccountShard shard : shards) {
+            Iterator<String> keys = shard.accountNumbersAfter(after);
+            if (keys.hasNext()) {
+                heads.add(new Cursor(keys.next(), keys, shard));
+            }
+        }
+        while (page.size() < limit && !heads.isEmpty()) {
+            Cursor head = heads.poll();
+            Account account = head.shard.get(head.current);
+            if (account != null) {
+                page.add(account);
+            }
+            if (head.rest.hasNext()) {
+                heads.add(new Cursor(head.rest.next(), head.rest, head.shard));
+            }
+        }
+        return page;
+    }
+
+    private record Cursor(String current, Iterator<String> rest, AccountShard shard) implements Comparable<Cursor> {
+        @Override
+        public int compareTo(Cursor other) {
+            return current.compareTo(other.current);
+        }
+    }
+
+    private void addIfPresent(List<Account> page, String accountNumber) {
+        Account account = shardOf(accountNumber).get(accountNumber);
+        if (account != null) {
+            page.add(account);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} accounts whose owner name starts with
+     * {@code prefix}, ignoring case, accents and extra whitespace, ordered by
+     * name and then account number.
+     */
+    public List<Account> searchByOwner(String prefix, int limit) {
+        List<String> keys = new ArrayList<>();
+        for (AccountShard shard : shards) {
+            keys.addAll(shard.ownerNames().search(prefix, limit));
+        }
+        if (shards.length > 1) {
+            keys.sort(null);
+        }
+        List<Account> found = new ArrayList<>(Math.min(limit, keys.size()));
+        for (String key : keys) {
+            if (found.size() == limit) {
+                break;
+            }
+            addIfPresent(found, OwnerNameIndex.accountNumberOf(key));
+        }
+        return found;
     }
 
     public boolean existsByAccountNumber(String accountNumber) {
-        return accounts.containsKey(accountNumber);
+        return shardOf(accountNumber).get(accountNumber) != null;
+    }
+
+    /**
+     * Journals a posting record and sets each involved account's journal
+     * sequence to the sequence of the record that covers it in its shard.
+     * Returns the sequence for the first posting's account, or 0 when
+     * persistence is disabled. Callers hold the locks of every account in the
+     * record, so records for one account reach its journal in apply order, and
+     * apply the postings only after this returns.
+     *
+     * @throws java.io.UncheckedIOException if a journal has failed; nothing
+     *         has been applied then, and an unfinished two-phase commit is
+     *         discarded on recovery
+     */
+    public long append(JournalRecord record) {
+        List<JournalRecord.Posting> postings = record.getPostings();
+        AccountShard first = shardOf(postings.get(0).accountNumber());
+        Map<AccountShard, List<JournalRecord.Posting>> legs = new LinkedHashMap<>();
+        for (JournalRecord.Posting posting : postings) {
+            legs.computeIfAbsent(shardOf(posting.accountNumber()), shard -> new ArrayList<>()).add(posting);
+        }
+        if (first.journal() == null) {
+            return 0;
+        }
+        if (legs.size() == 1) {
+            long sequence = first.journal().append(record);
+            setJournalSequence(first, postings, sequence);
+            return sequence;
+        }
+
+        long transactionId = ThreadLocalRandom.current().nextLong();
+        long[] prepared = new long[legs.size()];
+        int i = 0;
+        for (Map.Entry<AccountShard, List<JournalRecord.Posting>> entry : legs.entrySet()) {
+            prepared[i++] = entry.getKey().journal().append(JournalRecord.prepare(transactionId, entry.getValue()));
+        }
+        i = 0;
+        for (AccountShard shard : legs.keySet()) {
+            // The commit decision may only be logged once every participant can honour it; this
+            // waits for a group commit with the stripe locks still held
+            shard.journal().awaitDurable(prepared[i++]);
+        }
+        long sequence = 0;
+        for (Map.Entry<AccountShard, List<JournalRecord.Posting>> entry : legs.entrySet()) {
+            long committed = entry.getKey().journal().append(JournalRecord.commit(transactionId));
+            setJournalSequence(entry.getKey(), entry.getValue(), committed);
+            if (entry.getKey() == first) {
+                sequence = committed;
+            }
+        }
+        return sequence;
+    }
+
+    private static void setJournalSequence(AccountShard shard, List<JournalRecord.Posting> postings, long sequence) {
+        for (JournalRecord.Posting posting : postings) {
+            Account account = shard.get(posting.accountNumber());
+            if (account != null) {
+                account.setJournalSequence(sequence);
+            }
+        }
+    }
+
+    /**
+     * Waits for the group commit that covers the account's last journaled
+     * change. For a posting spanning shards, waiting on the first posting's
+     * account waits for the commit decision. Call this after releasing
+     * account locks so other writers can join the same fsync.
+     */
+    public void awaitDurable(Account account) {
+        Journal current = shardOf(account.getAccountNumber()).journal();
+        long sequence = account.getJournalSequence();
+        if (current != null && sequence > 0) {
+            current.awaitDurable(sequence);
+        }
+    }
+
+    /** Puts a recovered account back without journaling it again. */
+    public void restore(Account account) {
+        shardOf(account.getAccountNumber()).put(account);
+    }
+
+    /** Attaches one journal per shard, in shard order, or detaches them all with null. */
+    public void attachJournals(Journal[] journals) {
+        if (journals != null && journals.length != shards.length) {
+            throw new IllegalArgumentException("Expected " + shards.length + " journals, got " + journals.length);
+        }
+        for (int i = 0; i < shards.length; i++) {
+            shards[i].attachJournal(journals == null ? null : journals[i]);
+        }
     }
 }
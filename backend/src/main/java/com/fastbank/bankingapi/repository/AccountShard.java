@@ -0,0 +1,99 @@
+package com.fastbank.bankingapi.repository;
+
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.persistence.Journal;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One partition of {@link AccountRepository}: the accounts whose numbers hash
+ * to it, its own sorted key set and owner index, and, in durable mode, its
+ * own journal. Its accounts also lock through their own range of
+ * {@link AccountLocks} stripes, so shards never contend with each other.
+ */
+public final class AccountShard {
+
+    private final int index;
+    private final ConcurrentHashMap<String, Account> accounts = new ConcurrentHashMap<>();
+    // Sorted account numbers for keyset pagination; lookups stay on the hash map
+    private final ConcurrentSkipListSet<String> accountNumbers = new ConcurrentSkipListSet<>();
+    private final OwnerNameIndex ownerNames = new OwnerNameIndex();
+    // Changes saved to this shard's accounts; a counter per shard keeps writers on different shards apart
+    private final AtomicLong version = new AtomicLong();
+
+    // Null while running purely in memory; set once recovery has replayed the journal
+    private volatile Journal journal;
+
+    AccountShard(int index) {
+        this.index = index;
+    }
+
+    public int index() {
+        return index;
+    }
+
+    public Collection<Account> accounts() {
+        return accounts.values();
+    }
+
+    public int size() {
+        return accounts.size();
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    void modified() {
+        version.incrementAndGet();
+    }
+
+    public Journal journal() {
+        return journal;
+    }
+
+    void attachJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    Account get(String accountNumber) {
+        return accounts.get(accountNumber);
+    }
+
+    void put(Account account) {
+        if (accounts.put(account.getAccountNumber(), account) == null) {
+            accountNumbers.add(account.getAccountNumber());
+        }
+        ownerNames.put(account.getAccountNumber(), account.getOwnerName());
+        modified();
+    }
+
+    /**
+     * Adds a new account, or refreshes the owner index when this same account
+     * is already stored. Another account under the same number is rejected
+     * atomically instead of being overwritten.
+     */
+    void insert(Account account) {
+        Account existing = accounts.putIfAbsent(account.getAccountNumber(), account);
+        if (existing == null) {
+            accountNumbers.add(account.getAccountNumber());
+        } else if (existing != account) {
+            throw new IllegalStateException("Account number already exists: " + account.getAccountNumber());
+        }
+        ownerNames.put(account.getAccountNumber(), account.getOwnerName());
+    }
+
+    /** Account numbers after {@code after} (exclusive), or all of them when it is null, in order. */
+    Iterator<String> accountNumbersAfter(String after) {
+        NavigableSet<String> keys = after == null ? accountNumbers : accountNumbers.tailSet(after, false);
+        return keys.iterator();
+    }
+
+    OwnerNameIndex ownerNames() {
+        return ownerNames;
+    }
+}
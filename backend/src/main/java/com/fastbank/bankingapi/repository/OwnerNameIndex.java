@@ -0,0 +1,81 @@
+package com.fastbank.bankingapi.repository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+
+/**
+ * Sorted index of accounts by normalized owner name, for prefix search.
+ *
+ * Each account is one key in a {@link ConcurrentSkipListSet}: the normalized
+ * name, a NUL separator and the account number, so owners sharing a name stay
+ * distinct and come back in account-number order. A prefix query is one
+ * {@code subSet} seek plus a walk over the matches, O(log n + limit),
+ * without locking out writers.
+ *
+ * Normalization folds case and accents and collapses whitespace, so
+ * "  José  Smith" is found by "jose s".
+ */
+final class OwnerNameIndex {
+
+    private static final char SEPARATOR = '\u0000';
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("[\\s\\p{Cc}]+");
+
+    private final ConcurrentSkipListSet<String> keys = new ConcurrentSkipListSet<>();
+    // Key each account is indexed under, so a renamed account's old key can be removed
+    private final ConcurrentHashMap<String, String> indexed = new ConcurrentHashMap<>();
+
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFKD)).replaceAll("");
+        return SPACES.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+
+    void put(String accountNumber, String ownerName) {
+        String key = normalize(ownerName) + SEPARATOR + accountNumber;
+        // Atomic per account, so concurrent saves of one account never leave two keys behind
+        indexed.compute(accountNumber, (number, previous) -> {
+            if (previous != null && !previous.equals(key)) {
+                keys.remove(previous);
+            }
+            keys.add(key);
+            return key;
+        });
+    }
+
+    /**
+     * Index keys of up to {@code limit} owners whose normalized name starts
+     * with the normalized prefix, in order. Keys of several indexes merge by
+     * plain string order.
+     *
+     * @throws IllegalArgumentException if nothing is left of the prefix once
+     *         normalized, which would otherwise match every owner
+     */
+    List<String> search(String prefix, int limit) {
+        String from = normalize(prefix);
+        if (from.isEmpty()) {
+            throw new IllegalArgumentException("owner must not be blank");
+        }
+        NavigableSet<String> matches = keys.subSet(from, true, from + Character.MAX_VALUE, false);
+        List<String> found = new ArrayList<>(Math.min(limit, 64));
+        for (String key : matches) {
+            found.add(key);
+            if (found.size() == limit) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    static String accountNumberOf(String key) {
+        return key.substring(key.lastIndexOf(SEPARATOR) + 1);
+    }
+}
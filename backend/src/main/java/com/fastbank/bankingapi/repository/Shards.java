@@ -0,0 +1,41 @@
+package com.fastbank.bankingapi.repository;
+
+/**
+ * Maps account numbers onto shards with jump consistent hashing (Lamping and
+ * Veach): no lookup table, and going from N to N+1 shards moves only about
+ * 1/(N+1) of the accounts, which is what a later split across nodes needs.
+ */
+public final class Shards {
+
+    private Shards() {}
+
+    public static int shardOf(String accountNumber, int shardCount) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        long key = hash(accountNumber);
+        long bucket = -1;
+        long next = 0;
+        while (next < shardCount) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    // 64-bit FNV-1a over the characters, finished with the MurmurHash3 mixer so similar numbers spread out
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,183 @@
+package com.fastbank.bankingapi.schedule;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timer wheel: {@value #LEVELS} levels of {@value #SLOTS}
+ * slots, each slot of a level spanning one full turn of the level below.
+ * Ticks are absolute numbers picked by the caller, such as epoch seconds.
+ *
+ * A timer is filed in the lowest level whose current turn contains its
+ * deadline. When the wheel reaches a slot of a higher level, the timers in
+ * it cascade down, so a timer moves at most {@code LEVELS - 1} times before
+ * it fires. Scheduling and cancelling are O(1), and advancing one tick
+ * touches one slot per level plus whatever fires or cascades, however many
+ * timers are pending.
+ *
+ * With one-second ticks the levels reach about 194 days ahead. Timers
+ * further out are parked in the top level's first slot and filed again
+ * when its next turn begins.
+ *
+ * Not thread-safe: callers hold their own lock.
+ */
+public class TimerWheel<T> {
+
+    public static final int SLOTS = 64;
+    public static final int LEVELS = 4;
+
+    private static final int BITS = 6;
+    private static final int MASK = SLOTS - 1;
+
+    /** A pending item, kept by the caller to {@link #cancel} it. */
+    public static final class Timer<T> {
+        private final T item;
+        private final long deadline;
+        // Both null once the timer has fired or been cancelled
+        private Timer<T> previous;
+        private Timer<T> next;
+
+        private Timer(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+
+        public T item() {
+            return item;
+        }
+
+        public long deadline() {
+            return deadline;
+        }
+
+        public boolean isPending() {
+            return next != null;
+        }
+    }
+
+    // Sentinels of circular lists, one per slot
+    private final Timer<T>[][] slots;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long startTick) {
+        this.currentTick = startTick;
+        this.slots = new Timer[LEVELS][SLOTS];
+        for (Timer<T>[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                Timer<T> sentinel = new Timer<>(null, 0);
+                sentinel.previous = sentinel;
+                sentinel.next = sentinel;
+                level[i] = sentinel;
+            }
+        }
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    /** Timers scheduled and not yet fired or cancelled. */
+    public int size() {
+        return size;
+    }
+
+    /** Schedules {@code item} for {@code deadline}; a deadline already reached fires on the next tick. */
+    public Timer<T> schedule(T item, long deadline) {
+        Timer<T> timer = new Timer<>(item, deadline);
+        file(timer);
+        size++;
+        return timer;
+    }
+
+    /** Returns whether the timer was still pending. */
+    public boolean cancel(Timer<T> timer) {
+        if (!timer.isPending()) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to {@code tick}, handing every item whose
+     * deadline has been reached to {@code action}, tick by tick. The action
+     * may schedule new timers.
+     *
+     * @return the number of items fired
+     */
+    public int advance(long tick, Consumer<? super T> action) {
+        int fired = 0;
+        while (currentTick < tick) {
+            if (size == 0) {
+                // Nothing to cascade or fire on the way
+                currentTick = tick;
+                break;
+            }
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                int shift = BITS * level;
+                if ((currentTick & ((1L << shift) - 1)) == 0) {
+                    fired += cascade(slots[level][(int) (currentTick >>> shift) & MASK], action);
+                }
+            }
+            fired += cascade(slots[0][(int) currentTick & MASK], action);
+        }
+        return fired;
+    }
+
+    // Empties the slot, firing what is due and filing the rest lower down
+    private int cascade(Timer<T> sentinel, Consumer<? super T> action) {
+        if (sentinel.next == sentinel) {
+            return 0;
+        }
+        Timer<T> timer = sentinel.next;
+        sentinel.previous.next = null;
+        sentinel.previous = sentinel;
+        sentinel.next = sentinel;
+        int fired = 0;
+        while (timer != null) {
+            Timer<T> following = timer.next;
+            timer.previous = null;
+            timer.next = null;
+            if (timer.deadline <= currentTick) {
+                size--;
+                fired++;
+                action.accept(timer.item);
+            } else {
+                file(timer);
+            }
+            timer = following;
+        }
+        return fired;
+    }
+
+    private void file(Timer<T> timer) {
+        long deadline = Math.max(timer.deadline, currentTick + 1);
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * (level + 1);
+            // The slot's turn is the current one, so the wheel reaches it before wrapping around
+            if (deadline >>> shift == currentTick >>> shift) {
+                link(slots[level][(int) (deadline >>> (BITS * level)) & MASK], timer);
+                return;
+            }
+        }
+        // Filing in the current turn only uses top-level slots past the current one, so slot 0 is free until the next turn begins
+        link(slots[LEVELS - 1][0], timer);
+    }
+
+    private static <T> void link(Timer<T> sentinel, Timer<T> timer) {
+        timer.previous = sentinel.previous;
+        timer.next = sentinel;
+        sentinel.previous.next = timer;
+        sentinel.previous = timer;
+    }
+
+    private static <T> void unlink(Timer<T> timer) {
+        timer.previous.next = timer.next;
+        timer.next.previous = timer.previous;
+        timer.previous = null;
+        timer.next = null;
+    }
+}
@@ -1,15 +1,34 @@
 package com.fastbank.bankingapi.service;
 
+import com.fastbank.bankingapi.audit.AuditLog;
+import com.fastbank.bankingapi.dto.AccountInsights;
+import com.fastbank.bankingapi.events.AccountEvents;
+import com.fastbank.bankingapi.metrics.LedgerMetrics;
 import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.AccountNotFoundException;
+import com.fastbank.bankingapi.model.AccountNumbers;
+import com.fastbank.bankingapi.model.InsufficientFundsException;
+import com.fastbank.bankingapi.model.Money;
 import com.fastbank.bankingapi.model.Transaction;
+import com.fastbank.bankingapi.model.TransactionHistory;
+import com.fastbank.bankingapi.persistence.JournalRecord;
+import com.fastbank.bankingapi.repository.AccountLocks;
 import com.fastbank.bankingapi.repository.AccountRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Service
 public class AccountService {
@@ -19,13 +38,48 @@ public class AccountService {
     @Autowired
     private AccountRepository accountRepository;
 
+    // Per-account striped locks; money movements on unrelated accounts run in parallel
+    @Autowired
+    private AccountLocks accountLocks = new AccountLocks();
+
+    @Autowired
+    private LedgerMetrics ledgerMetrics = new LedgerMetrics();
+
+    @Autowired
+    private AuditLog auditLog = new AuditLog();
+
+    @Autowired
+    private AccountEvents accountEvents = new AccountEvents();
+
+    @Autowired
+    private SummaryCache summaryCache = new SummaryCache();
+
+    // "locking" applies money movements on the request thread; "sequenced" hands them to a single writer
+    @Value("${fastbank.engine.mode:locking}")
+    private String engineMode = "locking";
+
+    @Value("${fastbank.engine.ring-size:8192}")
+    private int ringSize = 8192;
+
+    // Distinguishes account numbers allocated by separate instances
+    @Value("${fastbank.accounts.node-id:0}")
+    private int nodeId;
+
+    private volatile SequencedLedger sequencedLedger;
+
     public Account createAccount(String ownerName) {
+        long start = System.nanoTime();
         Account account = new Account(ownerName);
-        Account savedAccount = accountRepository.save(account);
+        Account savedAccount;
+        try {
+            savedAccount = accountRepository.save(account);
+        } catch (RuntimeException e) {
+            ledgerMetrics.failure(LedgerMetrics.Operation.CREATE, e, start);
+            throw e;
+        }
+        ledgerMetrics.success(LedgerMetrics.Operation.CREATE, start);
 
-        // Log the new account creation
         logger.info("New account created: {} for owner: {}", savedAccount.getAccountNumber(), ownerName);
-        System.out.println("New account created: " + savedAccount.getAccountNumber() + " for owner: " + ownerName);
 
         return savedAccount;
     }
@@ -34,44 +88,281 @@ public class AccountService {
         return accountRepository.findAll();
     }
 
+    public List<Account> getAccountPage(String after, int limit) {
+        return accountRepository.findPage(after, limit);
+    }
+
+    public List<Account> searchByOwner(String prefix, int limit) {
+        return accountRepository.searchByOwner(prefix, limit);
+    }
+
     public Optional<Account> findByAccountNumber(String accountNumber) {
-        return accountRepository.findByAccountNumber(accountNumber);
+        long start = System.nanoTime();
+        Optional<Account> account = accountRepository.findByAccountNumber(accountNumber);
+        if (account.isPresent()) {
+            ledgerMetrics.success(LedgerMetrics.Operation.LOOKUP, start);
+        } else {
+            ledgerMetrics.failure(LedgerMetrics.Operation.LOOKUP, LedgerMetrics.Failure.NOT_FOUND, start);
+        }
+        return account;
+    }
+
+    /** The account's summary as JSON, serialized again only after it changed; see {@link SummaryCache}. */
+    public byte[] getSummaryJson(Account account) {
+        return summaryCache.get(account);
+    }
+
+    /**
+     * Strong ETag for what is read from the account. Read it before the
+     * account itself, so the tag is never newer than the data it labels.
+     */
+    public String getETag(Account account) {
+        return eTag(account.getVersion());
+    }
+
+    /** Strong ETag for listings; it changes whenever any account does. */
+    public String getCollectionETag() {
+        return eTag(accountRepository.version());
+    }
+
+    // The repository's start time keeps tags from an earlier run, whose versions also counted from zero, from matching
+    private String eTag(long version) {
+        return "\"" + Long.toString(accountRepository.epoch(), 36) + "-" + version + "\"";
+    }
+
+    public Optional<TransactionHistory.Page> getTransactionHistory(String accountNumber, LocalDateTime from, LocalDateTime to,
+                                                                   Integer cursor, int limit) {
+        return accountRepository.findByAccountNumber(accountNumber)
+            .map(account -> account.getTransactionHistory().page(from, to, cursor, limit));
+    }
+
+    /** Per-category and per-month totals, read from the running counters under the account's lock. */
+    public Optional<AccountInsights> getInsights(String accountNumber) {
+        try (AccountLocks.Handle ignored = accountLocks.lock(accountNumber)) {
+            return accountRepository.findByAccountNumber(accountNumber)
+                .map(account -> AccountInsights.from(accountNumber, account.getTransactionHistory().insights()));
+        }
+    }
+
+    /** Live stream of the account's balance changes and new transactions, see {@link AccountEvents}. */
+    public Optional<SseEmitter> subscribe(String accountNumber) {
+        // Under the lock, so the opening balance is exactly the one the first event follows
+        try (AccountLocks.Handle ignored = accountLocks.lock(accountNumber)) {
+            return accountRepository.findByAccountNumber(accountNumber)
+                .map(account -> accountEvents.subscribe(accountNumber, account.getBalanceMinorUnits()));
+        }
+    }
+
+    public Account deposit(String accountNumber, BigDecimal amount, String description) {
+        return move(LedgerMetrics.Operation.DEPOSIT, SequencedLedger.Kind.DEPOSIT, accountNumber, null, amount, description);
     }
 
-    public synchronized Account deposit(String accountNumber, BigDecimal amount, String description) {
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-            .orElseThrow(() -> new RuntimeException("Account not found"));
+    public Account withdraw(String accountNumber, BigDecimal amount, String description) {
+        return move(LedgerMetrics.Operation.WITHDRAW, SequencedLedger.Kind.WITHDRAW, accountNumber, null, amount, description);
+    }
 
-        account.setBalance(account.getBalance().add(amount));
-        Transaction transaction = new Transaction(accountNumber, "DEPOSIT", amount, description);
-        account.getTransactions().add(transaction);
+    public void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount, String description) {
+        move(LedgerMetrics.Operation.TRANSFER, SequencedLedger.Kind.TRANSFER, fromAccountNumber, toAccountNumber, amount, description);
+    }
 
-        return accountRepository.save(account);
+    /**
+     * Posts one entry that the caller builds from the account as it stands
+     * under the account's lock, such as interest on the current balance, or
+     * nothing if {@code posting} returns null. It is ordered, checked and
+     * counted like a deposit or withdrawal, and returns the account, or null
+     * when nothing was posted. Unlike those it does not wait for the journal:
+     * callers posting to many accounts wait once per shard with
+     * {@link AccountRepository#awaitDurable} when they are done.
+     */
+    public Account postEntry(LedgerMetrics.Operation operation, String accountNumber,
+                             Function<Account, JournalRecord.Posting> posting) {
+        long start = System.nanoTime();
+        try {
+            SequencedLedger ledger = sequencedLedger;
+            Account account = ledger != null
+                ? ledger.submit(SequencedLedger.Kind.POSTING, accountNumber, null, null, null, posting)
+                : applyPosting(accountNumber, posting);
+            if (account != null) {
+                ledgerMetrics.success(operation, start);
+            }
+            return account;
+        } catch (RuntimeException e) {
+            ledgerMetrics.failure(operation, e, start);
+            throw e;
+        }
     }
 
-    public synchronized Account withdraw(String accountNumber, BigDecimal amount, String description) {
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-            .orElseThrow(() -> new RuntimeException("Account not found"));
+    // Timed end to end, including any wait for the writer thread and for the journal fsync
+    private Account move(LedgerMetrics.Operation operation, SequencedLedger.Kind kind, String accountNumber,
+                         String toAccountNumber, BigDecimal amount, String description) {
+        long start = System.nanoTime();
+        try {
+            Money.toMinorUnits(amount); // Rejects amounts with sub-cent precision before anything is journaled
+            Account account = execute(kind, accountNumber, toAccountNumber, amount, description);
+            accountRepository.awaitDurable(account);
+            ledgerMetrics.success(operation, start);
+            return account;
+        } catch (RuntimeException e) {
+            ledgerMetrics.failure(operation, e, start);
+            throw e;
+        }
+    }
 
-        if (account.getBalance().compareTo(amount) < 0) {
-            throw new RuntimeException("Insufficient funds");
+    @PostConstruct
+    void startEngine() {
+        AccountNumbers.setNode(nodeId);
+        if ("sequenced".equalsIgnoreCase(engineMode)) {
+            sequencedLedger = new SequencedLedger(ringSize, this::apply);
+            sequencedLedger.start();
+            logger.info("Sequenced ledger engine started with a ring of {} slots", ringSize);
+        } else if (!"locking".equalsIgnoreCase(engineMode)) {
+            throw new IllegalArgumentException("Unknown fastbank.engine.mode: " + engineMode);
         }
+    }
 
-        account.setBalance(account.getBalance().subtract(amount));
-        Transaction transaction = new Transaction(accountNumber, "WITHDRAW", amount, description);
-        account.getTransactions().add(transaction);
+    @PreDestroy
+    void stopEngine() throws InterruptedException {
+        if (sequencedLedger != null) {
+            sequencedLedger.close();
+        }
+    }
 
-        return accountRepository.save(account);
+    private Account execute(SequencedLedger.Kind kind, String accountNumber, String toAccountNumber,
+                            BigDecimal amount, String description) {
+        SequencedLedger ledger = sequencedLedger;
+        if (ledger != null) {
+            return ledger.submit(kind, accountNumber, toAccountNumber, amount, description);
+        }
+        return apply(kind, accountNumber, toAccountNumber, amount, description, null);
     }
 
-    public synchronized void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount, String description) {
-        // Verify both accounts exist first
-        accountRepository.findByAccountNumber(fromAccountNumber)
-            .orElseThrow(() -> new RuntimeException("Source account not found"));
-        accountRepository.findByAccountNumber(toAccountNumber)
-            .orElseThrow(() -> new RuntimeException("Destination account not found"));
+    /**
+     * Applies one money movement. Runs on the calling thread in locking mode
+     * and on the writer thread in sequenced mode; in both the stripe locks are
+     * taken, which costs the single writer nothing but keeps batches and
+     * snapshots that lock accounts directly consistent with it.
+     */
+    private Account apply(SequencedLedger.Kind kind, String accountNumber, String toAccountNumber,
+                          BigDecimal amount, String description, Function<Account, JournalRecord.Posting> posting) {
+        return switch (kind) {
+            case DEPOSIT -> applyDeposit(accountNumber, amount, description);
+            case WITHDRAW -> applyWithdraw(accountNumber, amount, description);
+            case TRANSFER -> applyTransfer(accountNumber, toAccountNumber, amount, description);
+            case POSTING -> applyPosting(accountNumber, posting);
+        };
+    }
+
+    private Account applyDeposit(String accountNumber, BigDecimal amount, String description) {
+        try (AccountLocks.Handle ignored = accountLocks.lock(accountNumber)) {
+            Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+
+            post(new Account[] {account},
+                new JournalRecord.Posting(accountNumber, true, new Transaction(accountNumber, "DEPOSIT", amount, description)));
+            return account;
+        }
+    }
+
+    private Account applyWithdraw(String accountNumber, BigDecimal amount, String description) {
+        long amountMinorUnits = Money.toMinorUnits(amount);
+        try (AccountLocks.Handle ignored = accountLocks.lock(accountNumber)) {
+            Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+
+            if (account.getBalanceMinorUnits() < amountMinorUnits) {
+                throw new InsufficientFundsException();
+            }
+
+            post(new Account[] {account},
+                new JournalRecord.Posting(accountNumber, false, new Transaction(accountNumber, "WITHDRAW", amount, description)));
+            return account;
+        }
+    }
+
+    private Account applyTransfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount, String description) {
+        long amountMinorUnits = Money.toMinorUnits(amount);
+        // Both stripes are taken in a fixed order, so opposite transfers cannot deadlock
+        try (AccountLocks.Handle ignored = accountLocks.lockBoth(fromAccountNumber, toAccountNumber)) {
+            Account from = accountRepository.findByAccountNumber(fromAccountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Source account not found"));
+            Account to = accountRepository.findByAccountNumber(toAccountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Destination account not found"));
+
+            if (from.getBalanceMinorUnits() < amountMinorUnits) {
+                throw new InsufficientFundsException();
+            }
+
+            // Both legs are journaled together (two-phase across shards) so replay can never apply half a transfer
+            post(new Account[] {from, to},
+                new JournalRecord.Posting(fromAccountNumber, false, transferOut(fromAccountNumber, toAccountNumber, amount, description)),
+                new JournalRecord.Posting(toAccountNumber, true, transferIn(fromAccountNumber, toAccountNumber, amount, description)));
+            return from;
+        }
+    }
+
+    private Account applyPosting(String accountNumber, Function<Account, JournalRecord.Posting> posting) {
+        try (AccountLocks.Handle ignored = accountLocks.lock(accountNumber)) {
+            Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+
+            JournalRecord.Posting entry = posting.apply(account);
+            if (entry == null) {
+                return null;
+            }
+            long amountMinorUnits = Money.toMinorUnits(entry.transaction().getAmount());
+            if (!entry.credit() && account.getBalanceMinorUnits() < amountMinorUnits) {
+                throw new InsufficientFundsException();
+            }
+
+            post(new Account[] {account}, entry);
+            return account;
+        }
+    }
+
+    /**
+     * The ledger's one write path: journals {@code postings} as a single
+     * record, applies them in order, writes the audit line and live event for
+     * each, and saves every account touched. {@code accounts[i]} is the
+     * account of {@code postings[i]}; the caller holds all their locks and
+     * has already checked that no balance goes negative. Write-ahead: the
+     * record is buffered before any balance changes, so if the journal has
+     * failed nothing is applied. Waiting for durability is left to the
+     * caller, after it has released the locks.
+     */
+    void post(Account[] accounts, JournalRecord.Posting... postings) {
+        accountRepository.append(JournalRecord.posting(postings));
+        for (int i = 0; i < postings.length; i++) {
+            Account account = accounts[i];
+            JournalRecord.Posting posting = postings[i];
+            if (posting.credit()) {
+                account.credit(posting.transaction());
+            } else {
+                account.debit(posting.transaction());
+            }
+            auditLog.record(posting.accountNumber(), posting.transaction(), account.getBalanceMinorUnits(),
+                account.getJournalSequence());
+            accountEvents.publish(posting.accountNumber(), posting.transaction(), account.getBalanceMinorUnits());
+        }
+        if (accounts.length <= 2) {
+            accountRepository.save(accounts[0]);
+            if (accounts.length == 2 && accounts[1] != accounts[0]) {
+                accountRepository.save(accounts[1]);
+            }
+            return;
+        }
+        Map<Account, Boolean> touched = new IdentityHashMap<>();
+        for (Account account : accounts) {
+            if (touched.put(account, Boolean.TRUE) == null) {
+                accountRepository.save(account);
+            }
+        }
+    }
+
+    static Transaction transferOut(String fromAccountNumber, String toAccountNumber, BigDecimal amount, String description) {
+        return new Transaction(fromAccountNumber, "WITHDRAW", amount, "Transfer to " + toAccountNumber + ": " + description);
+    }
 
-        withdraw(fromAccountNumber, amount, "Transfer to " + toAccountNumber + ": " + description);
-        deposit(toAccountNumber, amount, "Transfer from " + fromAccountNumber + ": " + description);
+    static Transaction transferIn(String fromAccountNumber, String toAccountNumber, BigDecimal amount, String description) {
+        return new Transaction(toAccountNumber, "DEPOSIT", amount, "Transfer from " + fromAccountNumber + ": " + description);
     }
 }
@@ -0,0 +1,577 @@
+package com.fastbank.bankingapi.service;
+
+import com.fastbank.bankingapi.dto.AccrualRequest;
+import com.fastbank.bankingapi.dto.AccrualStatus;
+import com.fastbank.bankingapi.metrics.LedgerMetrics;
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.Categorizer;
+import com.fastbank.bankingapi.model.Money;
+import com.fastbank.bankingapi.model.Transaction;
+import com.fastbank.bankingapi.model.TransactionHistory;
+import com.fastbank.bankingapi.persistence.JournalRecord;
+import com.fastbank.bankingapi.repository.AccountRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * End-of-day interest and fee postings over every account.
+ *
+ * A run lists the accounts once and deals them into {@link #BUCKETS} buckets
+ * by a hash of the account number. A fork-join pool of
+ * {@code fastbank.accruals.parallelism} workers then splits the bucket range
+ * and works through it. Each account gets one transaction of type
+ * {@code INTEREST} or {@code FEE} through {@link AccountService#postEntry}, the
+ * same path and metrics as a deposit or withdrawal, in the same order as
+ * every other command in sequenced mode. Live traffic on an account waits for
+ * at most that one posting, never for the run.
+ *
+ * A bucket counts as done once its postings are durable. Posting ids are
+ * derived from the run id and account number, so a resumed run checks the
+ * accounts of unfinished buckets for their posting among the entries made
+ * since the run first started, and never posts twice. In durable mode the
+ * finished buckets are checkpointed under {@code fastbank.persistence.dir/accruals},
+ * so a run cut short by a restart picks up where it stopped. Postings that
+ * fail are counted and logged, not retried.
+ */
+@Service
+public class AccrualService {
+
+    /** Fixed, so checkpointed bucket numbers stay valid across restarts. */
+    public static final int BUCKETS = 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(AccrualService.class);
+
+    private static final Pattern RUN_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    private static final long CHECKPOINT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int DEDUPE_PAGE = 64;
+
+    private static final class Run {
+        final AccrualRequest request;
+        final LocalDateTime startedAt;
+        final long feeMinorUnits;
+        final String description;
+        final String category;
+        final ReentrantLock lock = new ReentrantLock();
+        final BitSet done;  // Guarded by lock
+        final LongAdder processed = new LongAdder();
+        final LongAdder posted = new LongAdder();
+        final LongAdder skipped = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        volatile AccrualStatus.State state = AccrualStatus.State.QUEUED;
+        // Set when the run continues an earlier attempt, whose postings then have to be looked for
+        volatile boolean resumed;
+        volatile AccrualStatus.State stopAs;
+        volatile long total = -1;
+        volatile long attemptBase;
+        volatile long attemptStartNanos;
+        volatile long attemptEndNanos;
+        volatile LocalDateTime finishedAt;
+        volatile String error;
+        long lastCheckpointNanos;  // Guarded by lock
+
+        Run(AccrualRequest request, LocalDateTime startedAt, BitSet done, boolean resumed) {
+            this.request = request;
+            this.startedAt = startedAt;
+            this.done = done;
+            this.resumed = resumed;
+            this.feeMinorUnits = request.type() == AccrualRequest.Type.FEE ? Money.toMinorUnits(request.amount()) : 0;
+            this.description = (request.type() == AccrualRequest.Type.INTEREST
+                ? "Interest at " + request.rate().stripTrailingZeros().toPlainString() : "Account fee") + " (" + request.runId() + ")";
+            this.category = Categorizer.current().categorize(description);
+        }
+
+        boolean stopping() {
+            return stopAs != null;
+        }
+
+        boolean isDone(int bucket) {
+            lock.lock();
+            try {
+                return done.get(bucket);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int markDone(int bucket) {
+            lock.lock();
+            try {
+                done.set(bucket);
+                return done.cardinality();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        AccrualStatus status() {
+            long processedNow = processed.sum();
+            long end = attemptEndNanos != 0 ? attemptEndNanos : System.nanoTime();
+            double seconds = attemptStartNanos == 0 ? 0 : (end - attemptStartNanos) / 1e9;
+            double rate = seconds > 0 ? (processedNow - attemptBase) / seconds : 0;
+            return new AccrualStatus(request.runId(), request.type(), state, total, processedNow, posted.sum(),
+                skipped.sum(), failed.sum(), startedAt, finishedAt, rate, error);
+        }
+    }
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountService accountService;
+
+    // Workers for the postings; 0 means one per core
+    @Value("${fastbank.accruals.parallelism:0}")
+    private int parallelism;
+
+    @Value("${fastbank.persistence.enabled:false}")
+    private boolean durable;
+
+    @Value("${fastbank.persistence.dir:data}")
+    private Path dataDir = Path.of("data");
+
+    private final Map<String, Run> runs = new ConcurrentHashMap<>();
+    private final ReentrantLock startLock = new ReentrantLock();
+    private ExecutorService coordinator;
+    private ForkJoinPool workers;
+
+    public AccrualService() {
+    }
+
+    /** Wires the service by hand; a null {@code dataDir} keeps runs in memory only. */
+    AccrualService(AccountRepository accountRepository, AccountService accountService, int parallelism, Path dataDir) {
+        this.accountRepository = accountRepository;
+        this.accountService = accountService;
+        this.parallelism = parallelism;
+        this.durable = dataDir != null;
+        if (dataDir != null) {
+            this.dataDir = dataDir;
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        workers = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        // Runs go one at a time; each one already uses every worker
+        coordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "accrual-runs");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (durable) {
+            loadCheckpoints();
+        }
+    }
+
+    /**
+     * Queues a run, or resumes one that was cancelled, interrupted or failed.
+     * A run that is queued, running or completed is left alone and its status
+     * returned.
+     *
+     * @throws IllegalArgumentException if the request is invalid
+     * @throws IllegalStateException if the run id was used with other parameters
+     */
+    public AccrualStatus start(AccrualRequest request) {
+        validate(request);
+        startLock.lock();
+        try {
+            Run run = runs.get(request.runId());
+            if (run == null) {
+                run = new Run(request, LocalDateTime.now(), new BitSet(BUCKETS), false);
+                runs.put(request.runId(), run);
+            } else {
+                if (!sameParameters(run.request, request)) {
+                    throw new IllegalStateException("Accrual run " + request.runId() + " was started with different parameters");
+                }
+                switch (run.state) {
+                    case QUEUED, RUNNING, COMPLETED -> {
+                        return run.status();
+                    }
+                    default -> {
+                        run.resumed = true;
+                        run.stopAs = null;
+                        run.error = null;
+                        run.finishedAt = null;
+                        run.state = AccrualStatus.State.QUEUED;
+                    }
+                }
+            }
+            Run queued = run;
+            coordinator.execute(() -> execute(queued));
+            return run.status();
+        } finally {
+            startLock.unlock();
+        }
+    }
+
+    /** Stops a queued or running run after the postings in flight; it can be resumed later. */
+    public Optional<AccrualStatus> cancel(String runId) {
+        Run run = runs.get(runId);
+        if (run == null) {
+            return Optional.empty();
+        }
+        if (run.state == AccrualStatus.State.QUEUED || run.state == AccrualStatus.State.RUNNING) {
+            run.stopAs = AccrualStatus.State.CANCELLED;
+        }
+        return Optional.of(run.status());
+    }
+
+    public Optional<AccrualStatus> getStatus(String runId) {
+        return Optional.ofNullable(runs.get(runId)).map(Run::status);
+    }
+
+    /** Every known run, most recently started first. */
+    public List<AccrualStatus> getRuns() {
+        return runs.values().stream()
+            .sorted(Comparator.comparing((Run run) -> run.startedAt).reversed())
+            .map(Run::status)
+            .toList();
+    }
+
+    private static void validate(AccrualRequest request) {
+        if (request == null || request.runId() == null || !RUN_ID.matcher(request.runId()).matches()) {
+            throw new IllegalArgumentException("runId must be 1 to 64 letters, digits, '.', '_' or '-'");
+        }
+        if (request.type() == null) {
+            throw new IllegalArgumentException("type must be INTEREST or FEE");
+        }
+        if (request.type() == AccrualRequest.Type.INTEREST) {
+            if (request.rate() == null || request.rate().signum() <= 0 || request.rate().compareTo(BigDecimal.ONE) >= 0) {
+                throw new IllegalArgumentException("rate must be between 0 and 1, exclusive");
+            }
+        } else if (request.amount() == null || request.amount().signum() <= 0) {
+            throw new IllegalArgumentException("amount must be positive");
+        } else {
+            Money.toMinorUnits(request.amount());
+        }
+    }
+
+    private static boolean sameParameters(AccrualRequest a, AccrualRequest b) {
+        return a.type() == b.type() && sameAmount(a.rate(), b.rate()) && sameAmount(a.amount(), b.amount());
+    }
+
+    // Only the parameter of the run's type is set, and 0.10 and 0.1 are the same rate
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null || b == null || a.compareTo(b) == 0;
+    }
+
+    private void execute(Run run) {
+        if (run.stopping()) {
+            finish(run, run.stopAs, null);
+            return;
+        }
+        run.state = AccrualStatus.State.RUNNING;
+        run.attemptEndNanos = 0;
+        run.attemptStartNanos = System.nanoTime();
+        try {
+            List<List<Account>> buckets = deal(run);
+            logger.info("Accrual run {} ({}) {} over {} accounts with {} workers", run.request.runId(), run.request.type(),
+                run.resumed ? "resuming" : "starting", run.total, workers.getParallelism());
+            workers.invoke(new Chunk(run, buckets, 0, BUCKETS));
+            finish(run, run.stopping() ? run.stopAs : AccrualStatus.State.COMPLETED, null);
+        } catch (RuntimeException e) {
+            logger.error("Accrual run {} failed", run.request.runId(), e);
+            finish(run, AccrualStatus.State.FAILED, e.toString());
+        }
+    }
+
+    private void finish(Run run, AccrualStatus.State state, String error) {
+        run.attemptEndNanos = System.nanoTime();
+        run.error = error;
+        run.finishedAt = LocalDateTime.now();
+        run.state = state;
+        checkpoint(run, true);
+        AccrualStatus status = run.status();
+        logger.info("Accrual run {} {}: {} of {} accounts, {} posted, {} skipped, {} failed, {} accounts/s",
+            run.request.runId(), state, status.processedAccounts(), status.totalAccounts(), status.posted(),
+            status.skipped(), status.failed(), Math.round(status.accountsPerSecond()));
+    }
+
+    private List<List<Account>> deal(Run run) {
+        List<Account> accounts = accountRepository.findAll();
+        List<List<Account>> buckets = new ArrayList<>(BUCKETS);
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.add(new ArrayList<>(accounts.size() / BUCKETS + 1));
+        }
+        for (Account account : accounts) {
+            buckets.get(bucketOf(account.getAccountNumber())).add(account);
+        }
+        long alreadyDone = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (run.isDone(i)) {
+                alreadyDone += buckets.get(i).size();
+            }
+        }
+        run.total = accounts.size();
+        run.processed.reset();
+        run.processed.add(alreadyDone);
+        run.attemptBase = alreadyDone;
+        return buckets;
+    }
+
+    // String.hashCode is specified, so a bucket holds the same accounts in every process
+    static int bucketOf(String accountNumber) {
+        return Math.floorMod(accountNumber.hashCode() * 0x9E3779B9, BUCKETS);
+    }
+
+    private final class Chunk extends RecursiveAction {
+        private final Run run;
+        private final List<List<Account>> buckets;
+        private final int from;
+        private final int to;
+
+        Chunk(Run run, List<List<Account>> buckets, int from, int to) {
+            this.run = run;
+            this.buckets = buckets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                processBucket(run, from, buckets.get(from));
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Chunk(run, buckets, from, middle), new Chunk(run, buckets, middle, to));
+        }
+    }
+
+    private void processBucket(Run run, int bucket, List<Account> accounts) {
+        if (run.stopping() || run.isDone(bucket)) {
+            return;
+        }
+        // Journal sequences only grow within a shard, so its last posting covers all the others
+        Map<Integer, Account> lastPosted = new HashMap<>();
+        for (Account account : accounts) {
+            if (run.stopping()) {
+                return;
+            }
+            try {
+                if (post(run, account)) {
+                    run.posted.increment();
+                    lastPosted.put(accountRepository.shardOf(account.getAccountNumber()).index(), account);
+                } else {
+                    run.skipped.increment();
+                }
+            } catch (RuntimeException e) {
+                run.failed.increment();
+                logger.warn("Accrual run {} could not post to {}", run.request.runId(), account.getAccountNumber(), e);
+            }
+            run.processed.increment();
+        }
+        for (Account account : lastPosted.values()) {
+            accountRepository.awaitDurable(account);
+        }
+        int finished = run.markDone(bucket);
+        // Once per tenth of the buckets
+        if (finished * 10 / BUCKETS != (finished - 1) * 10 / BUCKETS) {
+            logger.info("Accrual run {}: {}0% done, {} accounts/s", run.request.runId(), finished * 10 / BUCKETS,
+                Math.round(run.status().accountsPerSecond()));
+        }
+        checkpoint(run, false);
+    }
+
+    // Returns whether anything was posted
+    private boolean post(Run run, Account account) {
+        boolean credit = run.request.type() == AccrualRequest.Type.INTEREST;
+        String accountNumber = account.getAccountNumber();
+        String id = transactionId(run.request.runId(), accountNumber);
+        // Runs under the account's lock, so the dedupe check and the balance are those the posting applies to
+        Account posted = accountService.postEntry(credit ? LedgerMetrics.Operation.INTEREST : LedgerMetrics.Operation.FEE,
+            accountNumber, locked -> {
+                if (run.resumed && alreadyPosted(locked.getTransactionHistory(), id, run.startedAt)) {
+                    return null;
+                }
+                long amount = amountOf(run, locked.getBalanceMinorUnits());
+                if (amount <= 0) {
+                    return null;
+                }
+                // Built field by field: the id is fixed and the description, and so the category, is the same for every account
+                Transaction transaction = new Transaction();
+                transaction.setId(id);
+                transaction.setAccountId(accountNumber);
+                transaction.setType(credit ? "INTEREST" : "FEE");
+                transaction.setAmount(Money.fromMinorUnits(amount));
+                transaction.setDescription(run.description);
+                transaction.setTimestamp(LocalDateTime.now());
+                transaction.setCategory(run.category);
+                return new JournalRecord.Posting(accountNumber, credit, transaction);
+            });
+        return posted != null;
+    }
+
+    private static long amountOf(Run run, long balance) {
+        if (run.request.type() == AccrualRequest.Type.FEE) {
+            // No overdrafts: an account that cannot cover the fee is skipped
+            return balance >= run.feeMinorUnits ? run.feeMinorUnits : 0;
+        }
+        if (balance <= 0) {
+            return 0;
+        }
+        return BigDecimal.valueOf(balance).multiply(run.request.rate()).setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+
+    static String transactionId(String runId, String accountNumber) {
+        return UUID.nameUUIDFromBytes((runId + '/' + accountNumber).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    // History is in time order, so the run's posting can only be among the entries since it first started
+    private static boolean alreadyPosted(TransactionHistory history, String id, LocalDateTime since) {
+        Integer cursor = null;
+        do {
+            TransactionHistory.Page page = history.page(since, null, cursor, DEDUPE_PAGE);
+            for (Transaction transaction : page.items()) {
+                if (id.equals(transaction.getId())) {
+                    return true;
+                }
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return false;
+    }
+
+    private Path checkpointDir() {
+        return dataDir.resolve("accruals");
+    }
+
+    // Losing a checkpoint only costs time: a resumed run finds the postings it already made
+    private void checkpoint(Run run, boolean force) {
+        if (!durable) {
+            return;
+        }
+        run.lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (!force && now - run.lastCheckpointNanos < CHECKPOINT_INTERVAL_NANOS) {
+                return;
+            }
+            run.lastCheckpointNanos = now;
+            AccrualRequest request = run.request;
+            Properties properties = new Properties();
+            properties.setProperty("runId", request.runId());
+            properties.setProperty("type", request.type().name());
+            if (request.rate() != null) {
+                properties.setProperty("rate", request.rate().toPlainString());
+            }
+            if (request.amount() != null) {
+                properties.setProperty("amount", request.amount().toPlainString());
+            }
+            properties.setProperty("startedAt", run.startedAt.toString());
+            properties.setProperty("state", run.state.name());
+            properties.setProperty("done", Base64.getEncoder().encodeToString(run.done.toByteArray()));
+            properties.setProperty("posted", Long.toString(run.posted.sum()));
+            properties.setProperty("skipped", Long.toString(run.skipped.sum()));
+            properties.setProperty("failed", Long.toString(run.failed.sum()));
+
+            Path dir = checkpointDir();
+            Files.createDirectories(dir);
+            Path temporary = dir.resolve(request.runId() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                properties.store(writer, "Accrual run checkpoint");
+            }
+            Files.move(temporary, dir.resolve(request.runId() + ".properties"),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not checkpoint accrual run {}", run.request.runId(), e);
+        } finally {
+            run.lock.unlock();
+        }
+    }
+
+    private void loadCheckpoints() throws IOException {
+        Path dir = checkpointDir();
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.properties")) {
+            for (Path file : files) {
+                try {
+                    Run run = restore(file);
+                    runs.put(run.request.runId(), run);
+                    if (run.state == AccrualStatus.State.INTERRUPTED) {
+                        logger.info("Accrual run {} was interrupted; post it again to resume", run.request.runId());
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Ignoring unreadable accrual checkpoint {}", file, e);
+                }
+            }
+        }
+    }
+
+    private static Run restore(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        AccrualRequest request = new AccrualRequest(properties.getProperty("runId"),
+            AccrualRequest.Type.valueOf(properties.getProperty("type")),
+            decimal(properties.getProperty("rate")), decimal(properties.getProperty("amount")));
+        validate(request);
+        Run run = new Run(request, LocalDateTime.parse(properties.getProperty("startedAt")),
+            BitSet.valueOf(Base64.getDecoder().decode(properties.getProperty("done"))), true);
+        run.posted.add(Long.parseLong(properties.getProperty("posted", "0")));
+        run.skipped.add(Long.parseLong(properties.getProperty("skipped", "0")));
+        run.failed.add(Long.parseLong(properties.getProperty("failed", "0")));
+        AccrualStatus.State saved = AccrualStatus.State.valueOf(properties.getProperty("state"));
+        run.state = switch (saved) {
+            case COMPLETED, CANCELLED, FAILED -> saved;
+            default -> AccrualStatus.State.INTERRUPTED;
+        };
+        return run;
+    }
+
+    private static BigDecimal decimal(String value) {
+        return value == null ? null : new BigDecimal(value);
+    }
+
+    /** Stops running runs as interrupted, so they can be resumed after the restart. */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (Run run : runs.values()) {
+            if (run.state == AccrualStatus.State.QUEUED || run.state == AccrualStatus.State.RUNNING) {
+                run.stopAs = AccrualStatus.State.INTERRUPTED;
+            }
+        }
+        if (coordinator != null) {
+            coordinator.shutdown();
+            coordinator.awaitTermination(10, TimeUnit.SECONDS);
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.fastbank.bankingapi.service;
+
+import com.fastbank.bankingapi.dto.BatchRequest;
+import com.fastbank.bankingapi.dto.BatchResult;
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.AccountNotFoundException;
+import com.fastbank.bankingapi.model.InsufficientFundsException;
+import com.fastbank.bankingapi.model.Money;
+import com.fastbank.bankingapi.model.Transaction;
+import com.fastbank.bankingapi.persistence.JournalRecord;
+import com.fastbank.bankingapi.repository.AccountLocks;
+import com.fastbank.bankingapi.repository.AccountRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies many deposits, withdrawals and transfers in one call.
+ *
+ * Operations are split into groups of accounts connected by transfers (for a
+ * payroll of deposits every account is its own group). Each group is applied
+ * in request order under one acquisition of its accounts' locks, so groups on
+ * unrelated accounts do not wait for each other and the result is the same as
+ * applying the operations one by one. All journal records share one group
+ * commit at the end.
+ *
+ * In atomic mode every account of the batch is locked at once, the whole
+ * batch is checked against running balances first, and it is then applied as
+ * a single journal record, so a restart can never replay half of it.
+ */
+@Service
+public class BatchService {
+
+    public static final int MAX_OPERATIONS = 10_000;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountLocks accountLocks = new AccountLocks();
+
+    // Every leg is written through AccountService's posting path
+    @Autowired
+    private AccountService accountService;
+
+    public BatchResult apply(BatchRequest request) {
+        List<BatchRequest.Operation> operations = request.operations();
+        if (operations == null || operations.isEmpty() || operations.size() > MAX_OPERATIONS) {
+            throw new IllegalArgumentException("A batch must contain 1 to " + MAX_OPERATIONS + " operations");
+        }
+        int n = operations.size();
+        long[] amounts = new long[n];
+        String[] errors = new String[n];
+        for (int i = 0; i < n; i++) {
+            try {
+                amounts[i] = validate(operations.get(i));
+            } catch (IllegalArgumentException e) {
+                errors[i] = e.getMessage();
+            }
+        }
+        return request.atomic() ? applyAtomically(operations, amounts, errors) : applyGrouped(operations, amounts, errors);
+    }
+
+    private static long validate(BatchRequest.Operation operation) {
+        if (operation == null || operation.type() == null) {
+            throw new IllegalArgumentException("Operation type is required");
+        }
+        if (operation.accountNumber() == null) {
+            throw new IllegalArgumentException("Account number is required");
+        }
+        if (operation.type() == BatchRequest.Type.TRANSFER && operation.toAccountNumber() == null) {
+            throw new IllegalArgumentException("Destination account number is required");
+        }
+        if (operation.amount() == null || operation.amount().signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        return Money.toMinorUnits(operation.amount());
+    }
+
+    private BatchResult applyGrouped(List<BatchRequest.Operation> operations, long[] amounts, String[] errors) {
+        Map<Account, Boolean> journaled = new IdentityHashMap<>();
+        for (Group group : groups(operations, errors)) {
+            try (AccountLocks.Handle ignored = accountLocks.lockAll(group.accountNumbers)) {
+                for (int i : group.operations) {
+                    try {
+                        journaled.put(applyOne(operations.get(i), amounts[i]), Boolean.TRUE);
+                    } catch (RuntimeException e) {
+                        errors[i] = e.getMessage();
+                    }
+                }
+            }
+        }
+        // Accounts may sit in different shards, each with its own journal
+        for (Account account : journaled.keySet()) {
+            accountRepository.awaitDurable(account);
+        }
+        return result(errors, null);
+    }
+
+    // Caller holds the locks of every account the operation touches; returns the account to await durability on
+    private Account applyOne(BatchRequest.Operation operation, long amount) {
+        String description = descriptionOf(operation);
+        switch (operation.type()) {
+            case DEPOSIT -> {
+                Account account = find(operation.accountNumber(), "Account not found");
+                accountService.post(new Account[] {account}, new JournalRecord.Posting(account.getAccountNumber(), true,
+                    new Transaction(account.getAccountNumber(), "DEPOSIT", operation.amount(), description)));
+                return account;
+            }
+            case WITHDRAW -> {
+                Account account = find(operation.accountNumber(), "Account not found");
+                if (account.getBalanceMinorUnits() < amount) {
+                    throw new InsufficientFundsException();
+                }
+                accountService.post(new Account[] {account}, new JournalRecord.Posting(account.getAccountNumber(), false,
+                    new Transaction(account.getAccountNumber(), "WITHDRAW", operation.amount(), description)));
+                return account;
+            }
+            default -> {
+                Account from = find(operation.accountNumber(), "Source account not found");
+                Account to = find(operation.toAccountNumber(), "Destination account not found");
+                if (from.getBalanceMinorUnits() < amount) {
+                    throw new InsufficientFundsException();
+                }
+                accountService.post(new Account[] {from, to},
+                    new JournalRecord.Posting(from.getAccountNumber(), false, AccountService.transferOut(
+                        from.getAccountNumber(), to.getAccountNumber(), operation.amount(), description)),
+                    new JournalRecord.Posting(to.getAccountNumber(), true, AccountService.transferIn(
+                        from.getAccountNumber(), to.getAccountNumber(), operation.amount(), description)));
+                return from;
+            }
+        }
+    }
+
+    private BatchResult applyAtomically(List<BatchRequest.Operation> operations, long[] amounts, String[] errors) {
+        for (String error : errors) {
+            if (error != null) {
+                return result(errors, BatchResult.Status.NOT_APPLIED);
+            }
+        }
+        Set<String> accountNumbers = new LinkedHashSet<>();
+        for (BatchRequest.Operation operation : operations) {
+            accountNumbers.add(operation.accountNumber());
+            if (operation.type() == BatchRequest.Type.TRANSFER) {
+                accountNumbers.add(operation.toAccountNumber());
+            }
+        }
+
+        Account coordinator;
+        try (AccountLocks.Handle ignored = accountLocks.lockAll(accountNumbers)) {
+            // Dry run against running balances; nothing is touched until the whole batch fits
+            Map<String, Account> accounts = new HashMap<>();
+            Map<String, Long> balances = new HashMap<>();
+            for (int i = 0; i < operations.size(); i++) {
+                try {
+                    simulate(operations.get(i), amounts[i], accounts, balances);
+                } catch (RuntimeException e) {
+                    errors[i] = e.getMessage();
+                    return result(errors, BatchResult.Status.NOT_APPLIED);
+                }
+            }
+
+            List<JournalRecord.Posting> postings = new ArrayList<>(operations.size() * 2);
+            for (BatchRequest.Operation operation : operations) {
+                String description = descriptionOf(operation);
+                switch (operation.type()) {
+                    case DEPOSIT -> postings.add(new JournalRecord.Posting(operation.accountNumber(), true,
+                        new Transaction(operation.accountNumber(), "DEPOSIT", operation.amount(), description)));
+                    case WITHDRAW -> postings.add(new JournalRecord.Posting(operation.accountNumber(), false,
+                        new Transaction(operation.accountNumber(), "WITHDRAW", operation.amount(), description)));
+                    case TRANSFER -> {
+                        postings.add(new JournalRecord.Posting(operation.accountNumber(), false, AccountService.transferOut(
+                            operation.accountNumber(), operation.toAccountNumber(), operation.amount(), description)));
+                        postings.add(new JournalRecord.Posting(operation.toAccountNumber(), true, AccountService.transferIn(
+                            operation.accountNumber(), operation.toAccountNumber(), operation.amount(), description)));
+                    }
+                }
+            }
+            Account[] legAccounts = new Account[postings.size()];
+            for (int i = 0; i < legAccounts.length; i++) {
+                legAccounts[i] = accounts.get(postings.get(i).accountNumber());
+            }
+            accountService.post(legAccounts, postings.toArray(new JournalRecord.Posting[0]));
+            coordinator = legAccounts[0];
+        }
+        // Waiting on the first posting's account covers the commit decision of a multi-shard batch
+        accountRepository.awaitDurable(coordinator);
+        return result(errors, null);
+    }
+
+    private void simulate(BatchRequest.Operation operation, long amount, Map<String, Account> accounts, Map<String, Long> balances) {
+        switch (operation.type()) {
+            case DEPOSIT -> adjust(operation.accountNumber(), "Account not found", amount, accounts, balances);
+            case WITHDRAW -> adjust(operation.accountNumber(), "Account not found", -amount, accounts, balances);
+            case TRANSFER -> {
+                resolve(operation.accountNumber(), "Source account not found", accounts, balances);
+                resolve(operation.toAccountNumber(), "Destination account not found", accounts, balances);
+                adjust(operation.accountNumber(), "Source account not found", -amount, accounts, balances);
+                adjust(operation.toAccountNumber(), "Destination account not found", amount, accounts, balances);
+            }
+        }
+    }
+
+    private void adjust(String accountNumber, String notFound, long delta, Map<String, Account> accounts, Map<String, Long> balances) {
+        resolve(accountNumber, notFound, accounts, balances);
+        long balance = Math.addExact(balances.get(accountNumber), delta);
+        if (balance < 0) {
+            throw new InsufficientFundsException();
+        }
+        balances.put(accountNumber, balance);
+    }
+
+    private void resolve(String accountNumber, String notFound, Map<String, Account> accounts, Map<String, Long> balances) {
+        if (!accounts.containsKey(accountNumber)) {
+            Account account = find(accountNumber, notFound);
+            accounts.put(accountNumber, account);
+            balances.put(accountNumber, account.getBalanceMinorUnits());
+        }
+    }
+
+    private Account find(String accountNumber, String notFound) {
+        return accountRepository.findByAccountNumber(accountNumber)
+            .orElseThrow(() -> new AccountNotFoundException(notFound));
+    }
+
+    private static String descriptionOf(BatchRequest.Operation operation) {
+        return operation.description() == null ? "" : operation.description();
+    }
+
+    /** Accounts linked by transfers, with the indexes of their operations in request order. */
+    private static final class Group {
+        final Set<String> accountNumbers = new LinkedHashSet<>();
+        final List<Integer> operations = new ArrayList<>();
+    }
+
+    // Union-find over account numbers; operations that already failed validation join no group
+    private static List<Group> groups(List<BatchRequest.Operation> operations, String[] errors) {
+        Map<String, Integer> ids = new HashMap<>();
+        int[] parent = new int[operations.size() * 2];
+        for (int i = 0; i < operations.size(); i++) {
+            if (errors[i] != null) {
+                continue;
+            }
+            BatchRequest.Operation operation = operations.get(i);
+            int a = idOf(operation.accountNumber(), ids, parent);
+            if (operation.type() == BatchRequest.Type.TRANSFER) {
+                int b = idOf(operation.toAccountNumber(), ids, parent);
+                parent[find(parent, a)] = find(parent, b);
+            }
+        }
+        Map<Integer, Group> groups = new LinkedHashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            if (errors[i] != null) {
+                continue;
+            }
+            BatchRequest.Operation operation = operations.get(i);
+            Group group = groups.computeIfAbsent(find(parent, ids.get(operation.accountNumber())), root -> new Group());
+            group.operations.add(i);
+            group.accountNumbers.add(operation.accountNumber());
+            if (operation.type() == BatchRequest.Type.TRANSFER) {
+                group.accountNumbers.add(operation.toAccountNumber());
+            }
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private static int idOf(String accountNumber, Map<String, Integer> ids, int[] parent) {
+        return ids.computeIfAbsent(accountNumber, key -> {
+            int id = ids.size();
+            parent[id] = id;
+            return id;
+        });
+    }
+
+    private static int find(int[] parent, int id) {
+        while (parent[id] != id) {
+            parent[id] = parent[parent[id]];
+            id = parent[id];
+        }
+        return id;
+    }
+
+    // Operations without an error are APPLIED, or {@code otherwise} when the batch was abandoned
+    private static BatchResult result(String[] errors, BatchResult.Status otherwise) {
+        List<BatchResult.Item> items = new ArrayList<>(errors.length);
+        int applied = 0;
+        int failed = 0;
+        for (int i = 0; i < errors.length; i++) {
+            if (errors[i] != null) {
+                failed++;
+                items.add(new BatchResult.Item(i, BatchResult.Status.FAILED, errors[i]));
+            } else if (otherwise != null) {
+                items.add(new BatchResult.Item(i, otherwise, null));
+            } else {
+                applied++;
+                items.add(new BatchResult.Item(i, BatchResult.Status.APPLIED, null));
+            }
+        }
+        return new BatchResult(applied, failed, items);
+    }
+}
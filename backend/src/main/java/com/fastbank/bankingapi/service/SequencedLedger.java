@@ -0,0 +1,190 @@
+package com.fastbank.bankingapi.service;
+
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.persistence.JournalRecord;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Single-writer command engine in the style of the LMAX disruptor.
+ *
+ * Request threads claim a sequence number, fill the preallocated slot it maps
+ * to in a power-of-two ring, and publish it. One writer thread applies the
+ * commands strictly in sequence order and completes a future per command, so
+ * request threads never contend with each other for account locks and every
+ * ledger entry gets a global sequence number.
+ *
+ * A slot is published by writing its sequence into the slot's volatile
+ * {@code published} field after the command fields; the writer reads it before
+ * the fields. Producers that get more than a ring ahead of the writer wait for
+ * it to free their slot.
+ */
+final class SequencedLedger implements AutoCloseable {
+
+    // POSTING carries no amount: the entry is built from the account once the writer has it
+    enum Kind { DEPOSIT, WITHDRAW, TRANSFER, POSTING }
+
+    /** Applies one command on the writer thread; returns the (source) account. */
+    @FunctionalInterface
+    interface Handler {
+        Account apply(Kind kind, String accountNumber, String toAccountNumber, BigDecimal amount, String description,
+                      Function<Account, JournalRecord.Posting> posting);
+    }
+
+    private static final class Slot {
+        volatile long published = -1;
+        Kind kind;
+        String accountNumber;
+        String toAccountNumber;
+        BigDecimal amount;
+        String description;
+        Function<Account, JournalRecord.Posting> posting;
+        CompletableFuture<Account> result;
+    }
+
+    private static final int SPINS_BEFORE_PARK = 100;
+    // Set in the claim counter on close, so no sequence can be claimed after the writer's last one
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private final Slot[] ring;
+    private final int mask;
+    private final Handler handler;
+    private final AtomicLong claimed = new AtomicLong();
+    private final Thread writer;
+    // Sequence of the next command to apply; everything below it is done and its slot reusable
+    private volatile long applied;
+    private volatile boolean writerParked;
+
+    SequencedLedger(int capacity, Handler handler) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two: " + capacity);
+        }
+        this.ring = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+        this.handler = handler;
+        this.writer = new Thread(this::runWriter, "ledger-writer");
+        this.writer.setDaemon(true);
+    }
+
+    void start() {
+        writer.start();
+    }
+
+    /**
+     * Publishes a command and waits until the writer has applied it. Business
+     * errors raised by the handler are rethrown here unchanged.
+     */
+    Account submit(Kind kind, String accountNumber, String toAccountNumber, BigDecimal amount, String description) {
+        return submit(kind, accountNumber, toAccountNumber, amount, description, null);
+    }
+
+    Account submit(Kind kind, String accountNumber, String toAccountNumber, BigDecimal amount, String description,
+                   Function<Account, JournalRecord.Posting> posting) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if ((sequence & CLOSED) != 0) {
+                throw new IllegalStateException("Ledger engine is stopped");
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        while (sequence - applied >= ring.length) {
+            // Ring full: the writer is a whole lap behind
+            Thread.onSpinWait();
+            LockSupport.parkNanos(1_000);
+        }
+        Slot slot = ring[(int) sequence & mask];
+        CompletableFuture<Account> result = new CompletableFuture<>();
+        slot.kind = kind;
+        slot.accountNumber = accountNumber;
+        slot.toAccountNumber = toAccountNumber;
+        slot.amount = amount;
+        slot.description = description;
+        slot.posting = posting;
+        slot.result = result;
+        slot.published = sequence;
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            // The command stays queued and will still be applied
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the ledger", e);
+        }
+    }
+
+    /** Number of commands applied so far; also the sequence of the next one. */
+    long getAppliedSequence() {
+        return applied;
+    }
+
+    private void runWriter() {
+        long next = applied;
+        int idle = 0;
+        while (true) {
+            Slot slot = ring[(int) next & mask];
+            if (slot.published != next) {
+                long claims = claimed.get();
+                if ((claims & CLOSED) != 0 && next == (claims & ~CLOSED)) {
+                    break;
+                }
+                if (++idle < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                writerParked = true;
+                // Re-check after announcing, so a publish racing with the flag is never missed
+                if (slot.published != next && (claimed.get() & CLOSED) == 0) {
+                    LockSupport.park(this);
+                }
+                writerParked = false;
+                continue;
+            }
+            idle = 0;
+            CompletableFuture<Account> result = slot.result;
+            Account account = null;
+            Throwable failure = null;
+            try {
+                account = handler.apply(slot.kind, slot.accountNumber, slot.toAccountNumber, slot.amount, slot.description,
+                    slot.posting);
+            } catch (RuntimeException | Error e) {
+                // The writer must outlive any one command, or every later request would hang
+                failure = e;
+            }
+            slot.accountNumber = null;
+            slot.toAccountNumber = null;
+            slot.amount = null;
+            slot.description = null;
+            slot.posting = null;
+            slot.result = null;
+            // Free the slot before waking the submitter, so it observes its own command as applied
+            applied = ++next;
+            if (failure == null) {
+                result.complete(account);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /** Rejects new commands and stops the writer once every claimed one has been applied. */
+    @Override
+    public void close() throws InterruptedException {
+        claimed.getAndUpdate(claims -> claims | CLOSED);
+        LockSupport.unpark(writer);
+        writer.join();
+    }
+}
@@ -0,0 +1,795 @@
+package com.fastbank.bankingapi.service;
+
+import com.fastbank.bankingapi.dto.StandingOrder;
+import com.fastbank.bankingapi.dto.StandingOrderExecution;
+import com.fastbank.bankingapi.dto.StandingOrderRequest;
+import com.fastbank.bankingapi.metrics.MetricsSource;
+import com.fastbank.bankingapi.model.InsufficientFundsException;
+import com.fastbank.bankingapi.model.Money;
+import com.fastbank.bankingapi.schedule.TimerWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Standing orders: transfers repeated daily, weekly or monthly through
+ * {@link AccountService#transfer}.
+ *
+ * Every pending run is one node in a {@link TimerWheel} ticking every
+ * {@code fastbank.standing-orders.tick-ms}, rather than a scheduled task of
+ * its own. Orders are spread over {@link #WHEEL_SHARDS} wheels by id, each
+ * behind its own lock, and every order has a lock of its own for its terms
+ * and schedule, so creating, reading and running unrelated orders never
+ * wait for each other. A single ticker thread advances the wheels and hands
+ * the due orders in batches of {@code batch-size} to a fixed pool of
+ * {@code workers} threads. When the pool's queue is full the ticker runs the
+ * batch itself, which delays the next tick instead of queueing without bound.
+ *
+ * A transfer refused for insufficient funds is retried every
+ * {@code retry-delay-minutes}, up to {@code max-retries} times and never past
+ * the next run. Runs that were missed while the scheduler fell behind are
+ * skipped, not caught up. An order updated after its run fell due but before
+ * it executed starts over on the new terms instead of paying the old run with
+ * them. Each order keeps its last {@code history-size} executions in memory.
+ *
+ * With {@code fastbank.persistence.enabled} the orders and their schedules
+ * are written to {@code fastbank.persistence.dir/standing-orders}: a snapshot
+ * plus a log with one line per change, compacted into a new snapshot once the
+ * log outgrows twice the number of orders. An order is marked in flight in
+ * the log before its transfer is made, and a restart moves such an order on
+ * to its next run rather than risk paying the same run twice. A run whose
+ * marker cannot be written is not paid but tried again after
+ * {@code retry-delay-minutes}; a log that failed is reopened on the next
+ * write by compacting every order's latest state into a fresh snapshot.
+ */
+@Service
+public class StandingOrderService implements MetricsSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(StandingOrderService.class);
+
+    /** Wheels the orders are spread over, each advanced under its own lock. */
+    static final int WHEEL_SHARDS = 16;
+
+    private static final String DEFAULT_DESCRIPTION = "Standing order";
+    private static final String SNAPSHOT_FILE = "orders.snapshot";
+    private static final String LOG_FILE = "orders.log";
+    private static final int MIN_COMPACTION_ENTRIES = 1024;
+
+    // Guarded by the order's own lock, except the timer, which its wheel shard's lock guards
+    private static final class Order {
+        final String id;
+        final LocalDateTime createdAt;
+        final ReentrantLock lock = new ReentrantLock();
+        StandingOrderRequest terms;
+        LocalDateTime firstRunAt;
+        long run;         // Index of the run due next, counted from firstRunAt
+        int retries;      // Retries made for that run
+        LocalDateTime nextRunAt;
+        long generation;  // Bumped by every update, so a run that fell due under older terms is not paid with newer ones
+        boolean inFlight; // A transfer for the current run may have been made
+        boolean deleted;
+        final ArrayDeque<StandingOrderExecution> history = new ArrayDeque<>();
+        TimerWheel.Timer<Firing> timer;
+        volatile String persisted; // Last log line written for the order, rewritten into snapshots
+
+        Order(String id, LocalDateTime createdAt) {
+            this.id = id;
+            this.createdAt = createdAt;
+        }
+    }
+
+    // What a wheel holds: the order and the version of its terms the run was scheduled under
+    private record Firing(Order order, long generation) {}
+
+    private static final class WheelShard {
+        final ReentrantLock lock = new ReentrantLock();
+        final TimerWheel<Firing> wheel;
+
+        WheelShard(long startTick) {
+            this.wheel = new TimerWheel<>(startTick);
+        }
+    }
+
+    @Autowired
+    private AccountService accountService;
+
+    @Value("${fastbank.standing-orders.tick-ms:1000}")
+    private long tickMillis = 1000;
+
+    @Value("${fastbank.standing-orders.workers:4}")
+    private int workerCount = 4;
+
+    @Value("${fastbank.standing-orders.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${fastbank.standing-orders.max-retries:3}")
+    private int maxRetries = 3;
+
+    @Value("${fastbank.standing-orders.retry-delay-minutes:60}")
+    private long retryDelayMinutes = 60;
+
+    @Value("${fastbank.standing-orders.history-size:20}")
+    private int historySize = 20;
+
+    @Value("${fastbank.persistence.enabled:false}")
+    private boolean durable;
+
+    @Value("${fastbank.persistence.dir:data}")
+    private Path dataDir = Path.of("data");
+
+    // Volatile so that a clock moved by a test is seen by the worker threads
+    private volatile Clock clock = Clock.systemDefaultZone();
+
+    private final Map<String, Order> orders = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> ordersByAccount = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final ReentrantLock logLock = new ReentrantLock();
+    private Writer log;
+    private boolean logFailed; // The log was closed by a write or compaction error, not by stop()
+    private long logEntries;
+    private WheelShard[] shards;
+    private ThreadPoolExecutor workers;
+    private ScheduledExecutorService ticker;
+
+    public StandingOrderService() {
+    }
+
+    /** Wires the service by hand; a null {@code dataDir} keeps orders in memory only. */
+    StandingOrderService(AccountService accountService, int workerCount, int batchSize, Path dataDir, Clock clock) {
+        this.accountService = accountService;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.durable = dataDir != null;
+        if (dataDir != null) {
+            this.dataDir = dataDir;
+        }
+        this.clock = clock;
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        long tick = clock.millis() / tickMillis;
+        shards = new WheelShard[WHEEL_SHARDS];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new WheelShard(tick);
+        }
+        if (durable) {
+            recover();
+        }
+        AtomicInteger threads = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(workerCount * 4), runnable -> {
+                Thread thread = new Thread(runnable, "standing-orders-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "standing-orders-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (ticker != null) {
+            ticker.shutdown();
+            ticker.awaitTermination(10, TimeUnit.SECONDS);
+            workers.shutdown();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        logLock.lock();
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+        } catch (IOException e) {
+            logger.warn("Could not close the standing order log", e);
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the request is invalid or an account does not exist
+     */
+    public StandingOrder create(StandingOrderRequest request) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime firstRunAt = validate(request, now);
+        Order order = new Order(UUID.randomUUID().toString(), now);
+        order.lock.lock();
+        try {
+            order.terms = request;
+            order.firstRunAt = firstRunAt;
+            orders.put(order.id, order);
+            index(request.fromAccountNumber(), order.id);
+            schedule(order, firstRunAt);
+            persist(order);
+            return view(order);
+        } finally {
+            order.lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces an order's terms and restarts its schedule from the new
+     * {@code firstRunAt}; a transfer already in flight finishes on the old terms.
+     *
+     * @throws IllegalArgumentException if the request is invalid or an account does not exist
+     */
+    public Optional<StandingOrder> update(String id, StandingOrderRequest request) {
+        LocalDateTime firstRunAt = validate(request, LocalDateTime.now(clock));
+        Order order = orders.get(id);
+        if (order == null) {
+            return Optional.empty();
+        }
+        order.lock.lock();
+        try {
+            if (order.deleted) {
+                return Optional.empty();
+            }
+            if (!order.terms.fromAccountNumber().equals(request.fromAccountNumber())) {
+                unindex(order.terms.fromAccountNumber(), id);
+                index(request.fromAccountNumber(), id);
+            }
+            order.terms = request;
+            order.firstRunAt = firstRunAt;
+            order.run = 0;
+            order.retries = 0;
+            order.generation++;
+            // Without a pending timer the order is due or executing, and reschedules itself once it sees the new generation
+            if (cancel(order)) {
+                schedule(order, firstRunAt);
+            } else {
+                order.nextRunAt = firstRunAt;
+            }
+            persist(order);
+            return Optional.of(view(order));
+        } finally {
+            order.lock.unlock();
+        }
+    }
+
+    public boolean delete(String id) {
+        Order order = orders.get(id);
+        if (order == null) {
+            return false;
+        }
+        order.lock.lock();
+        try {
+            if (order.deleted) {
+                return false;
+            }
+            order.deleted = true;
+            orders.remove(id);
+            cancel(order);
+            unindex(order.terms.fromAccountNumber(), id);
+            appendLog("D\t" + id);
+            return true;
+        } finally {
+            order.lock.unlock();
+        }
+    }
+
+    public Optional<StandingOrder> get(String id) {
+        return Optional.ofNullable(orders.get(id)).flatMap(this::lockedView);
+    }
+
+    /** Orders paying out of the account, oldest first. */
+    public List<StandingOrder> getByAccount(String accountNumber) {
+        Set<String> ids = ordersByAccount.getOrDefault(accountNumber, Set.of());
+        return ids.stream()
+            .map(orders::get)
+            .filter(order -> order != null)
+            .sorted(Comparator.comparing((Order order) -> order.createdAt).thenComparing(order -> order.id))
+            .map(this::lockedView)
+            .flatMap(Optional::stream)
+            .toList();
+    }
+
+    /** The order's recent executions, newest first. */
+    public Optional<List<StandingOrderExecution>> getHistory(String id) {
+        Order order = orders.get(id);
+        if (order == null) {
+            return Optional.empty();
+        }
+        order.lock.lock();
+        try {
+            return order.deleted ? Optional.empty() : Optional.of(List.copyOf(order.history));
+        } finally {
+            order.lock.unlock();
+        }
+    }
+
+    public int getOrderCount() {
+        return orders.size();
+    }
+
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    public long getRetriedCount() {
+        return retried.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP fastbank_standing_orders Standing orders scheduled.\n");
+        out.append("# TYPE fastbank_standing_orders gauge\n");
+        out.append("fastbank_standing_orders ").append(getOrderCount()).append('\n');
+        out.append("# HELP fastbank_standing_order_executions_total Standing order transfers by outcome.\n");
+        out.append("# TYPE fastbank_standing_order_executions_total counter\n");
+        out.append("fastbank_standing_order_executions_total{outcome=\"executed\"} ").append(getExecutedCount()).append('\n');
+        out.append("fastbank_standing_order_executions_total{outcome=\"retrying\"} ").append(getRetriedCount()).append('\n');
+        out.append("fastbank_standing_order_executions_total{outcome=\"failed\"} ").append(getFailedCount()).append('\n');
+    }
+
+    private LocalDateTime validate(StandingOrderRequest request, LocalDateTime now) {
+        if (request == null || isBlank(request.fromAccountNumber()) || isBlank(request.toAccountNumber())) {
+            throw new IllegalArgumentException("fromAccountNumber and toAccountNumber are required");
+        }
+        if (request.fromAccountNumber().equals(request.toAccountNumber())) {
+            throw new IllegalArgumentException("Cannot transfer to the same account");
+        }
+        if (request.amount() == null || request.amount().signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        Money.toMinorUnits(request.amount());
+        if (request.frequency() == null) {
+            throw new IllegalArgumentException("frequency must be DAILY, WEEKLY or MONTHLY");
+        }
+        if (request.firstRunAt() != null && request.firstRunAt().isBefore(now)) {
+            throw new IllegalArgumentException("firstRunAt must not be in the past");
+        }
+        if (accountService.findByAccountNumber(request.fromAccountNumber()).isEmpty()) {
+            throw new IllegalArgumentException("Source account not found");
+        }
+        if (accountService.findByAccountNumber(request.toAccountNumber()).isEmpty()) {
+            throw new IllegalArgumentException("Destination account not found");
+        }
+        return request.firstRunAt() != null ? request.firstRunAt() : now;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    // Added inside compute, so a concurrent unindex cannot drop the set between creating and filling it
+    private void index(String accountNumber, String id) {
+        ordersByAccount.compute(accountNumber, (key, ids) -> {
+            Set<String> set = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+            set.add(id);
+            return set;
+        });
+    }
+
+    private void unindex(String accountNumber, String id) {
+        ordersByAccount.computeIfPresent(accountNumber, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private WheelShard shardOf(Order order) {
+        return shards[Math.floorMod(order.id.hashCode(), shards.length)];
+    }
+
+    // Caller holds the order's lock
+    private void schedule(Order order, LocalDateTime at) {
+        order.nextRunAt = at;
+        long millis = at.atZone(clock.getZone()).toInstant().toEpochMilli();
+        Firing firing = new Firing(order, order.generation);
+        WheelShard shard = shardOf(order);
+        shard.lock.lock();
+        try {
+            order.timer = shard.wheel.schedule(firing, Math.ceilDiv(millis, tickMillis));
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // Caller holds the order's lock; returns whether a run was still pending
+    private boolean cancel(Order order) {
+        WheelShard shard = shardOf(order);
+        shard.lock.lock();
+        try {
+            if (order.timer == null) {
+                return false;
+            }
+            boolean pending = shard.wheel.cancel(order.timer);
+            order.timer = null;
+            return pending;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // Runs keep to the first run's calendar, so a monthly order from the 31st pays on the last day of shorter months
+    private static LocalDateTime runAt(Order order, long run) {
+        return switch (order.terms.frequency()) {
+            case DAILY -> order.firstRunAt.plusDays(run);
+            case WEEKLY -> order.firstRunAt.plusWeeks(run);
+            case MONTHLY -> order.firstRunAt.plusMonths(run);
+        };
+    }
+
+    // Index of the first run after the given time
+    private static long runAfter(Order order, long run, LocalDateTime time) {
+        while (!runAt(order, run).isAfter(time)) {
+            run++;
+        }
+        return run;
+    }
+
+    private Optional<StandingOrder> lockedView(Order order) {
+        order.lock.lock();
+        try {
+            return order.deleted ? Optional.empty() : Optional.of(view(order));
+        } finally {
+            order.lock.unlock();
+        }
+    }
+
+    private StandingOrder view(Order order) {
+        StandingOrderRequest terms = order.terms;
+        return new StandingOrder(order.id, terms.fromAccountNumber(), terms.toAccountNumber(), terms.amount(),
+            description(terms), terms.frequency(), order.firstRunAt, order.nextRunAt, order.retries, order.createdAt);
+    }
+
+    private static String description(StandingOrderRequest terms) {
+        return isBlank(terms.description()) ? DEFAULT_DESCRIPTION : terms.description();
+    }
+
+    private void tick() {
+        try {
+            runDue(clock.millis());
+        } catch (RuntimeException e) {
+            // A thrown exception would cancel the ticker for good
+            logger.error("Standing order tick failed", e);
+        }
+    }
+
+    /** Advances the wheels to {@code nowMillis} and hands what is due to the workers. */
+    void runDue(long nowMillis) {
+        List<Firing> due = new ArrayList<>();
+        for (WheelShard shard : shards) {
+            shard.lock.lock();
+            try {
+                shard.wheel.advance(nowMillis / tickMillis, firing -> {
+                    firing.order().timer = null;
+                    due.add(firing);
+                });
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Firing> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            workers.execute(() -> batch.forEach(this::execute));
+        }
+    }
+
+    private void execute(Firing firing) {
+        Order order = firing.order();
+        StandingOrderRequest terms;
+        LocalDateTime scheduledFor;
+        int attempt;
+        long generation;
+        order.lock.lock();
+        try {
+            if (order.deleted) {
+                return;
+            }
+            if (order.generation != firing.generation()) {
+                // Updated after this run fell due: it belonged to the old terms, and the new schedule starts over
+                schedule(order, order.nextRunAt);
+                return;
+            }
+            terms = order.terms;
+            // A retry is recorded against the run it retries
+            scheduledFor = runAt(order, order.run);
+            attempt = order.retries;
+            generation = order.generation;
+            // Logged before the transfer, so a restart in between never pays the run again
+            order.inFlight = true;
+            if (!persist(order)) {
+                order.inFlight = false;
+                order.persisted = line(order);
+                logger.error("Standing order {} not paid: its run could not be logged; trying again in {} minutes",
+                    order.id, retryDelayMinutes);
+                schedule(order, LocalDateTime.now(clock).plusMinutes(retryDelayMinutes));
+                return;
+            }
+        } finally {
+            order.lock.unlock();
+        }
+
+        String error = null;
+        boolean retryable = false;
+        try {
+            accountService.transfer(terms.fromAccountNumber(), terms.toAccountNumber(), terms.amount(), description(terms));
+        } catch (InsufficientFundsException e) {
+            error = e.getMessage();
+            retryable = true;
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        order.lock.lock();
+        try {
+            order.inFlight = false;
+            if (order.generation != generation) {
+                // Updated meanwhile: the new schedule starts over
+                record(order, new StandingOrderExecution(now, scheduledFor, attempt, error == null
+                    ? StandingOrderExecution.Outcome.EXECUTED : StandingOrderExecution.Outcome.FAILED, error));
+                if (!order.deleted) {
+                    schedule(order, order.firstRunAt);
+                    persist(order);
+                }
+                return;
+            }
+            long next = runAfter(order, order.run + 1, now);
+            LocalDateTime nextRunAt = runAt(order, next);
+            LocalDateTime retryAt = now.plusMinutes(retryDelayMinutes);
+            StandingOrderExecution.Outcome outcome;
+            if (error == null) {
+                outcome = StandingOrderExecution.Outcome.EXECUTED;
+            } else if (retryable && attempt < maxRetries && retryAt.isBefore(nextRunAt)) {
+                outcome = StandingOrderExecution.Outcome.RETRYING;
+            } else {
+                outcome = StandingOrderExecution.Outcome.FAILED;
+            }
+            record(order, new StandingOrderExecution(now, scheduledFor, attempt, outcome, error));
+            if (order.deleted) {
+                return;
+            }
+            if (outcome == StandingOrderExecution.Outcome.RETRYING) {
+                order.retries++;
+                schedule(order, retryAt);
+            } else {
+                order.run = next;
+                order.retries = 0;
+                schedule(order, nextRunAt);
+            }
+            persist(order);
+        } finally {
+            order.lock.unlock();
+        }
+    }
+
+    // Caller holds the order's lock
+    private void record(Order order, StandingOrderExecution execution) {
+        switch (execution.outcome()) {
+            case EXECUTED -> executed.increment();
+            case RETRYING -> retried.increment();
+            case FAILED -> {
+                failed.increment();
+                logger.warn("Standing order {} failed: {}", order.id, execution.error());
+            }
+        }
+        order.history.addFirst(execution);
+        while (order.history.size() > historySize) {
+            order.history.removeLast();
+        }
+    }
+
+    private Path storeDir() {
+        return dataDir.resolve("standing-orders");
+    }
+
+    // Caller holds the order's lock. False if durable and the line could not be written
+    private boolean persist(Order order) {
+        if (!durable) {
+            return true;
+        }
+        String line = line(order);
+        order.persisted = line;
+        return appendLog(line);
+    }
+
+    private static String line(Order order) {
+        StandingOrderRequest terms = order.terms;
+        String description = terms.description() == null ? ""
+            : Base64.getEncoder().encodeToString(terms.description().getBytes(StandardCharsets.UTF_8));
+        return String.join("\t", "P", order.id, order.createdAt.toString(), terms.fromAccountNumber(),
+            terms.toAccountNumber(), terms.amount().toPlainString(), description, terms.frequency().name(),
+            order.firstRunAt.toString(), Long.toString(order.run), Integer.toString(order.retries),
+            order.nextRunAt.toString(), order.inFlight ? "1" : "0");
+    }
+
+    // Lines go straight to the OS, so a process restart loses none of them
+    private boolean appendLog(String line) {
+        if (!durable) {
+            return true;
+        }
+        logLock.lock();
+        try {
+            if (log == null) {
+                if (!logFailed) {
+                    return false;
+                }
+                // The snapshot takes every order's latest line, including those whose writes failed
+                compact();
+                logFailed = false;
+                logger.info("Standing order log reopened");
+            }
+            log.write(line);
+            log.write('\n');
+            log.flush();
+            if (++logEntries > Math.max(MIN_COMPACTION_ENTRIES, 2L * orders.size())) {
+                compact();
+            }
+            return true;
+        } catch (IOException e) {
+            logger.error("Could not write the standing order log; it is reopened on the next change", e);
+            closeFailedLog();
+            return false;
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    // Caller holds the log lock
+    private void closeFailedLog() {
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                logger.debug("Could not close the failed standing order log", e);
+            }
+        }
+        log = null;
+        logFailed = true;
+    }
+
+    // Caller holds the log lock. Replaying the old log over the new snapshot gives the same orders, so a crash midway is harmless
+    private void compact() throws IOException {
+        Path dir = storeDir();
+        Path temporary = dir.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                 StandardOpenOption.TRUNCATE_EXISTING);
+             Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+            for (Order order : orders.values()) {
+                String line = order.persisted;
+                if (line != null) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+            writer.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, dir.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (log != null) {
+            Writer previous = log;
+            log = null;
+            previous.close();
+        }
+        log = Files.newBufferedWriter(dir.resolve(LOG_FILE), StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        logEntries = 0;
+    }
+
+    private void recover() throws IOException {
+        Path dir = storeDir();
+        Files.createDirectories(dir);
+        Map<String, String[]> latest = new LinkedHashMap<>();
+        for (String file : List.of(SNAPSHOT_FILE, LOG_FILE)) {
+            Path path = dir.resolve(file);
+            if (!Files.exists(path)) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t", -1);
+                    if (fields.length == 2 && fields[0].equals("D")) {
+                        latest.remove(fields[1]);
+                    } else if (fields.length == 13 && fields[0].equals("P")) {
+                        latest.put(fields[1], fields);
+                    } else {
+                        // Only the last line can be torn, by a crash while it was written
+                        logger.warn("Skipping unreadable standing order record in {}", path);
+                    }
+                }
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        for (String[] fields : latest.values()) {
+            Order order = restore(fields, now);
+            orders.put(order.id, order);
+            index(order.terms.fromAccountNumber(), order.id);
+        }
+        logLock.lock();
+        try {
+            compact();
+        } finally {
+            logLock.unlock();
+        }
+        if (!orders.isEmpty()) {
+            logger.info("Recovered {} standing orders", orders.size());
+        }
+    }
+
+    private Order restore(String[] fields, LocalDateTime now) {
+        Order order = new Order(fields[1], LocalDateTime.parse(fields[2]));
+        String description = fields[6].isEmpty() ? null : new String(Base64.getDecoder().decode(fields[6]), StandardCharsets.UTF_8);
+        order.lock.lock();
+        try {
+            order.terms = new StandingOrderRequest(fields[3], fields[4], new BigDecimal(fields[5]), description,
+                StandingOrderRequest.Frequency.valueOf(fields[7]), LocalDateTime.parse(fields[8]));
+            order.firstRunAt = order.terms.firstRunAt();
+            order.run = Long.parseLong(fields[9]);
+            order.retries = Integer.parseInt(fields[10]);
+            LocalDateTime nextRunAt = LocalDateTime.parse(fields[11]);
+            if (fields[12].equals("1")) {
+                // The restart cut a transfer short, and whether it was made is unknown: move on rather than pay twice
+                logger.warn("Standing order {} was executing at shutdown; skipping to its next run", order.id);
+                order.run = runAfter(order, order.run + 1, now);
+                order.retries = 0;
+                nextRunAt = runAt(order, order.run);
+            }
+            schedule(order, nextRunAt);
+            order.persisted = line(order);
+            return order;
+        } finally {
+            order.lock.unlock();
+        }
+    }
+}
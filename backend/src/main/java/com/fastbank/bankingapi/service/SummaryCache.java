@@ -0,0 +1,171 @@
+package com.fastbank.bankingapi.service;
+
+import com.fastbank.bankingapi.dto.AccountSummary;
+import com.fastbank.bankingapi.metrics.MetricsSource;
+import com.fastbank.bankingapi.model.Account;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Account summaries serialized to JSON once and served as bytes until the
+ * account changes.
+ *
+ * Each entry is stamped with the {@link Account#getVersion() version} read
+ * before serializing. A lookup whose account has moved on misses and
+ * rebuilds the entry, so every change {@link AccountService} saves
+ * invalidates it without the writers doing anything.
+ *
+ * Memory is bounded by {@code fastbank.summary-cache.max-mb}, counting the
+ * JSON plus a fixed per-entry overhead. Entries live in lock-striped
+ * segments, each an access-ordered map that evicts its least recently used
+ * entries when over its share of the budget. 0 disables caching.
+ */
+@Component
+public class SummaryCache implements MetricsSource {
+
+    private static final int SEGMENTS = 16;
+    // Map node, entry record, key reference and array header, roughly
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private record Entry(Account account, long version, byte[] json) {
+        long size() {
+            return json.length + ENTRY_OVERHEAD;
+        }
+    }
+
+    private static final class Segment {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        long bytes;
+    }
+
+    // Same settings as Spring Boot's mapper, for instances built by hand
+    @Autowired
+    private ObjectMapper objectMapper = JsonMapper.builder()
+        .findAndAddModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+
+    private long maxBytes = 16L << 20;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SummaryCache() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    @Value("${fastbank.summary-cache.max-mb:16}")
+    void setMaxMegabytes(long maxMegabytes) {
+        this.maxBytes = maxMegabytes << 20;
+    }
+
+    /** The account's {@link AccountSummary} as JSON. The array is shared: never modify it. */
+    public byte[] get(Account account) {
+        String accountNumber = account.getAccountNumber();
+        // Read before serializing, so an entry is never older than its stamp
+        long version = account.getVersion();
+        Segment segment = segments[Math.floorMod(accountNumber.hashCode(), SEGMENTS)];
+        segment.lock.lock();
+        try {
+            Entry entry = segment.entries.get(accountNumber);
+            // Matching the account too keeps an entry from a replaced object with the same number from being served
+            if (entry != null && entry.account() == account && entry.version() == version) {
+                hits.increment();
+                return entry.json();
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+
+        misses.increment();
+        byte[] json = serialize(account);
+        Entry fresh = new Entry(account, version, json);
+        long budget = maxBytes / SEGMENTS;
+        if (fresh.size() > budget) {
+            return json;
+        }
+        segment.lock.lock();
+        try {
+            Entry previous = segment.entries.get(accountNumber);
+            if (previous != null && previous.account() == account && previous.version() > version) {
+                // A concurrent miss already stored a newer summary
+                return json;
+            }
+            segment.entries.put(accountNumber, fresh);
+            segment.bytes += fresh.size() - (previous == null ? 0 : previous.size());
+            Iterator<Map.Entry<String, Entry>> eldest = segment.entries.entrySet().iterator();
+            while (segment.bytes > budget) {
+                segment.bytes -= eldest.next().getValue().size();
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+        return json;
+    }
+
+    private byte[] serialize(Account account) {
+        try {
+            return objectMapper.writeValueAsBytes(AccountSummary.from(account));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /** Approximate memory held, JSON plus per-entry overhead. */
+    public long getBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                bytes += segment.bytes;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP fastbank_summary_cache_requests_total Account summary lookups served from cached JSON or serialized again.\n");
+        out.append("# TYPE fastbank_summary_cache_requests_total counter\n");
+        out.append("fastbank_summary_cache_requests_total{outcome=\"hit\"} ").append(getHitCount()).append('\n');
+        out.append("fastbank_summary_cache_requests_total{outcome=\"miss\"} ").append(getMissCount()).append('\n');
+        out.append("# HELP fastbank_summary_cache_evictions_total Cached summaries evicted to stay within the memory budget.\n");
+        out.append("# TYPE fastbank_summary_cache_evictions_total counter\n");
+        out.append("fastbank_summary_cache_evictions_total ").append(getEvictionCount()).append('\n');
+        out.append("# HELP fastbank_summary_cache_bytes Approximate memory held by cached summaries.\n");
+        out.append("# TYPE fastbank_summary_cache_bytes gauge\n");
+        out.append("fastbank_summary_cache_bytes ").append(getBytes()).append('\n');
+    }
+}
@@ -0,0 +1,128 @@
+package com.fastbank.bankingapi.audit;
+
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.Transaction;
+import com.fastbank.bankingapi.repository.AccountRepository;
+import com.fastbank.bankingapi.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class AuditLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testEntriesAreWrittenAsJsonLines() throws Exception {
+        Path file = dir.resolve("audit.log");
+        AuditLog auditLog = new AuditLog();
+        auditLog.open(file, 16, AuditLog.Overflow.BLOCK);
+        Transaction deposit = new Transaction("ACC1", "DEPOSIT", new BigDecimal("25"), "Salary");
+        Transaction withdrawal = new Transaction("ACC1", "WITHDRAW", new BigDecimal("0.05"), "Fee");
+        auditLog.record("ACC1", deposit, 12_525, 7);
+        auditLog.record("ACC1", withdrawal, 12_520, 8);
+        auditLog.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"seq\":0,\"ts\":"));
+        assertTrue(lines.get(0).endsWith(",\"account\":\"ACC1\",\"tx\":\"" + deposit.getId()
+            + "\",\"type\":\"DEPOSIT\",\"amount\":\"25.00\",\"balance\":\"125.25\",\"journal\":7}"), lines.get(0));
+        assertTrue(lines.get(1).startsWith("{\"seq\":1,"));
+        assertTrue(lines.get(1).contains("\"amount\":\"0.05\",\"balance\":\"125.20\",\"journal\":8}"), lines.get(1));
+        assertEquals(2, auditLog.getWrittenCount());
+    }
+
+    @Test
+    void testBlockPolicyLosesNothing() throws Exception {
+        Path file = dir.resolve("audit.log");
+        AuditLog auditLog = new AuditLog();
+        auditLog.open(file, 2, AuditLog.Overflow.BLOCK);
+        int total = recordConcurrently(auditLog, 4, 5_000);
+        auditLog.close();
+
+        assertEquals(0, auditLog.getDroppedCount());
+        assertEquals(total, auditLog.getWrittenCount());
+        assertEquals(total, Files.readAllLines(file).size());
+    }
+
+    @Test
+    void testDropPolicyCountsWhatItDiscards() throws Exception {
+        Path file = dir.resolve("audit.log");
+        AuditLog auditLog = new AuditLog();
+        auditLog.open(file, 1, AuditLog.Overflow.DROP);
+        int total = recordConcurrently(auditLog, 4, 5_000);
+        auditLog.close();
+
+        assertEquals(total, auditLog.getWrittenCount() + auditLog.getDroppedCount());
+        assertEquals(auditLog.getWrittenCount(), Files.readAllLines(file).size());
+    }
+
+    @Test
+    void testUnopenedLogIgnoresEntries() throws Exception {
+        AuditLog auditLog = new AuditLog();
+        auditLog.record("ACC1", new Transaction("ACC1", "DEPOSIT", BigDecimal.ONE, "Ignored"), 100, 0);
+        auditLog.close();
+        assertEquals(0, auditLog.getWrittenCount());
+    }
+
+    @Test
+    void testServiceAuditsBothLegsOfATransfer() throws Exception {
+        Path file = dir.resolve("audit.log");
+        AuditLog auditLog = new AuditLog();
+        auditLog.open(file, 16, AuditLog.Overflow.BLOCK);
+        AccountRepository accountRepository = new AccountRepository();
+        AccountService accountService = new AccountService();
+        ReflectionTestUtils.setField(accountService, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(accountService, "auditLog", auditLog);
+        for (String accountNumber : List.of("ACCA", "ACCB")) {
+            Account account = new Account("Owner " + accountNumber);
+            account.setAccountNumber(accountNumber);
+            account.setBalance(new BigDecimal("100.00"));
+            accountRepository.save(account);
+        }
+
+        accountService.transfer("ACCA", "ACCB", new BigDecimal("30.00"), "Rent");
+        assertThrows(RuntimeException.class, () -> accountService.withdraw("ACCA", new BigDecimal("500.00"), "Too much"));
+        auditLog.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"account\":\"ACCA\"") && lines.get(0).contains("\"type\":\"WITHDRAW\"")
+            && lines.get(0).contains("\"balance\":\"70.00\""), lines.get(0));
+        assertTrue(lines.get(1).contains("\"account\":\"ACCB\"") && lines.get(1).contains("\"type\":\"DEPOSIT\"")
+            && lines.get(1).contains("\"balance\":\"130.00\""), lines.get(1));
+    }
+
+    private static int recordConcurrently(AuditLog auditLog, int threads, int perThread) throws Exception {
+        Transaction transaction = new Transaction("ACC1", "DEPOSIT", BigDecimal.ONE, "Load");
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int n = 0; n < perThread; n++) {
+                        auditLog.record("ACC1", transaction, n, n);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return threads * perThread;
+    }
+}
@@ -0,0 +1,75 @@
+package com.fastbank.bankingapi.config;
+
+import com.fastbank.bankingapi.model.Categorizer;
+import com.fastbank.bankingapi.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+class CategoryRulesTest {
+
+    @TempDir
+    Path directory;
+
+    private final CategoryRules rules = new CategoryRules();
+
+    @AfterEach
+    void tearDown() {
+        rules.stop();
+    }
+
+    private String categoryOf(String description) {
+        return new Transaction("ACC1", "WITHDRAW", new BigDecimal("10.00"), description).getCategory();
+    }
+
+    @Test
+    void testLoadsFileAndReloadsWhenItChanges() throws Exception {
+        Path file = directory.resolve("categories.txt");
+        Files.writeString(file, "# Groceries first\nFood: grocery, Lidl\nTransportation: fuel, train ticket\n");
+        ReflectionTestUtils.setField(rules, "file", file.toString());
+        ReflectionTestUtils.setField(rules, "reloadSeconds", 0L);
+        rules.start();
+
+        assertEquals("Food", categoryOf("LIDL Berlin"));
+        assertEquals("Transportation", categoryOf("Train ticket Hamburg"));
+        assertEquals("Other", categoryOf("Monthly salary"));
+        assertFalse(rules.reload());
+
+        Files.writeString(file, "Income: salary\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        assertTrue(rules.reload());
+        assertEquals("Income", categoryOf("Monthly salary"));
+        assertEquals("Other", categoryOf("LIDL Berlin"));
+    }
+
+    @Test
+    void testBrokenFileKeepsCurrentRules() throws Exception {
+        Path file = directory.resolve("categories.txt");
+        Files.writeString(file, "Food: grocery\n");
+        ReflectionTestUtils.setField(rules, "file", file.toString());
+        ReflectionTestUtils.setField(rules, "reloadSeconds", 0L);
+        rules.start();
+
+        Files.writeString(file, "grocery without a category\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        assertThrows(IllegalArgumentException.class, rules::reload);
+        assertEquals("Food", categoryOf("Grocery store"));
+    }
+
+    @Test
+    void testWithoutFileKeepsBuiltInRules() throws Exception {
+        rules.start();
+
+        assertSame(Categorizer.builtIn(), Categorizer.current());
+        assertEquals(List.of(new Categorizer.Rule("rent", "Housing"), new Categorizer.Rule("car hire", "Housing")),
+            CategoryRules.parse(List.of("", "Housing: rent, car hire ,", "  # comment")));
+    }
+}
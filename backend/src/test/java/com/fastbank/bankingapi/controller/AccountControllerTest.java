@@ -1,6 +1,10 @@
 package com.fastbank.bankingapi.controller;
 
+import com.fastbank.bankingapi.dto.AccountInsights;
+import com.fastbank.bankingapi.dto.AccountSummary;
 import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.Transaction;
+import com.fastbank.bankingapi.model.TransactionHistory;
 import com.fastbank.bankingapi.service.AccountService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -9,14 +13,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,6 +48,7 @@ class AccountControllerTest {
         Account account = new Account("John Doe");
         when(accountService.findByAccountNumber(account.getAccountNumber()))
             .thenReturn(Optional.of(account));
+        when(accountService.getSummaryJson(account)).thenReturn(summaryJson(account));
 
         Map<String, String> loginRequest = new HashMap<>();
         loginRequest.put("accountNumber", account.getAccountNumber());
@@ -46,7 +57,9 @@ class AccountControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(loginRequest)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.ownerName").value("John Doe"));
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.ownerName").value("John Doe"))
+                .andExpect(jsonPath("$.transactions").doesNotExist());
     }
 
     @Test
@@ -83,13 +96,160 @@ class AccountControllerTest {
     void testGetAllAccounts() throws Exception {
         Account account1 = new Account("John Doe");
         Account account2 = new Account("Jane Smith");
-        when(accountService.getAllAccounts()).thenReturn(Arrays.asList(account1, account2));
+        when(accountService.getAccountPage(null, 50)).thenReturn(Arrays.asList(account1, account2));
 
         mockMvc.perform(get("/api/accounts"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].ownerName").value("John Doe"))
-                .andExpect(jsonPath("$[1].ownerName").value("Jane Smith"));
+                .andExpect(jsonPath("$.accounts.length()").value(2))
+                .andExpect(jsonPath("$.accounts[0].ownerName").value("John Doe"))
+                .andExpect(jsonPath("$.accounts[1].ownerName").value("Jane Smith"))
+                .andExpect(jsonPath("$.accounts[0].transactions").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testGetAccounts_FullPageHasCursor() throws Exception {
+        Account account1 = new Account("John Doe");
+        Account account2 = new Account("Jane Smith");
+        when(accountService.getAccountPage("ACC1", 2)).thenReturn(Arrays.asList(account1, account2));
+
+        mockMvc.perform(get("/api/accounts").param("cursor", "ACC1").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value(account2.getAccountNumber()));
+    }
+
+    @Test
+    void testSearchAccountsByOwner() throws Exception {
+        Account account = new Account("Jane Smith");
+        when(accountService.searchByOwner("jan", 5)).thenReturn(List.of(account));
+
+        mockMvc.perform(get("/api/accounts/search").param("owner", "jan").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].ownerName").value("Jane Smith"))
+                .andExpect(jsonPath("$[0].transactions").doesNotExist());
+    }
+
+    @Test
+    void testSearchAccounts_BlankOwner() throws Exception {
+        mockMvc.perform(get("/api/accounts/search").param("owner", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetAccount() throws Exception {
+        Account account = new Account("John Doe");
+        account.credit(new Transaction(account.getAccountNumber(), "DEPOSIT", new BigDecimal("50.00"), "Salary"));
+        when(accountService.findByAccountNumber(account.getAccountNumber())).thenReturn(Optional.of(account));
+        when(accountService.getSummaryJson(account)).thenReturn(summaryJson(account));
+
+        mockMvc.perform(get("/api/accounts/" + account.getAccountNumber()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.ownerName").value("John Doe"))
+                .andExpect(jsonPath("$.transactionCount").value(1))
+                .andExpect(jsonPath("$.transactions").doesNotExist());
+    }
+
+    @Test
+    void testGetAccount_NotModified() throws Exception {
+        Account account = new Account("John Doe");
+        when(accountService.findByAccountNumber(account.getAccountNumber())).thenReturn(Optional.of(account));
+        when(accountService.getETag(account)).thenReturn("\"e-7\"");
+        when(accountService.getSummaryJson(account)).thenReturn(summaryJson(account));
+
+        mockMvc.perform(get("/api/accounts/" + account.getAccountNumber()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"e-7\""));
+        mockMvc.perform(get("/api/accounts/" + account.getAccountNumber()).header("If-None-Match", "\"e-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"e-7\""))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/accounts/" + account.getAccountNumber()).header("If-None-Match", "\"e-6\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ownerName").value("John Doe"));
+    }
+
+    @Test
+    void testGetAccounts_NotModifiedSkipsThePage() throws Exception {
+        when(accountService.getCollectionETag()).thenReturn("\"e-42\"");
+
+        mockMvc.perform(get("/api/accounts").header("If-None-Match", "\"e-42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"e-42\""));
+        verify(accountService, never()).getAccountPage(any(), anyInt());
+    }
+
+    private byte[] summaryJson(Account account) throws Exception {
+        return objectMapper.writeValueAsBytes(AccountSummary.from(account));
+    }
+
+    @Test
+    void testGetAccount_NotFound() throws Exception {
+        when(accountService.findByAccountNumber("INVALID")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/accounts/INVALID"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetTransactions() throws Exception {
+        Transaction transaction = new Transaction("ACC123", "DEPOSIT", new BigDecimal("50.00"), "Salary");
+        when(accountService.getTransactionHistory(eq("ACC123"), eq(LocalDateTime.of(2025, 1, 1, 0, 0)), isNull(), eq(7), eq(20)))
+            .thenReturn(Optional.of(new TransactionHistory.Page(List.of(transaction), 3)));
+
+        mockMvc.perform(get("/api/accounts/ACC123/transactions")
+                .param("from", "2025-01-01T00:00:00")
+                .param("cursor", "7")
+                .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].description").value("Salary"))
+                .andExpect(jsonPath("$.nextCursor").value(3));
+    }
+
+    @Test
+    void testGetTransactions_AccountNotFound() throws Exception {
+        when(accountService.getTransactionHistory(eq("INVALID"), any(), any(), any(), anyInt()))
+            .thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/accounts/INVALID/transactions"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetTransactions_InvalidLimit() throws Exception {
+        mockMvc.perform(get("/api/accounts/ACC123/transactions").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetInsights() throws Exception {
+        AccountInsights insights = new AccountInsights("ACC123",
+            List.of(new AccountInsights.CategoryTotal("Food", new BigDecimal("0.00"), new BigDecimal("45.50"), 1)),
+            List.of(new AccountInsights.MonthTotal("2025-01", new BigDecimal("0.00"), new BigDecimal("45.50"), 1)));
+        when(accountService.getInsights("ACC123")).thenReturn(Optional.of(insights));
+        when(accountService.getInsights("INVALID")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/accounts/ACC123/insights"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories[0].category").value("Food"))
+                .andExpect(jsonPath("$.categories[0].outgoing").value(45.50))
+                .andExpect(jsonPath("$.months[0].month").value("2025-01"));
+        mockMvc.perform(get("/api/accounts/INVALID/insights"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testStreamEvents() throws Exception {
+        when(accountService.subscribe("ACC123")).thenReturn(Optional.of(new SseEmitter()));
+        when(accountService.subscribe("INVALID")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/accounts/ACC123/events"))
+                .andExpect(request().asyncStarted())
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/accounts/INVALID/events"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -143,4 +303,63 @@ class AccountControllerTest {
                 .content(objectMapper.writeValueAsString(transferRequest)))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void testDeposit_IdempotencyKeyReplaysResponse() throws Exception {
+        Account account = new Account("John Doe");
+        account.setBalance(new BigDecimal("150.00"));
+        when(accountService.deposit(eq(account.getAccountNumber()), any(), any())).thenReturn(account);
+        String body = "{\"amount\":50.00,\"description\":\"Salary\"}";
+
+        mockMvc.perform(post("/api/accounts/" + account.getAccountNumber() + "/deposit")
+                .header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        // The balance moves on, but the retry must see the original response
+        account.setBalance(new BigDecimal("999.00"));
+        mockMvc.perform(post("/api/accounts/" + account.getAccountNumber() + "/deposit")
+                .header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.balance").value(150.00));
+
+        verify(accountService, times(1)).deposit(eq(account.getAccountNumber()), any(), any());
+    }
+
+    @Test
+    void testTransfer_IdempotencyKeyReusedForDifferentRequest() throws Exception {
+        mockMvc.perform(post("/api/accounts/transfer")
+                .header("Idempotency-Key", "retry-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountNumber\":\"ACC1\",\"toAccountNumber\":\"ACC2\",\"amount\":10,\"description\":\"Rent\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/accounts/transfer")
+                .header("Idempotency-Key", "retry-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountNumber\":\"ACC1\",\"toAccountNumber\":\"ACC2\",\"amount\":20,\"description\":\"Rent\"}"))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(accountService, times(1)).transfer(any(), any(), any(), any());
+    }
+
+    @Test
+    void testWithdraw_WithoutIdempotencyKeyExecutesEveryTime() throws Exception {
+        Account account = new Account("John Doe");
+        when(accountService.withdraw(eq(account.getAccountNumber()), any(), any())).thenReturn(account);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/accounts/" + account.getAccountNumber() + "/withdraw")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"amount\":10,\"description\":\"ATM\"}"))
+                    .andExpect(status().isOk());
+        }
+
+        verify(accountService, times(2)).withdraw(eq(account.getAccountNumber()), any(), any());
+    }
 }
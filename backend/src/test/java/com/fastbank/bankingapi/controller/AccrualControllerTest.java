@@ -0,0 +1,81 @@
+package com.fastbank.bankingapi.controller;
+
+import com.fastbank.bankingapi.dto.AccrualRequest;
+import com.fastbank.bankingapi.dto.AccrualStatus;
+import com.fastbank.bankingapi.service.AccrualService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AccrualController.class)
+class AccrualControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AccrualService accrualService;
+
+    private static AccrualStatus run(AccrualStatus.State state, long processed) {
+        return new AccrualStatus("eod-2024-06-30", AccrualRequest.Type.INTEREST, state, 1_000, processed, processed, 0, 0,
+            LocalDateTime.of(2024, 6, 30, 23, 0), null, 5_000.0, null);
+    }
+
+    @Test
+    void testStartRun() throws Exception {
+        AccrualRequest expected = new AccrualRequest("eod-2024-06-30", AccrualRequest.Type.INTEREST, new BigDecimal("0.0001"), null);
+        when(accrualService.start(eq(expected))).thenReturn(run(AccrualStatus.State.QUEUED, 0));
+
+        mockMvc.perform(post("/api/accruals")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"runId\": \"eod-2024-06-30\", \"type\": \"INTEREST\", \"rate\": 0.0001}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state").value("QUEUED"))
+                .andExpect(jsonPath("$.totalAccounts").value(1000));
+    }
+
+    @Test
+    void testStartRun_Conflict() throws Exception {
+        when(accrualService.start(any())).thenThrow(new IllegalStateException("Accrual run eod was started with different parameters"));
+
+        mockMvc.perform(post("/api/accruals")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"runId\": \"eod\", \"type\": \"FEE\", \"amount\": 5}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Accrual run eod was started with different parameters"));
+    }
+
+    @Test
+    void testGetRun() throws Exception {
+        when(accrualService.getStatus("eod-2024-06-30")).thenReturn(Optional.of(run(AccrualStatus.State.RUNNING, 400)));
+        when(accrualService.getStatus("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/accruals/eod-2024-06-30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processedAccounts").value(400))
+                .andExpect(jsonPath("$.accountsPerSecond").value(5000.0));
+        mockMvc.perform(get("/api/accruals/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCancelRun() throws Exception {
+        when(accrualService.cancel("eod-2024-06-30")).thenReturn(Optional.of(run(AccrualStatus.State.RUNNING, 400)));
+
+        mockMvc.perform(post("/api/accruals/eod-2024-06-30/cancel"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.runId").value("eod-2024-06-30"));
+    }
+}
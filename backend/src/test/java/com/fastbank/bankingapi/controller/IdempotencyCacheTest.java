@@ -0,0 +1,121 @@
+package com.fastbank.bankingapi.controller;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+class IdempotencyCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final IdempotencyCache<String> cache = new IdempotencyCache<>(3, 100, TimeUnit.SECONDS.toNanos(5), now::get);
+
+    @Test
+    void testDuplicateGetsStoredValue() throws Exception {
+        IdempotencyCache.Claim<String> first = cache.claim("key-1", "deposit 10");
+        assertTrue(first.isOwner());
+        first.complete("done");
+
+        IdempotencyCache.Claim<String> second = cache.claim("key-1", "deposit 10");
+        assertFalse(second.isOwner());
+        assertEquals("done", second.value());
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequest() throws Exception {
+        cache.claim("key-1", "deposit 10").complete("done");
+
+        assertThrows(IdempotencyCache.KeyReusedException.class, () -> cache.claim("key-1", "deposit 20"));
+    }
+
+    @Test
+    void testFailureReleasesKey() throws Exception {
+        cache.claim("key-1", "deposit 10").fail(new RuntimeException("Insufficient funds"));
+
+        assertTrue(cache.claim("key-1", "deposit 10").isOwner());
+    }
+
+    @Test
+    void testRepeatedFailuresDoNotGrowTheQueue() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            cache.claim("key-1", "deposit 10").fail(new RuntimeException("Insufficient funds"));
+        }
+
+        assertEquals(0, cache.size());
+        assertTrue(cache.queued() <= 3);
+    }
+
+    @Test
+    void testConcurrentDuplicatesCoalesce() throws Exception {
+        IdempotencyCache.Claim<String> owner = cache.claim("key-1", "transfer");
+        AtomicInteger owners = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Future<?>[] duplicates = new Future<?>[4];
+        for (int i = 0; i < 4; i++) {
+            duplicates[i] = executor.submit(() -> {
+                started.countDown();
+                IdempotencyCache.Claim<String> claim = cache.claim("key-1", "transfer");
+                if (claim.isOwner()) {
+                    owners.incrementAndGet();
+                }
+                return claim.value();
+            });
+        }
+        started.await();
+        owner.complete("transferred");
+
+        for (Future<?> duplicate : duplicates) {
+            assertEquals("transferred", duplicate.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(0, owners.get());
+    }
+
+    @Test
+    void testEntriesExpire() throws Exception {
+        cache.claim("key-1", "deposit 10").complete("done");
+        now.addAndGet(101);
+
+        assertTrue(cache.claim("key-1", "deposit 10").isOwner());
+    }
+
+    @Test
+    void testOldestEntriesEvictedBeyondBound() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            cache.claim("key-" + i, "request").complete("done " + i);
+        }
+
+        assertEquals(3, cache.size());
+        assertTrue(cache.claim("key-1", "request").isOwner());
+        assertEquals("done 5", cache.claim("key-5", "request").value());
+    }
+
+    @Test
+    void testInFlightKeysAreNeverEvicted() throws Exception {
+        IdempotencyCache<String> impatient = new IdempotencyCache<>(3, 100, TimeUnit.MILLISECONDS.toNanos(50), now::get);
+        impatient.claim("key-1", "transfer");
+        for (int i = 2; i <= 6; i++) {
+            impatient.claim("key-" + i, "request").complete("done " + i);
+        }
+        now.addAndGet(101);
+        impatient.claim("key-7", "request").complete("done 7");
+        assertEquals(2, impatient.size());
+
+        // Past both the bound and the TTL, a retry of the running request must not execute again
+        assertThrows(IdempotencyCache.InProgressException.class, () -> impatient.claim("key-1", "transfer"));
+    }
+
+    @Test
+    void testDuplicateStopsWaitingForAStuckOwner() throws Exception {
+        IdempotencyCache<String> impatient = new IdempotencyCache<>(3, 100, TimeUnit.MILLISECONDS.toNanos(50), now::get);
+        impatient.claim("key-1", "transfer");
+
+        assertThrows(IdempotencyCache.InProgressException.class, () -> impatient.claim("key-1", "transfer"));
+    }
+}
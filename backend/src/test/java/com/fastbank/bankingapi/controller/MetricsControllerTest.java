@@ -0,0 +1,58 @@
+package com.fastbank.bankingapi.controller;
+
+import com.fastbank.bankingapi.metrics.LedgerMetrics;
+import com.fastbank.bankingapi.metrics.MetricsSource;
+import com.fastbank.bankingapi.model.InsufficientFundsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(MetricsController.class)
+@Import({LedgerMetrics.class, MetricsControllerTest.QueueDepth.class})
+class MetricsControllerTest {
+
+    static class QueueDepth implements MetricsSource {
+        @Override
+        public void writePrometheus(StringBuilder out) {
+            out.append("fastbank_test_queue_depth 7\n");
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LedgerMetrics ledgerMetrics;
+
+    @Test
+    void testMetricsInPrometheusFormat() throws Exception {
+        long start = System.nanoTime();
+        ledgerMetrics.success(LedgerMetrics.Operation.DEPOSIT, start);
+        ledgerMetrics.failure(LedgerMetrics.Operation.WITHDRAW, new InsufficientFundsException(), start);
+
+        mockMvc.perform(get("/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MetricsController.PROMETHEUS_TEXT))
+                .andExpect(content().string(containsString("# TYPE fastbank_operations_total counter\n")))
+                .andExpect(content().string(containsString("fastbank_operations_total{operation=\"deposit\"} 1\n")))
+                .andExpect(content().string(containsString(
+                    "fastbank_operation_failures_total{operation=\"withdraw\",reason=\"insufficient_funds\"} 1\n")))
+                .andExpect(content().string(containsString("fastbank_operation_duration_seconds_count{operation=\"withdraw\"} 1\n")))
+                .andExpect(content().string(containsString("fastbank_test_queue_depth 7\n")));
+    }
+
+    @Test
+    void testMetricsRejectRemoteClients() throws Exception {
+        mockMvc.perform(get("/metrics").with(request -> {
+                    request.setRemoteAddr("10.1.2.3");
+                    return request;
+                }))
+                .andExpect(status().isForbidden());
+    }
+}
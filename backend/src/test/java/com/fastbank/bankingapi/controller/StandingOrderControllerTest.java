@@ -0,0 +1,101 @@
+package com.fastbank.bankingapi.controller;
+
+import com.fastbank.bankingapi.dto.StandingOrder;
+import com.fastbank.bankingapi.dto.StandingOrderExecution;
+import com.fastbank.bankingapi.dto.StandingOrderRequest;
+import com.fastbank.bankingapi.service.StandingOrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StandingOrderController.class)
+class StandingOrderControllerTest {
+
+    private static final LocalDateTime FIRST_RUN = LocalDateTime.of(2025, 2, 1, 8, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private StandingOrderService standingOrderService;
+
+    private static StandingOrder order(String id) {
+        return new StandingOrder(id, "ACC1", "ACC2", new BigDecimal("850.00"), "Rent", StandingOrderRequest.Frequency.MONTHLY,
+            FIRST_RUN, FIRST_RUN, 0, FIRST_RUN.minusDays(3));
+    }
+
+    @Test
+    void testCreateStandingOrder() throws Exception {
+        StandingOrderRequest expected = new StandingOrderRequest("ACC1", "ACC2", new BigDecimal("850.00"), "Rent",
+            StandingOrderRequest.Frequency.MONTHLY, FIRST_RUN);
+        when(standingOrderService.create(eq(expected))).thenReturn(order("SO1"));
+
+        mockMvc.perform(post("/api/standing-orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {"fromAccountNumber": "ACC1", "toAccountNumber": "ACC2", "amount": 850.00,
+                     "description": "Rent", "frequency": "MONTHLY", "firstRunAt": "2025-02-01T08:00:00"}"""))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value("SO1"))
+                .andExpect(jsonPath("$.nextRunAt").value("2025-02-01T08:00:00"));
+    }
+
+    @Test
+    void testCreateStandingOrder_Invalid() throws Exception {
+        when(standingOrderService.create(any())).thenThrow(new IllegalArgumentException("Destination account not found"));
+
+        mockMvc.perform(post("/api/standing-orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountNumber\": \"ACC1\", \"toAccountNumber\": \"ACC9\", \"amount\": 1, \"frequency\": \"DAILY\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Destination account not found"));
+    }
+
+    @Test
+    void testGetUpdateAndDelete() throws Exception {
+        when(standingOrderService.getByAccount("ACC1")).thenReturn(List.of(order("SO1")));
+        when(standingOrderService.get("SO2")).thenReturn(Optional.empty());
+        when(standingOrderService.update(eq("SO1"), any())).thenReturn(Optional.of(order("SO1")));
+        when(standingOrderService.delete("SO1")).thenReturn(true);
+
+        mockMvc.perform(get("/api/standing-orders").param("account", "ACC1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].frequency").value("MONTHLY"));
+        mockMvc.perform(get("/api/standing-orders/SO2"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/api/standing-orders/SO1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountNumber\": \"ACC1\", \"toAccountNumber\": \"ACC2\", \"amount\": 900, \"frequency\": \"MONTHLY\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/standing-orders/SO1"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/standing-orders/SO2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetExecutions() throws Exception {
+        when(standingOrderService.getHistory("SO1")).thenReturn(Optional.of(List.of(
+            new StandingOrderExecution(FIRST_RUN.plusHours(1), FIRST_RUN, 1, StandingOrderExecution.Outcome.EXECUTED, null),
+            new StandingOrderExecution(FIRST_RUN, FIRST_RUN, 0, StandingOrderExecution.Outcome.RETRYING, "Insufficient funds"))));
+
+        mockMvc.perform(get("/api/standing-orders/SO1/executions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].outcome").value("RETRYING"))
+                .andExpect(jsonPath("$[1].error").value("Insufficient funds"));
+    }
+}
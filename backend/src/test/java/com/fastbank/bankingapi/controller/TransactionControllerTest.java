@@ -0,0 +1,62 @@
+package com.fastbank.bankingapi.controller;
+
+import com.fastbank.bankingapi.dto.BatchRequest;
+import com.fastbank.bankingapi.dto.BatchResult;
+import com.fastbank.bankingapi.service.BatchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(TransactionController.class)
+class TransactionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private BatchService batchService;
+
+    @Test
+    void testBatch() throws Exception {
+        BatchRequest expected = new BatchRequest(true, List.of(
+            new BatchRequest.Operation(BatchRequest.Type.DEPOSIT, "ACC1", null, new BigDecimal("100.00"), "Salary"),
+            new BatchRequest.Operation(BatchRequest.Type.TRANSFER, "ACC1", "ACC2", new BigDecimal("25"), "Rent")));
+        when(batchService.apply(eq(expected))).thenReturn(new BatchResult(1, 1, List.of(
+            new BatchResult.Item(0, BatchResult.Status.NOT_APPLIED, null),
+            new BatchResult.Item(1, BatchResult.Status.FAILED, "Insufficient funds"))));
+
+        mockMvc.perform(post("/api/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {"atomic": true, "operations": [
+                      {"type": "DEPOSIT", "accountNumber": "ACC1", "amount": 100.00, "description": "Salary"},
+                      {"type": "TRANSFER", "accountNumber": "ACC1", "toAccountNumber": "ACC2", "amount": 25, "description": "Rent"}
+                    ]}"""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].status").value("NOT_APPLIED"))
+                .andExpect(jsonPath("$.items[1].error").value("Insufficient funds"));
+    }
+
+    @Test
+    void testBatch_TooLarge() throws Exception {
+        when(batchService.apply(any())).thenThrow(new IllegalArgumentException("A batch must contain 1 to 10000 operations"));
+
+        mockMvc.perform(post("/api/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"operations\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("A batch must contain 1 to 10000 operations"));
+    }
+}
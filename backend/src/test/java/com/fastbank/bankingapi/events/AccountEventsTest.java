@@ -0,0 +1,156 @@
+package com.fastbank.bankingapi.events;
+
+import com.fastbank.bankingapi.dto.AccountEvent;
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.Transaction;
+import com.fastbank.bankingapi.repository.AccountRepository;
+import com.fastbank.bankingapi.service.AccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+class AccountEventsTest {
+
+    private final AccountEvents events = new AccountEvents();
+
+    // Records what would be written to the client, optionally stalling or failing like a slow or closed one
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> names = new CopyOnWriteArrayList<>();
+        final List<AccountEvent> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean stallAfterFirst;
+        volatile boolean fail;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (fail) {
+                throw new IOException("Broken pipe");
+            }
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof AccountEvent event) {
+                    events.add(event);
+                } else if (part.getData() instanceof String text && text.startsWith("event:")) {
+                    names.add(text.substring("event:".length(), text.indexOf('\n')));
+                }
+            }
+            if (stallAfterFirst) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        events.close();
+    }
+
+    @Test
+    void testStreamOpensWithSnapshotThenTransactions() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        events.subscribe("ACC1", 10_000, emitter);
+        Transaction deposit = new Transaction("ACC1", "DEPOSIT", new BigDecimal("25.00"), "Salary");
+        Transaction withdrawal = new Transaction("ACC1", "WITHDRAW", new BigDecimal("5.50"), "Lunch");
+        events.publish("ACC1", deposit, 12_500);
+        events.publish("ACC1", withdrawal, 11_950);
+        events.publish("ACC2", deposit, 1);
+
+        await(() -> emitter.events.size() == 3);
+        assertEquals(List.of(AccountEvents.SNAPSHOT, AccountEvents.TRANSACTION, AccountEvents.TRANSACTION), emitter.names);
+        assertEquals(new AccountEvent("ACC1", new BigDecimal("100.00"), null), emitter.events.get(0));
+        assertEquals(new AccountEvent("ACC1", new BigDecimal("125.00"), deposit), emitter.events.get(1));
+        assertEquals(new AccountEvent("ACC1", new BigDecimal("119.50"), withdrawal), emitter.events.get(2));
+        assertEquals(3, events.getSentCount());
+    }
+
+    @Test
+    void testSlowSubscriberIsCoalescedWithoutHoldingUpPublishers() throws Exception {
+        ReflectionTestUtils.setField(events, "bufferSize", 4);
+        RecordingEmitter slow = new RecordingEmitter();
+        slow.stallAfterFirst = true;
+        RecordingEmitter fast = new RecordingEmitter();
+        events.subscribe("ACC1", 0, slow);
+        events.subscribe("ACC1", 0, fast);
+        await(() -> slow.events.size() == 1);
+
+        Transaction deposit = new Transaction("ACC1", "DEPOSIT", new BigDecimal("1.00"), "Coin");
+        for (int i = 1; i <= 100; i++) {
+            events.publish("ACC1", deposit, i * 100L);
+        }
+        // Publishing never waited on the stalled stream, and the other one caught up meanwhile
+        await(() -> new BigDecimal("100.00").equals(lastBalance(fast)));
+        assertEquals(1, slow.events.size());
+        slow.stallAfterFirst = false;
+        slow.release.countDown();
+
+        await(() -> new BigDecimal("100.00").equals(lastBalance(slow)));
+        assertTrue(slow.events.size() < 101, "slow subscriber received " + slow.events.size());
+        assertEquals(AccountEvents.SNAPSHOT, slow.names.get(1));
+        assertTrue(events.getCoalescedCount() > 0);
+    }
+
+    @Test
+    void testBrokenStreamIsDropped() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.fail = true;
+        events.subscribe("ACC1", 0, emitter);
+
+        await(() -> events.getSubscriberCount() == 0);
+        events.publish("ACC1", new Transaction("ACC1", "DEPOSIT", BigDecimal.ONE, "Late"), 100);
+        assertEquals(0, events.getSentCount());
+    }
+
+    @Test
+    void testServicePublishesBothLegsOfATransfer() throws Exception {
+        AccountRepository accountRepository = new AccountRepository();
+        AccountService accountService = new AccountService();
+        ReflectionTestUtils.setField(accountService, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(accountService, "accountEvents", events);
+        for (String accountNumber : List.of("ACCA", "ACCB")) {
+            Account account = new Account("Owner " + accountNumber);
+            account.setAccountNumber(accountNumber);
+            account.setBalance(new BigDecimal("100.00"));
+            accountRepository.save(account);
+        }
+        RecordingEmitter from = new RecordingEmitter();
+        RecordingEmitter to = new RecordingEmitter();
+        events.subscribe("ACCA", 10_000, from);
+        events.subscribe("ACCB", 10_000, to);
+
+        accountService.transfer("ACCA", "ACCB", new BigDecimal("30.00"), "Rent");
+        assertThrows(RuntimeException.class, () -> accountService.withdraw("ACCA", new BigDecimal("500.00"), "Too much"));
+
+        await(() -> from.events.size() == 2 && to.events.size() == 2);
+        assertEquals(new BigDecimal("70.00"), from.events.get(1).balance());
+        assertEquals("WITHDRAW", from.events.get(1).transaction().getType());
+        assertEquals(new BigDecimal("130.00"), to.events.get(1).balance());
+        assertEquals("DEPOSIT", to.events.get(1).transaction().getType());
+        assertTrue(accountService.subscribe("MISSING").isEmpty());
+    }
+
+    private static BigDecimal lastBalance(RecordingEmitter emitter) {
+        List<AccountEvent> received = emitter.events;
+        return received.isEmpty() ? null : received.get(received.size() - 1).balance();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for events");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.fastbank.bankingapi.metrics;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsCoverEveryValueWithinThreePercent() {
+        for (long value = 0; value < 10_000_000; value = value * 3 / 2 + 1) {
+            int index = LatencyHistogram.indexOf(value);
+            long highest = LatencyHistogram.highestValueAt(index);
+            assertTrue(highest >= value, "bucket upper bound below value " + value);
+            assertTrue(highest - value <= Math.max(1, value / 32), "bucket too wide for " + value + ": " + highest);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestValueAt(index - 1) < value, "value " + value + " also fits the previous bucket");
+            }
+        }
+    }
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500_500_000L, snapshot.getSum());
+        assertEquals(500_000, snapshot.valueAtPercentile(50), 500_000 / 32.0);
+        assertEquals(990_000, snapshot.valueAtPercentile(99), 990_000 / 32.0);
+        assertEquals(1_000_000, snapshot.valueAtPercentile(100), 1_000_000 / 32.0);
+    }
+
+    @Test
+    void testOutOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(0, snapshot.valueAtPercentile(50));
+        assertTrue(snapshot.valueAtPercentile(100) >= (1L << 39));
+        assertEquals(0, new LatencyHistogram().snapshot().valueAtPercentile(99));
+    }
+}
@@ -0,0 +1,76 @@
+package com.fastbank.bankingapi.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class AccountNumbersTest {
+
+    @Test
+    void testFormatAndCheckDigit() {
+        String number = AccountNumbers.next();
+
+        assertEquals(23, number.length());
+        assertTrue(number.startsWith("ACC"));
+        assertTrue(AccountNumbers.isValid(number));
+        assertEquals("ACC00000000000000000000", AccountNumbers.format(0));
+        // 7992739871 is the textbook Luhn example, with check digit 3
+        assertEquals("ACC00000000079927398713", AccountNumbers.format(7992739871L));
+        assertTrue(AccountNumbers.isValid("ACC00000000079927398713"));
+    }
+
+    @Test
+    void testCheckDigitCatchesTypos() {
+        String number = AccountNumbers.format(7992739871L);
+        char[] digits = number.toCharArray();
+        digits[15] = digits[15] == '9' ? '0' : (char) (digits[15] + 1);
+        assertFalse(AccountNumbers.isValid(new String(digits)));
+        // Adjacent transposition
+        String swapped = number.substring(0, 15) + number.charAt(16) + number.charAt(15) + number.substring(17);
+        assertFalse(AccountNumbers.isValid(swapped));
+        assertFalse(AccountNumbers.isValid("ACC1234567890"));
+        assertFalse(AccountNumbers.isValid(null));
+    }
+
+    @Test
+    void testUniqueAndOrderedAcrossThreads() throws Exception {
+        int threads = 4;
+        int perThread = 100_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                List<String> numbers = new ArrayList<>(perThread);
+                for (int i = 0; i < perThread; i++) {
+                    numbers.add(AccountNumbers.next());
+                }
+                return numbers;
+            }));
+        }
+        Set<String> all = new HashSet<>();
+        for (Future<List<String>> future : futures) {
+            List<String> numbers = future.get(30, TimeUnit.SECONDS);
+            for (int i = 1; i < numbers.size(); i++) {
+                assertTrue(numbers.get(i - 1).compareTo(numbers.get(i)) < 0);
+            }
+            all.addAll(numbers);
+        }
+        executor.shutdown();
+
+        // Far more than 4096 a millisecond fit in no time at all, so sequences spill into later milliseconds
+        assertEquals(threads * perThread, all.size());
+    }
+
+    @Test
+    void testRejectsOutOfRangeNode() {
+        assertThrows(IllegalArgumentException.class, () -> AccountNumbers.setNode(AccountNumbers.MAX_NODE + 1));
+        assertThrows(IllegalArgumentException.class, () -> AccountNumbers.setNode(-1));
+    }
+}
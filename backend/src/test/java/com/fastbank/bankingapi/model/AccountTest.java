@@ -4,6 +4,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import static org.junit.jupiter.api.Assertions.*;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 class AccountTest {
 
@@ -19,7 +25,7 @@ class AccountTest {
         assertNotNull(account.getAccountNumber());
         assertTrue(account.getAccountNumber().startsWith("ACC"));
         assertEquals("John Doe", account.getOwnerName());
-        assertEquals(BigDecimal.ZERO, account.getBalance());
+        assertEquals(new BigDecimal("0.00"), account.getBalance());
         assertNotNull(account.getCreatedAt());
         assertNotNull(account.getTransactions());
         assertTrue(account.getTransactions().isEmpty());
@@ -56,4 +62,56 @@ class AccountTest {
         assertEquals(1, account.getTransactions().size());
         assertEquals(transaction, account.getTransactions().get(0));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testCreditAndDebit() {
+        account.credit(new Transaction(account.getAccountNumber(), "DEPOSIT", new BigDecimal("100.50"), "Salary"));
+        account.debit(new Transaction(account.getAccountNumber(), "WITHDRAW", new BigDecimal("0.25"), "Fee"));
+
+        assertEquals(10025, account.getBalanceMinorUnits());
+        assertEquals(new BigDecimal("100.25"), account.getBalance());
+        assertEquals(2, account.getTransactions().size());
+    }
+
+    @Test
+    void testDebitInsufficientFunds() {
+        account.setBalance(new BigDecimal("10.00"));
+
+        assertFalse(account.tryDebitMinorUnits(1001));
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+            account.debit(new Transaction(account.getAccountNumber(), "WITHDRAW", new BigDecimal("10.01"), "Too much")));
+
+        assertEquals("Insufficient funds", exception.getMessage());
+        assertEquals(1000, account.getBalanceMinorUnits());
+        assertTrue(account.getTransactions().isEmpty());
+    }
+
+    @Test
+    void testCreditOverflow() {
+        account.creditMinorUnits(Long.MAX_VALUE - 1);
+
+        assertThrows(ArithmeticException.class, () -> account.creditMinorUnits(2));
+        assertEquals(Long.MAX_VALUE - 1, account.getBalanceMinorUnits());
+    }
+
+    @Test
+    void testConcurrentCreditsAndDebits() throws Exception {
+        account.setBalance(new BigDecimal("100.00"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    account.creditMinorUnits(3);
+                    assertTrue(account.tryDebitMinorUnits(2));
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(10_000 + 4 * 10_000, account.getBalanceMinorUnits());
+    }
+}
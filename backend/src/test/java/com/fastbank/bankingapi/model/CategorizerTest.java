@@ -0,0 +1,90 @@
+package com.fastbank.bankingapi.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class CategorizerTest {
+
+    @Test
+    void testBuiltInRulesMatchAnywhereIgnoringCase() {
+        Categorizer categorizer = Categorizer.builtIn();
+
+        assertEquals("Food", categorizer.categorize("SUPERMARKET run"));
+        assertEquals("Transportation", categorizer.categorize("Shell Fuel"));
+        assertEquals("Income", categorizer.categorize("monthly PayRoll"));
+        // Substring match, as before
+        assertEquals("Transportation", categorizer.categorize("Trip to Las Vegas"));
+        assertEquals("Other", categorizer.categorize("Random expense"));
+        assertEquals("Other", categorizer.categorize(""));
+        assertEquals("Other", categorizer.categorize(null));
+    }
+
+    @Test
+    void testEarlierRuleWinsWhereverItMatches() {
+        Categorizer categorizer = Categorizer.compile(List.of(
+            new Categorizer.Rule("rent", "Housing"),
+            new Categorizer.Rule("car rental", "Transportation"),
+            new Categorizer.Rule("rental", "Leisure")));
+
+        // "rental" ends first, but "rent" inside it belongs to the first rule
+        assertEquals("Housing", categorizer.categorize("Car rental at airport"));
+        assertEquals("Leisure", Categorizer.compile(List.of(
+            new Categorizer.Rule("ski rental", "Leisure"),
+            new Categorizer.Rule("rent", "Housing"))).categorize("Ski Rental"));
+    }
+
+    @Test
+    void testFailureLinksFindOverlappingKeywords() {
+        Categorizer categorizer = Categorizer.compile(List.of(
+            new Categorizer.Rule("abcd", "First"),
+            new Categorizer.Rule("bcx", "Second"),
+            new Categorizer.Rule("café", "Third")));
+
+        assertEquals("Second", categorizer.categorize("abcx"));
+        assertEquals("First", categorizer.categorize("ababcd"));
+        assertEquals("Third", categorizer.categorize("CAFÉ Central"));
+        assertEquals("Other", categorizer.categorize("abc bcd"));
+    }
+
+    @Test
+    void testAgreesWithContainsChainOnManyRules() {
+        Random random = new Random(42);
+        List<Categorizer.Rule> rules = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            rules.add(new Categorizer.Rule(word(random, 3 + random.nextInt(6)), "Category " + (i % 50)));
+        }
+        Categorizer categorizer = Categorizer.compile(rules);
+
+        for (int n = 0; n < 2_000; n++) {
+            String description = word(random, 5 + random.nextInt(40)).toUpperCase();
+            String expected = "Other";
+            for (Categorizer.Rule rule : rules) {
+                if (description.toLowerCase().contains(rule.keyword())) {
+                    expected = rule.category();
+                    break;
+                }
+            }
+            assertEquals(expected, categorizer.categorize(description), description);
+        }
+    }
+
+    // Small alphabet so random descriptions actually contain keywords
+    private static String word(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(6)));
+        }
+        return word.toString();
+    }
+
+    @Test
+    void testRejectsBlankRules() {
+        assertThrows(IllegalArgumentException.class,
+            () -> Categorizer.compile(List.of(new Categorizer.Rule(" ", "Food"))));
+        assertThrows(IllegalArgumentException.class,
+            () -> Categorizer.compile(List.of(new Categorizer.Rule("grocery", ""))));
+    }
+}
@@ -0,0 +1,32 @@
+package com.fastbank.bankingapi.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.math.BigDecimal;
+
+class MoneyTest {
+
+    @Test
+    void testToMinorUnits() {
+        assertEquals(10050, Money.toMinorUnits(new BigDecimal("100.50")));
+        assertEquals(10000, Money.toMinorUnits(new BigDecimal("100")));
+        assertEquals(-5, Money.toMinorUnits(new BigDecimal("-0.05")));
+        assertEquals(150000, Money.toMinorUnits(new BigDecimal("1.5E+3")));
+    }
+
+    @Test
+    void testToMinorUnitsRejectsSubCentAmounts() {
+        assertThrows(IllegalArgumentException.class, () -> Money.toMinorUnits(new BigDecimal("0.001")));
+    }
+
+    @Test
+    void testToMinorUnitsRejectsOutOfRangeAmounts() {
+        assertThrows(IllegalArgumentException.class, () -> Money.toMinorUnits(new BigDecimal("1E+20")));
+    }
+
+    @Test
+    void testFromMinorUnits() {
+        assertEquals(new BigDecimal("100.50"), Money.fromMinorUnits(10050));
+        assertEquals(new BigDecimal("0.00"), Money.fromMinorUnits(0));
+    }
+}
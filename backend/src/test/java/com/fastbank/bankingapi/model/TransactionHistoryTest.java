@@ -0,0 +1,258 @@
+package com.fastbank.bankingapi.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+class TransactionHistoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private TransactionHistory history;
+    private HistorySegments segments;
+
+    @TempDir
+    Path segmentDir;
+
+    @BeforeEach
+    void setUp() {
+        history = new TransactionHistory();
+        for (int day = 0; day < 10; day++) {
+            history.add(transactionOn(day, "Day " + day));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        TransactionHistory.disableTiering();
+        if (segments != null) {
+            segments.close();
+        }
+    }
+
+    private void enableTiering(int hotEntries, Duration hotAge, int blockEntries) throws IOException {
+        // Small segments, so blocks spread over several files
+        segments = HistorySegments.open(segmentDir, 512);
+        TransactionHistory.enableTiering(new TransactionHistory.Tiering(segments, hotEntries, hotAge, blockEntries));
+    }
+
+    private static Transaction transactionOn(int day, String description) {
+        Transaction transaction = new Transaction("ACC123", "DEPOSIT", new BigDecimal("10.00"), description);
+        transaction.setTimestamp(START.plusDays(day));
+        return transaction;
+    }
+
+    @Test
+    void testPagesNewestFirstWithCursor() {
+        TransactionHistory.Page first = history.page(null, null, null, 4);
+        assertEquals(List.of("Day 9", "Day 8", "Day 7", "Day 6"), descriptions(first));
+        assertNotNull(first.nextCursor());
+
+        TransactionHistory.Page second = history.page(null, null, first.nextCursor(), 4);
+        assertEquals(List.of("Day 5", "Day 4", "Day 3", "Day 2"), descriptions(second));
+
+        TransactionHistory.Page last = history.page(null, null, second.nextCursor(), 4);
+        assertEquals(List.of("Day 1", "Day 0"), descriptions(last));
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void testTimeRangeIsFromInclusiveToExclusive() {
+        TransactionHistory.Page page = history.page(START.plusDays(3), START.plusDays(6), null, 10);
+        assertEquals(List.of("Day 5", "Day 4", "Day 3"), descriptions(page));
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void testCursorPagingWithinRange() {
+        TransactionHistory.Page first = history.page(START.plusDays(2), null, null, 5);
+        assertEquals(List.of("Day 9", "Day 8", "Day 7", "Day 6", "Day 5"), descriptions(first));
+
+        // Entries appended after the first page do not shift later pages
+        history.add(transactionOn(20, "Day 20"));
+        TransactionHistory.Page second = history.page(START.plusDays(2), null, first.nextCursor(), 5);
+        assertEquals(List.of("Day 4", "Day 3", "Day 2"), descriptions(second));
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void testBackdatedEntryIsInsertedInOrder() {
+        Transaction backdated = new Transaction("ACC123", "DEPOSIT", new BigDecimal("1.00"), "Backdated");
+        backdated.setTimestamp(START.plusDays(4).plusHours(12));
+        history.add(backdated);
+
+        assertEquals(11, history.size());
+        assertEquals("Backdated", history.get(5).getDescription());
+        assertEquals("Day 5", history.get(6).getDescription());
+    }
+
+    @Test
+    void testConstructedFromUnorderedList() {
+        TransactionHistory copy = new TransactionHistory(List.of(transactionOn(2, "b"), transactionOn(0, "a"), transactionOn(5, "c")));
+        assertEquals(List.of("a", "b", "c"), copy.stream().map(Transaction::getDescription).toList());
+    }
+
+    @Test
+    void testEntriesRoundTripThroughTheColumns() {
+        Transaction original = new Transaction("ACC123", "WITHDRAW", new BigDecimal("12.5"), "Groceries at the supermarket");
+        original.setTimestamp(START.plusDays(30).plusNanos(123_456_789));
+        history.add(original);
+
+        Transaction read = history.get(history.size() - 1);
+        assertNotSame(original, read);
+        assertEquals(original, read);
+        assertEquals(original.getId(), read.getId());
+        assertEquals("ACC123", read.getAccountId());
+        assertEquals(new BigDecimal("12.50"), read.getAmount());
+        assertEquals(original.getTimestamp(), read.getTimestamp());
+        assertEquals("Food", read.getCategory());
+    }
+
+    @Test
+    void testEntriesTheColumnsCannotHoldAreKeptAsIs() {
+        Transaction customId = transactionOn(11, "Imported");
+        customId.setId("legacy-42");
+        Transaction subCent = transactionOn(12, "Interest");
+        subCent.setAmount(new BigDecimal("0.001"));
+        Transaction otherAccount = new Transaction("ACC999", "DEPOSIT", new BigDecimal("1.00"), "Misfiled");
+        otherAccount.setTimestamp(START.plusDays(13));
+        history.add(customId);
+        history.add(subCent);
+        history.add(otherAccount);
+
+        assertEquals("legacy-42", history.get(10).getId());
+        assertEquals(new BigDecimal("0.001"), history.get(11).getAmount());
+        assertEquals("ACC999", history.get(12).getAccountId());
+        // Regular entries around them are unaffected, also after a back-dated insert shifts them all
+        history.add(transactionOn(-1, "First"));
+        assertEquals("First", history.get(0).getDescription());
+        assertEquals("legacy-42", history.get(11).getId());
+        assertEquals("Day 9", history.get(10).getDescription());
+    }
+
+    @Test
+    void testOldEntriesMoveToTheColdTierAndReadBackUnchanged() throws IOException {
+        enableTiering(4, Duration.ZERO, 4);
+        TransactionHistory tiered = new TransactionHistory();
+        List<Transaction> added = new ArrayList<>();
+        for (int day = 0; day < 30; day++) {
+            Transaction transaction = transactionOn(day, day % 2 == 0 ? "Rent" : "Day " + day);
+            if (day == 3) {
+                transaction.setId("legacy-3");
+            }
+            added.add(transaction);
+            tiered.add(transaction);
+        }
+
+        assertEquals(30, tiered.size());
+        assertTrue(tiered.hotSize() < 8, "hot tier holds " + tiered.hotSize());
+        assertTrue(segments.getSegmentCount() > 1);
+        assertEquals(added, new ArrayList<>(tiered));
+        assertEquals("legacy-3", tiered.get(3).getId());
+
+        // Pages and time ranges run across both tiers
+        TransactionHistory.Page page = tiered.page(START.plusDays(20), START.plusDays(28), null, 5);
+        assertEquals(List.of("Day 27", "Rent", "Day 25", "Rent", "Day 23"), descriptions(page));
+        page = tiered.page(START.plusDays(20), START.plusDays(28), page.nextCursor(), 5);
+        assertEquals(List.of("Rent", "Day 21", "Rent"), descriptions(page));
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void testBackDatedEntryIsInsertedInOrderAcrossTiers() throws IOException {
+        enableTiering(4, Duration.ZERO, 4);
+        TransactionHistory tiered = new TransactionHistory(history);
+        for (int day = 10; day < 20; day++) {
+            tiered.add(transactionOn(day, "Day " + day));
+        }
+        Transaction backDated = transactionOn(5, "Day 5b");
+        backDated.setTimestamp(START.plusDays(5).plusHours(1));
+        tiered.add(backDated);
+        tiered.add(transactionOn(-1, "First"));
+
+        List<String> descriptions = tiered.stream().map(Transaction::getDescription).toList();
+        assertEquals("First", descriptions.get(0));
+        assertEquals(List.of("Day 5", "Day 5b", "Day 6"), descriptions.subList(6, 9));
+        assertEquals("Day 19", descriptions.get(21));
+        assertTrue(tiered.hotSize() < 8, "hot tier holds " + tiered.hotSize());
+    }
+
+    @Test
+    void testHotTierAgeLimit() throws IOException {
+        enableTiering(1000, Duration.ofDays(1), 2);
+        TransactionHistory tiered = new TransactionHistory();
+        for (int day = 0; day < 5; day++) {
+            tiered.add(transactionOn(day, "Day " + day));
+        }
+        for (int i = 0; i < 3; i++) {
+            tiered.add(new Transaction("ACC123", "DEPOSIT", new BigDecimal("1.00"), "Today"));
+        }
+
+        // Two full blocks of old entries are cold; the old one left over shares a block with recent ones
+        assertEquals(4, tiered.hotSize());
+        assertEquals("Day 4", tiered.get(4).getDescription());
+        assertEquals("Today", tiered.get(7).getDescription());
+    }
+
+    @Test
+    void testInsightsTotalsAsEntriesAreAdded() {
+        TransactionHistory account = new TransactionHistory(List.of(entry("DEPOSIT", "2000.00", "Monthly salary", START)));
+        account.add(entry("WITHDRAW", "45.50", "Supermarket", START.plusDays(3)));
+        account.add(entry("WITHDRAW", "70.00", "Fuel", START.plusMonths(1)));
+        account.add(entry("WITHDRAW", "14.50", "Grocery store", START.plusMonths(1).plusDays(2)));
+        // Back-dated into an earlier month
+        account.add(entry("DEPOSIT", "5.00", "Refund", START.plusDays(10)));
+
+        Map<String, SpendingInsights.Totals> categories = account.insights().byCategory();
+        assertEquals(List.of("Transportation", "Food", "Income", "Other"), List.copyOf(categories.keySet()));
+        assertEquals(new SpendingInsights.Totals(0, 6000, 2), categories.get("Food"));
+        assertEquals(new SpendingInsights.Totals(200000, 0, 1), categories.get("Income"));
+
+        Map<YearMonth, SpendingInsights.Totals> months = account.insights().byMonth();
+        assertEquals(List.of(YearMonth.of(2025, 1), YearMonth.of(2025, 2)), List.copyOf(months.keySet()));
+        assertEquals(new SpendingInsights.Totals(200500, 4550, 3), months.get(YearMonth.of(2025, 1)));
+        assertEquals(new SpendingInsights.Totals(0, 8450, 2), months.get(YearMonth.of(2025, 2)));
+    }
+
+    @Test
+    void testInsightsMonthsRollOver() {
+        TransactionHistory account = new TransactionHistory();
+        for (int month = 0; month < SpendingInsights.MONTHS + 6; month++) {
+            account.add(entry("WITHDRAW", "1.00", "Rent", START.plusMonths(month)));
+        }
+        // Older than the ring: counted for its category only
+        account.add(entry("WITHDRAW", "1.00", "Rent", START));
+
+        Map<YearMonth, SpendingInsights.Totals> months = account.insights().byMonth();
+        assertEquals(SpendingInsights.MONTHS, months.size());
+        assertEquals(YearMonth.from(START.plusMonths(6)), months.keySet().iterator().next());
+        assertEquals(new SpendingInsights.Totals(0, 100, 1), months.get(YearMonth.from(START.plusMonths(6))));
+        assertEquals(SpendingInsights.MONTHS + 7, account.insights().byCategory().get("Other").count());
+    }
+
+    private static Transaction entry(String type, String amount, String description, LocalDateTime time) {
+        Transaction transaction = new Transaction("ACC123", type, new BigDecimal(amount), description);
+        transaction.setTimestamp(time);
+        return transaction;
+    }
+
+    @Test
+    void testInvalidCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> history.page(null, null, 11, 5));
+    }
+
+    private static List<String> descriptions(TransactionHistory.Page page) {
+        return page.items().stream().map(Transaction::getDescription).toList();
+    }
+}
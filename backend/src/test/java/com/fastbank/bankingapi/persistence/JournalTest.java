@@ -0,0 +1,111 @@
+package com.fastbank.bankingapi.persistence;
+
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+class JournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendAndReplay() throws IOException {
+                Account account = new Account("John Doe");
+        account.setBalance(new BigDecimal("10.00"));
+        Transaction deposit = new Transaction(account.getAccountNumber(), "DEPOSIT", new BigDecimal("25.50"), "Salary payroll");
+
+        try (Journal journal = new Journal(directory, 1, true)) {
+            journal.start();
+            long first = journal.append(JournalRecord.open(account));
+            long second = journal.append(JournalRecord.credit(account.getAccountNumber(), deposit));
+            journal.awaitDurable(second);
+            assertEquals(1, first);
+            assertEquals(2, second);
+            assertTrue(journal.getDurableSequence() >= second);
+        }
+
+        List<JournalRecord> replayed = new ArrayList<>();
+        try (Journal journal = new Journal(directory, 1, true)) {
+            assertEquals(2, journal.replay(replayed::add));
+            journal.start();
+            assertEquals(3, journal.append(JournalRecord.open(new Account("Jane Smith"))));
+        }
+
+        assertEquals(JournalRecord.Kind.OPEN, replayed.get(0).getKind());
+        Account restored = replayed.get(0).getAccount();
+        assertEquals(account.getAccountNumber(), restored.getAccountNumber());
+        assertEquals("John Doe", restored.getOwnerName());
+        assertEquals(new BigDecimal("10.00"), restored.getBalance());
+        assertEquals(account.getCreatedAt(), restored.getCreatedAt());
+
+        JournalRecord.Posting posting = replayed.get(1).getPostings().get(0);
+        assertTrue(posting.credit());
+        assertEquals(deposit.getId(), posting.transaction().getId());
+        assertEquals(new BigDecimal("25.50"), posting.transaction().getAmount());
+        assertEquals(deposit.getTimestamp(), posting.transaction().getTimestamp());
+        assertEquals("Income", posting.transaction().getCategory());
+    }
+
+    @Test
+    void testTornTailIsTruncated() throws IOException {
+                try (Journal journal = new Journal(directory, 0, false)) {
+            journal.start();
+            journal.awaitDurable(journal.append(JournalRecord.open(new Account("John Doe"))));
+        }
+        // Simulate a crash halfway through writing the next record
+        Path segment = directory.resolve(String.format("ledger-%020d.journal", 1));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2, 3}));
+        }
+        long intactSize;
+        try (Journal journal = new Journal(directory, 0, false)) {
+            assertEquals(1, journal.replay(record -> { }));
+            intactSize = Files.size(segment);
+            journal.start();
+            assertEquals(2, journal.append(JournalRecord.open(new Account("Jane Smith"))));
+        }
+        assertTrue(intactSize > 0);
+
+        List<JournalRecord> replayed = new ArrayList<>();
+        try (Journal journal = new Journal(directory, 0, false)) {
+            journal.replay(replayed::add);
+        }
+        assertEquals(2, replayed.size());
+        assertEquals("Jane Smith", replayed.get(1).getAccount().getOwnerName());
+    }
+
+    @Test
+    void testRollAndDeleteCoveredSegments() throws IOException {
+        try (Journal journal = new Journal(directory, 0, false)) {
+            journal.start();
+            journal.append(JournalRecord.open(new Account("John Doe")));
+            journal.append(JournalRecord.open(new Account("Jane Smith")));
+            long cut = journal.roll();
+            assertEquals(3, cut);
+            journal.awaitDurable(journal.append(JournalRecord.open(new Account("Bob Wilson"))));
+
+            assertEquals(1, journal.deleteSegmentsBefore(cut));
+        }
+
+        List<JournalRecord> replayed = new ArrayList<>();
+        try (Journal journal = new Journal(directory, 0, false)) {
+            journal.replay(replayed::add, 3);
+            journal.start();
+            assertEquals(4, journal.append(JournalRecord.open(new Account("Alice"))));
+        }
+        assertEquals(1, replayed.size());
+        assertEquals("Bob Wilson", replayed.get(0).getAccount().getOwnerName());
+    }
+}
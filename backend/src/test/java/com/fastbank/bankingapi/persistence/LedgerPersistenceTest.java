@@ -0,0 +1,305 @@
+package com.fastbank.bankingapi.persistence;
+
+import com.fastbank.bankingapi.dto.BatchRequest;
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.Transaction;
+import com.fastbank.bankingapi.repository.AccountLocks;
+import com.fastbank.bankingapi.repository.AccountRepository;
+import com.fastbank.bankingapi.service.AccountService;
+import com.fastbank.bankingapi.service.BatchService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+class LedgerPersistenceTest {
+
+    @TempDir
+    Path directory;
+
+    private AccountLocks locks = new AccountLocks();
+
+    private AccountService serviceFor(AccountRepository repository) {
+        AccountService service = new AccountService();
+        ReflectionTestUtils.setField(service, "accountRepository", repository);
+        ReflectionTestUtils.setField(service, "accountLocks", locks);
+        return service;
+    }
+
+    private LedgerPersistence start(AccountRepository repository) throws Exception {
+        ReflectionTestUtils.setField(repository, "accountLocks", locks);
+        LedgerPersistence persistence = new LedgerPersistence();
+        ReflectionTestUtils.setField(persistence, "accountRepository", repository);
+        ReflectionTestUtils.setField(persistence, "directory", directory);
+        ReflectionTestUtils.setField(persistence, "groupCommitWindowMillis", 1L);
+        ReflectionTestUtils.setField(persistence, "fsync", true);
+        ReflectionTestUtils.setField(persistence, "accountLocks", locks);
+        ReflectionTestUtils.setField(persistence, "snapshotIntervalSeconds", 0L);
+        persistence.recover();
+        return persistence;
+    }
+
+    @Test
+    void testLedgerSurvivesRestart() throws Exception {
+        AccountRepository repository = new AccountRepository();
+        LedgerPersistence persistence = start(repository);
+        AccountService service = serviceFor(repository);
+
+        Account john = service.createAccount("John Doe");
+        Account jane = service.createAccount("Jane Smith");
+        service.deposit(john.getAccountNumber(), new BigDecimal("100.00"), "Salary");
+        service.withdraw(john.getAccountNumber(), new BigDecimal("30.00"), "Groceries");
+        service.transfer(john.getAccountNumber(), jane.getAccountNumber(), new BigDecimal("20.00"), "Rent");
+        persistence.close();
+
+        AccountRepository recovered = new AccountRepository();
+        LedgerPersistence restarted = start(recovered);
+        try {
+            Account johnAfter = recovered.findByAccountNumber(john.getAccountNumber()).orElseThrow();
+            Account janeAfter = recovered.findByAccountNumber(jane.getAccountNumber()).orElseThrow();
+            assertEquals(new BigDecimal("50.00"), johnAfter.getBalance());
+            assertEquals(new BigDecimal("20.00"), janeAfter.getBalance());
+            assertEquals(3, johnAfter.getTransactions().size());
+            assertEquals(1, janeAfter.getTransactions().size());
+            assertEquals(john.getTransactions().get(2).getId(), johnAfter.getTransactions().get(2).getId());
+            assertEquals("Transfer from " + john.getAccountNumber() + ": Rent",
+                janeAfter.getTransactions().get(0).getDescription());
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void testSnapshotWhileWritingThenReplayTail() throws Exception {
+        AccountRepository repository = new AccountRepository();
+        LedgerPersistence persistence = start(repository);
+        AccountService service = serviceFor(repository);
+
+        Account john = service.createAccount("John Doe");
+        Account jane = service.createAccount("Jane Smith");
+        service.deposit(john.getAccountNumber(), new BigDecimal("1000.00"), "Salary");
+
+        // Writers keep moving money while the snapshot copies accounts
+        ExecutorService writers = Executors.newFixedThreadPool(2);
+        Future<?> forward = writers.submit(() -> {
+            for (int i = 0; i < 200; i++) {
+                service.transfer(john.getAccountNumber(), jane.getAccountNumber(), new BigDecimal("1.00"), "Sweep");
+            }
+        });
+        Future<?> back = writers.submit(() -> {
+            for (int i = 0; i < 100; i++) {
+                service.deposit(jane.getAccountNumber(), new BigDecimal("0.50"), "Cashback");
+            }
+        });
+        SnapshotStore.Summary summary = persistence.snapshot();
+        forward.get(30, TimeUnit.SECONDS);
+        back.get(30, TimeUnit.SECONDS);
+        writers.shutdown();
+        service.withdraw(jane.getAccountNumber(), new BigDecimal("10.00"), "ATM");
+        persistence.close();
+
+        assertEquals(2, summary.accounts());
+        try (Stream<Path> files = Files.list(directory)) {
+            // The segment fully covered by the snapshot is gone
+            assertEquals(0, files.filter(f -> f.getFileName().toString().equals(
+                String.format("ledger-%020d.journal", 1))).count());
+        }
+
+        AccountRepository recovered = new AccountRepository();
+        LedgerPersistence restarted = start(recovered);
+        try {
+            Account johnAfter = recovered.findByAccountNumber(john.getAccountNumber()).orElseThrow();
+            Account janeAfter = recovered.findByAccountNumber(jane.getAccountNumber()).orElseThrow();
+            assertEquals(new BigDecimal("800.00"), johnAfter.getBalance());
+            assertEquals(new BigDecimal("240.00"), janeAfter.getBalance());
+            assertEquals(201, johnAfter.getTransactions().size());
+            assertEquals(301, janeAfter.getTransactions().size());
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void testAtomicBatchSurvivesRestart() throws Exception {
+        AccountRepository repository = new AccountRepository();
+        LedgerPersistence persistence = start(repository);
+        AccountService service = serviceFor(repository);
+        BatchService batchService = new BatchService();
+        ReflectionTestUtils.setField(batchService, "accountRepository", repository);
+        ReflectionTestUtils.setField(batchService, "accountLocks", locks);
+        ReflectionTestUtils.setField(batchService, "accountService", service);
+
+        Account john = service.createAccount("John Doe");
+        Account jane = service.createAccount("Jane Smith");
+        // Several legs on the same account inside one journal record
+        batchService.apply(new BatchRequest(true, List.of(
+            new BatchRequest.Operation(BatchRequest.Type.DEPOSIT, john.getAccountNumber(), null, new BigDecimal("100.00"), "Salary"),
+            new BatchRequest.Operation(BatchRequest.Type.TRANSFER, john.getAccountNumber(), jane.getAccountNumber(), new BigDecimal("30.00"), "Rent"),
+            new BatchRequest.Operation(BatchRequest.Type.WITHDRAW, john.getAccountNumber(), null, new BigDecimal("20.00"), "ATM"))));
+        persistence.close();
+
+        AccountRepository recovered = new AccountRepository();
+        LedgerPersistence restarted = start(recovered);
+        try {
+            Account johnAfter = recovered.findByAccountNumber(john.getAccountNumber()).orElseThrow();
+            assertEquals(new BigDecimal("50.00"), johnAfter.getBalance());
+            assertEquals(3, johnAfter.getTransactions().size());
+            assertEquals(new BigDecimal("30.00"), recovered.findByAccountNumber(jane.getAccountNumber()).orElseThrow().getBalance());
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void testAtomicBatchWithManyLegsSurvivesRestart() throws Exception {
+        AccountRepository repository = new AccountRepository();
+        LedgerPersistence persistence = start(repository);
+        AccountService service = serviceFor(repository);
+        BatchService batchService = new BatchService();
+        ReflectionTestUtils.setField(batchService, "accountRepository", repository);
+        ReflectionTestUtils.setField(batchService, "accountLocks", locks);
+        ReflectionTestUtils.setField(batchService, "accountService", service);
+
+        Account john = service.createAccount("John Doe");
+        Account jane = service.createAccount("Jane Smith");
+        // 100 deposits and 100 two-legged transfers: 300 legs, past a one-byte leg count
+        List<BatchRequest.Operation> operations = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            operations.add(new BatchRequest.Operation(BatchRequest.Type.DEPOSIT, john.getAccountNumber(), null, new BigDecimal("2.00"), "Salary"));
+            operations.add(new BatchRequest.Operation(BatchRequest.Type.TRANSFER, john.getAccountNumber(), jane.getAccountNumber(), new BigDecimal("1.00"), "Rent"));
+        }
+        batchService.apply(new BatchRequest(true, operations));
+        persistence.close();
+
+        AccountRepository recovered = new AccountRepository();
+        LedgerPersistence restarted = start(recovered);
+        try {
+            Account johnAfter = recovered.findByAccountNumber(john.getAccountNumber()).orElseThrow();
+            Account janeAfter = recovered.findByAccountNumber(jane.getAccountNumber()).orElseThrow();
+            assertEquals(new BigDecimal("100.00"), johnAfter.getBalance());
+            assertEquals(200, johnAfter.getTransactions().size());
+            assertEquals(new BigDecimal("100.00"), janeAfter.getBalance());
+            assertEquals(100, janeAfter.getTransactions().size());
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void testShardedLedgerSurvivesRestart() throws Exception {
+        locks = new AccountLocks(64, 4);
+        AccountRepository repository = new AccountRepository(4);
+        LedgerPersistence persistence = start(repository);
+        AccountService service = serviceFor(repository);
+        BatchService batchService = new BatchService();
+        ReflectionTestUtils.setField(batchService, "accountRepository", repository);
+        ReflectionTestUtils.setField(batchService, "accountLocks", locks);
+        ReflectionTestUtils.setField(batchService, "accountService", service);
+
+        Account[] accounts = new Account[8];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = service.createAccount("Owner " + i);
+            service.deposit(accounts[i].getAccountNumber(), new BigDecimal("100.00"), "Salary");
+        }
+        // A ring of transfers, most of them across shards
+        for (int i = 0; i < accounts.length; i++) {
+            service.transfer(accounts[i].getAccountNumber(), accounts[(i + 1) % accounts.length].getAccountNumber(),
+                new BigDecimal("10.00").add(BigDecimal.valueOf(i)), "Rent");
+        }
+        batchService.apply(new BatchRequest(true, List.of(
+            new BatchRequest.Operation(BatchRequest.Type.TRANSFER, accounts[0].getAccountNumber(), accounts[5].getAccountNumber(), new BigDecimal("5.00"), "Split"),
+            new BatchRequest.Operation(BatchRequest.Type.TRANSFER, accounts[3].getAccountNumber(), accounts[6].getAccountNumber(), new BigDecimal("7.00"), "Split"))));
+        persistence.snapshot();
+        service.transfer(accounts[7].getAccountNumber(), accounts[2].getAccountNumber(), new BigDecimal("1.00"), "Tail");
+        persistence.close();
+
+        assertTrue(Files.isDirectory(directory.resolve("shard-03")));
+        AccountRepository recovered = new AccountRepository(4);
+        LedgerPersistence restarted = start(recovered);
+        try {
+            assertEquals(accounts.length, recovered.count());
+            for (Account account : accounts) {
+                Account after = recovered.findByAccountNumber(account.getAccountNumber()).orElseThrow();
+                assertEquals(account.getBalance(), after.getBalance());
+                assertEquals(account.getTransactions().size(), after.getTransactions().size());
+            }
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void testPreparedLegsWithoutCommitAreDiscarded() throws Exception {
+        locks = new AccountLocks(64, 4);
+        AccountRepository repository = new AccountRepository(4);
+        LedgerPersistence persistence = start(repository);
+        Account john = serviceFor(repository).createAccount("John Doe");
+        persistence.close();
+
+        // A crash between PREPARE and COMMIT leaves only the prepared leg behind
+        String number = john.getAccountNumber();
+        int shard = repository.shardOf(number).index();
+        Journal journal = new Journal(directory.resolve(String.format("shard-%02d", shard)), 1, true);
+        journal.start();
+        journal.awaitDurable(journal.append(JournalRecord.prepare(1L, List.of(
+            new JournalRecord.Posting(number, true, new Transaction(number, "DEPOSIT", new BigDecimal("500.00"), "Lost"))))));
+        journal.append(JournalRecord.prepare(2L, List.of(
+            new JournalRecord.Posting(number, true, new Transaction(number, "DEPOSIT", new BigDecimal("25.00"), "Kept")))));
+        journal.awaitDurable(journal.append(JournalRecord.commit(2L)));
+        journal.close();
+
+        AccountRepository recovered = new AccountRepository(4);
+        LedgerPersistence restarted = start(recovered);
+        try {
+            Account after = recovered.findByAccountNumber(number).orElseThrow();
+            assertEquals(new BigDecimal("25.00"), after.getBalance());
+            assertEquals(List.of("Kept"), after.getTransactions().stream().map(Transaction::getDescription).toList());
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void testRefusesToStartFromACorruptSnapshotOrAJournalGap() throws Exception {
+        AccountRepository repository = new AccountRepository();
+        LedgerPersistence persistence = start(repository);
+        AccountService service = serviceFor(repository);
+        Account john = service.createAccount("John Doe");
+        service.deposit(john.getAccountNumber(), new BigDecimal("100.00"), "Salary");
+        SnapshotStore.Summary summary = persistence.snapshot();
+        service.deposit(john.getAccountNumber(), new BigDecimal("5.00"), "Refund");
+        persistence.close();
+
+        // The journal before the cut is gone, so the snapshot is the only copy of the account
+        Path snapshot = directory.resolve(String.format("snapshot-%020d.snap", summary.cut()));
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 1] ^= 0x5A;
+        Files.write(snapshot, bytes);
+        assertThrows(IOException.class, () -> start(new AccountRepository()));
+
+        Files.delete(snapshot);
+        assertThrows(IOException.class, () -> start(new AccountRepository()));
+    }
+
+    @Test
+    void testRefusesDataWrittenWithAnotherShardCount() throws Exception {
+        AccountRepository repository = new AccountRepository();
+        LedgerPersistence persistence = start(repository);
+        serviceFor(repository).createAccount("John Doe");
+        persistence.close();
+
+        locks = new AccountLocks(64, 4);
+        assertThrows(IllegalStateException.class, () -> start(new AccountRepository(4)));
+    }
+}
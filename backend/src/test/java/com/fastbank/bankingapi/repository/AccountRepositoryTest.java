@@ -67,6 +67,105 @@ class AccountRepositoryTest {
         assertTrue(allAccounts.isEmpty());
     }
 
+    @Test
+    void testFindPage() {
+        for (String number : List.of("ACC3", "ACC1", "ACC5", "ACC2", "ACC4")) {
+            Account account = new Account("Owner " + number);
+            account.setAccountNumber(number);
+            accountRepository.save(account);
+        }
+
+        List<Account> first = accountRepository.findPage(null, 2);
+        List<Account> second = accountRepository.findPage("ACC2", 2);
+        List<Account> last = accountRepository.findPage("ACC4", 2);
+
+        assertEquals(List.of("ACC1", "ACC2"), first.stream().map(Account::getAccountNumber).toList());
+        assertEquals(List.of("ACC3", "ACC4"), second.stream().map(Account::getAccountNumber).toList());
+        assertEquals(List.of("ACC5"), last.stream().map(Account::getAccountNumber).toList());
+    }
+
+    @Test
+    void testSearchByOwnerPrefix() {
+        String[][] owners = {{"ACC1", "Anna Berg"}, {"ACC2", "  JOSÉ   Smith "}, {"ACC3", "Annabel Lee"},
+            {"ACC4", "Anna Berg"}, {"ACC5", "Bob"}};
+        for (String[] owner : owners) {
+            Account account = new Account(owner[1]);
+            account.setAccountNumber(owner[0]);
+            accountRepository.save(account);
+        }
+
+        assertEquals(List.of("ACC1", "ACC4", "ACC3"), numbers(accountRepository.searchByOwner("ann", 10)));
+        assertEquals(List.of("ACC1", "ACC4"), numbers(accountRepository.searchByOwner("Anna B", 10)));
+        assertEquals(List.of("ACC1"), numbers(accountRepository.searchByOwner("anna", 1)));
+        assertEquals(List.of("ACC2"), numbers(accountRepository.searchByOwner("jose s", 10)));
+        assertTrue(accountRepository.searchByOwner("carl", 10).isEmpty());
+    }
+
+    @Test
+    void testSearchByOwnerRejectsPrefixThatNormalizesToNothing() {
+        accountRepository.save(testAccount);
+
+        // A lone combining accent is folded away, leaving an empty prefix
+        assertThrows(IllegalArgumentException.class, () -> accountRepository.searchByOwner("\u0301 ", 10));
+    }
+
+    @Test
+    void testSearchByOwnerFollowsRename() {
+        accountRepository.save(testAccount);
+        testAccount.setOwnerName("Jane Roe");
+        accountRepository.save(testAccount);
+
+        assertTrue(accountRepository.searchByOwner("john", 10).isEmpty());
+        assertEquals(List.of(testAccount), accountRepository.searchByOwner("jane", 10));
+    }
+
+    @Test
+    void testShardedReadsMergeAcrossShards() {
+        AccountRepository sharded = new AccountRepository(4);
+        for (int i = 1; i <= 40; i++) {
+            Account account = new Account(i % 2 == 0 ? "Anna " + i : "Bob " + i);
+            account.setAccountNumber(String.format("ACC%03d", i));
+            sharded.save(account);
+        }
+
+        int used = 0;
+        for (int i = 0; i < sharded.shardCount(); i++) {
+            used += sharded.shard(i).size() > 0 ? 1 : 0;
+        }
+        assertEquals(4, used);
+        assertEquals(40, sharded.count());
+        assertEquals(40, sharded.findAll().size());
+        assertEquals(List.of("ACC001", "ACC002", "ACC003"), numbers(sharded.findPage(null, 3)));
+        assertEquals(List.of("ACC038", "ACC039", "ACC040"), numbers(sharded.findPage("ACC037", 10)));
+        List<String> anna = numbers(sharded.searchByOwner("anna", 100));
+        assertEquals(20, anna.size());
+        assertEquals("ACC010", anna.get(0));
+        assertEquals(List.of("ACC010", "ACC012"), numbers(sharded.searchByOwner("anna 1", 2)));
+    }
+
+    @Test
+    void testShardsSpreadEvenlyAndMoveLittleOnGrowth() {
+        int[] counts = new int[8];
+        int moved = 0;
+        for (int i = 0; i < 80_000; i++) {
+            String number = "ACC" + (1_000_000_000L + i);
+            int shard = Shards.shardOf(number, 8);
+            counts[shard]++;
+            if (shard != Shards.shardOf(number, 9)) {
+                moved++;
+            }
+        }
+        for (int count : counts) {
+            assertTrue(count > 9_000 && count < 11_000, "Uneven shard: " + count);
+        }
+        // Growing to 9 shards should move about 1/9 of the accounts, all of them to the new shard
+        assertTrue(moved > 7_500 && moved < 10_300, "Moved " + moved);
+    }
+
+    private static List<String> numbers(List<Account> accounts) {
+        return accounts.stream().map(Account::getAccountNumber).toList();
+    }
+
     @Test
     void testExistsByAccountNumber() {
         accountRepository.save(testAccount);
@@ -86,6 +185,33 @@ class AccountRepositoryTest {
         assertEquals(testAccount.getAccountNumber(), updatedAccount.getAccountNumber());
     }
 
+    @Test
+    void testSavesBumpAccountAndRepositoryVersions() {
+        AccountRepository sharded = new AccountRepository(4);
+        Account other = new Account("Jane Smith");
+        sharded.save(testAccount);
+        sharded.save(other);
+        long repositoryVersion = sharded.version();
+        long accountVersion = testAccount.getVersion();
+
+        sharded.save(testAccount);
+
+        assertEquals(accountVersion + 1, testAccount.getVersion());
+        assertEquals(1, other.getVersion());
+        assertEquals(repositoryVersion + 1, sharded.version());
+    }
+
+    @Test
+    void testSaveRejectsAnotherAccountWithTheSameNumber() {
+        accountRepository.save(testAccount);
+        Account impostor = new Account("Jane Roe");
+        impostor.setAccountNumber(testAccount.getAccountNumber());
+
+        assertThrows(IllegalStateException.class, () -> accountRepository.save(impostor));
+        assertSame(testAccount, accountRepository.findByAccountNumber(testAccount.getAccountNumber()).orElseThrow());
+        assertTrue(accountRepository.searchByOwner("jane", 10).isEmpty());
+    }
+
     @Test
     void testConcurrentAccess() {
         // Test thread safety with multiple saves
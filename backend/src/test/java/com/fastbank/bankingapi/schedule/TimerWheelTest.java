@@ -0,0 +1,102 @@
+package com.fastbank.bankingapi.schedule;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+class TimerWheelTest {
+
+    @Test
+    void testTimersFireAtTheirDeadlineOnEveryLevel() {
+        TimerWheel<Long> wheel = new TimerWheel<>(0);
+        // Level 0, level boundaries, levels 2 and 3, and beyond the top level's turn
+        long[] deadlines = {1, 63, 64, 65, 4_095, 4_096, 262_143, 262_144, 300_000, 16_777_216, 20_000_000};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+        Map<Long, Long> firedAt = new HashMap<>();
+
+        int fired = wheel.advance(20_000_000, deadline -> firedAt.put(deadline, wheel.currentTick()));
+
+        assertEquals(deadlines.length, fired);
+        for (long deadline : deadlines) {
+            assertEquals(deadline, firedAt.get(deadline));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testRandomDeadlinesFireInOrderWithUnevenAdvances() {
+        Random random = new Random(42);
+        long start = 1_760_700_000L;
+        TimerWheel<Long> wheel = new TimerWheel<>(start);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            long deadline = start + 1 + (long) (Math.pow(random.nextDouble(), 3) * 30_000_000);
+            wheel.schedule(deadline, deadline);
+            expected.add(deadline);
+        }
+        expected.sort(null);
+        List<Long> fired = new ArrayList<>();
+
+        long now = start;
+        while (wheel.size() > 0) {
+            now += 1 + random.nextInt(5_000);
+            long tick = now;
+            wheel.advance(tick, deadline -> {
+                // Fires on the tick reached, not before
+                assertTrue(deadline <= wheel.currentTick() && wheel.currentTick() <= tick);
+                assertEquals(deadline, wheel.currentTick());
+                fired.add(deadline);
+            });
+        }
+
+        assertEquals(expected, fired);
+    }
+
+    @Test
+    void testCancelledTimerNeverFires() {
+        TimerWheel<String> wheel = new TimerWheel<>(100);
+        TimerWheel.Timer<String> rent = wheel.schedule("rent", 5_000);
+        wheel.schedule("savings", 5_000);
+
+        assertTrue(wheel.cancel(rent));
+        assertFalse(wheel.cancel(rent));
+        assertFalse(rent.isPending());
+        List<String> fired = new ArrayList<>();
+        wheel.advance(10_000, fired::add);
+
+        assertEquals(List.of("savings"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testPastDeadlinesFireOnTheNextTickAndActionsMayReschedule() {
+        TimerWheel<String> wheel = new TimerWheel<>(1_000);
+        wheel.schedule("late", 10);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(1_001, item -> {
+            fired.add(item + "@" + wheel.currentTick());
+            if (item.equals("late")) {
+                wheel.schedule("again", wheel.currentTick() + 100);
+            }
+        });
+        assertEquals(List.of("late@1001"), fired);
+
+        wheel.advance(2_000, item -> fired.add(item + "@" + wheel.currentTick()));
+        assertEquals(List.of("late@1001", "again@1101"), fired);
+    }
+
+    @Test
+    void testIdleWheelSkipsAhead() {
+        TimerWheel<String> wheel = new TimerWheel<>(0);
+
+        assertEquals(0, wheel.advance(Long.MAX_VALUE / 2, item -> fail("nothing is scheduled")));
+        assertEquals(Long.MAX_VALUE / 2, wheel.currentTick());
+    }
+}
@@ -0,0 +1,156 @@
+package com.fastbank.bankingapi.service;
+
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.repository.AccountLocks;
+import com.fastbank.bankingapi.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class AccountServiceConcurrencyTest {
+
+    private AccountRepository accountRepository;
+    private AccountLocks accountLocks;
+    private AccountService accountService;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = new AccountRepository();
+        accountLocks = new AccountLocks();
+        accountService = new AccountService();
+        ReflectionTestUtils.setField(accountService, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(accountService, "accountLocks", accountLocks);
+    }
+
+    private Account openAccount(String accountNumber, String balance) {
+        Account account = new Account("Owner " + accountNumber);
+        account.setAccountNumber(accountNumber);
+        account.setBalance(new BigDecimal(balance));
+        return accountRepository.save(account);
+    }
+
+    @Test
+    void testConcurrentDepositsAreNotLost() throws Exception {
+        openAccount("ACC1", "0.00");
+        int threads = 8;
+        int depositsPerThread = 500;
+
+        runConcurrently(threads, i -> {
+            for (int n = 0; n < depositsPerThread; n++) {
+                accountService.deposit("ACC1", new BigDecimal("1.00"), "Deposit");
+            }
+        });
+
+        Account account = accountRepository.findByAccountNumber("ACC1").orElseThrow();
+        assertEquals(new BigDecimal("4000.00"), account.getBalance());
+        assertEquals(threads * depositsPerThread, account.getTransactions().size());
+    }
+
+    @Test
+    void testOppositeTransfersDoNotDeadlock() throws Exception {
+        openAccount("ACCA", "10000.00");
+        openAccount("ACCB", "10000.00");
+
+        runConcurrently(8, i -> {
+            String from = i % 2 == 0 ? "ACCA" : "ACCB";
+            String to = i % 2 == 0 ? "ACCB" : "ACCA";
+            for (int n = 0; n < 500; n++) {
+                accountService.transfer(from, to, new BigDecimal("1.00"), "Ping-pong");
+            }
+        });
+
+        BigDecimal total = accountRepository.findByAccountNumber("ACCA").orElseThrow().getBalance()
+            .add(accountRepository.findByAccountNumber("ACCB").orElseThrow().getBalance());
+        assertEquals(new BigDecimal("20000.00"), total);
+    }
+
+    @Test
+    void testUnrelatedAccountsAreNotBlocked() throws Exception {
+        openAccount("ACC1", "100.00");
+        String other = "ACC2";
+        for (int i = 3; accountLocks.stripeOf(other) == accountLocks.stripeOf("ACC1"); i++) {
+            other = "ACC" + i;
+        }
+        openAccount(other, "100.00");
+        String unrelated = other;
+
+        // Hold ACC1's lock for the whole test; a deposit into another account must still complete
+        try (AccountLocks.Handle ignored = accountLocks.lock("ACC1")) {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<Account> blocked = executor.submit(() ->
+                    accountService.deposit(unrelated, new BigDecimal("5.00"), "Deposit"));
+                assertEquals(new BigDecimal("105.00"), blocked.get(5, TimeUnit.SECONDS).getBalance());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void testBlockedVirtualThreadsDoNotStarveTheLockHolder() throws Exception {
+        openAccount("ACC1", "0.00");
+        int waiters = 200;
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // More blocked virtual threads than carrier threads: if waiting pinned a carrier, nothing could release
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> holder = executor.submit(() -> {
+                try (AccountLocks.Handle ignored = accountLocks.lock("ACC1")) {
+                    locked.countDown();
+                    release.await();
+                }
+                return null;
+            });
+            locked.await();
+            List<Future<Account>> deposits = new ArrayList<>();
+            for (int i = 0; i < waiters; i++) {
+                deposits.add(executor.submit(() -> accountService.deposit("ACC1", new BigDecimal("1.00"), "Deposit")));
+            }
+            executor.submit(release::countDown).get(5, TimeUnit.SECONDS);
+            holder.get(5, TimeUnit.SECONDS);
+            for (Future<Account> deposit : deposits) {
+                deposit.get(5, TimeUnit.SECONDS);
+            }
+        }
+
+        assertEquals(new BigDecimal("200.00"), accountRepository.findByAccountNumber("ACC1").orElseThrow().getBalance());
+    }
+
+    private void runConcurrently(int threads, Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    worker.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Worker {
+        void run(int index) throws Exception;
+    }
+}
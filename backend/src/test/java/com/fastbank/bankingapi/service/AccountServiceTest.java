@@ -1,12 +1,18 @@
 package com.fastbank.bankingapi.service;
 
+import com.fastbank.bankingapi.dto.AccountInsights;
 import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.AccountNotFoundException;
+import com.fastbank.bankingapi.model.InsufficientFundsException;
+import com.fastbank.bankingapi.model.Transaction;
+import com.fastbank.bankingapi.model.TransactionHistory;
 import com.fastbank.bankingapi.repository.AccountRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import java.math.BigDecimal;
@@ -65,6 +71,44 @@ class AccountServiceTest {
         verify(accountRepository).findByAccountNumber(testAccount.getAccountNumber());
     }
 
+    @Test
+    void testGetTransactionHistory() {
+        when(accountRepository.findByAccountNumber(testAccount.getAccountNumber()))
+            .thenReturn(Optional.of(testAccount));
+        testAccount.getTransactions().add(new Transaction(
+            testAccount.getAccountNumber(), "DEPOSIT", new BigDecimal("10.00"), "First"));
+        testAccount.getTransactions().add(new Transaction(
+            testAccount.getAccountNumber(), "DEPOSIT", new BigDecimal("20.00"), "Second"));
+
+        TransactionHistory.Page page = accountService.getTransactionHistory(testAccount.getAccountNumber(), null, null, null, 1)
+            .orElseThrow();
+
+        assertEquals(1, page.items().size());
+        assertEquals("Second", page.items().get(0).getDescription());
+        assertEquals(1, page.nextCursor());
+        assertTrue(accountService.getTransactionHistory("INVALID", null, null, null, 1).isEmpty());
+    }
+
+    @Test
+    void testGetInsights() {
+        when(accountRepository.findByAccountNumber(testAccount.getAccountNumber()))
+            .thenReturn(Optional.of(testAccount));
+        when(accountRepository.save(any(Account.class))).thenReturn(testAccount);
+        accountService.deposit(testAccount.getAccountNumber(), new BigDecimal("2500.00"), "Salary");
+        accountService.withdraw(testAccount.getAccountNumber(), new BigDecimal("80.25"), "Supermarket");
+        accountService.withdraw(testAccount.getAccountNumber(), new BigDecimal("19.75"), "Grocery");
+
+        AccountInsights insights = accountService.getInsights(testAccount.getAccountNumber()).orElseThrow();
+
+        assertEquals(List.of(
+            new AccountInsights.CategoryTotal("Food", new BigDecimal("0.00"), new BigDecimal("100.00"), 2),
+            new AccountInsights.CategoryTotal("Income", new BigDecimal("2500.00"), new BigDecimal("0.00"), 1)),
+            insights.categories());
+        assertEquals(1, insights.months().size());
+        assertEquals(3, insights.months().get(0).count());
+        assertTrue(accountService.getInsights("INVALID").isEmpty());
+    }
+
     @Test
     void testDeposit() {
         when(accountRepository.findByAccountNumber(testAccount.getAccountNumber()))
@@ -79,11 +123,31 @@ class AccountServiceTest {
         verify(accountRepository).save(testAccount);
     }
 
+    @Test
+    void testETagsChangeWithEverySavedChange() {
+        AccountRepository repository = new AccountRepository();
+        AccountService service = new AccountService();
+        ReflectionTestUtils.setField(service, "accountRepository", repository);
+        repository.save(testAccount);
+        String accountTag = service.getETag(testAccount);
+        String collectionTag = service.getCollectionETag();
+        assertTrue(accountTag.startsWith("\"") && accountTag.endsWith("\""), accountTag);
+        assertEquals(accountTag, service.getETag(testAccount));
+
+        service.deposit(testAccount.getAccountNumber(), new BigDecimal("5.00"), "Tip");
+
+        assertNotEquals(accountTag, service.getETag(testAccount));
+        assertNotEquals(collectionTag, service.getCollectionETag());
+        collectionTag = service.getCollectionETag();
+        service.createAccount("Jane Smith");
+        assertNotEquals(collectionTag, service.getCollectionETag());
+    }
+
     @Test
     void testDepositAccountNotFound() {
         when(accountRepository.findByAccountNumber("INVALID")).thenReturn(Optional.empty());
 
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+        AccountNotFoundException exception = assertThrows(AccountNotFoundException.class, () -> {
             accountService.deposit("INVALID", new BigDecimal("500.00"), "Test deposit");
         });
 
@@ -109,7 +173,7 @@ class AccountServiceTest {
         when(accountRepository.findByAccountNumber(testAccount.getAccountNumber()))
             .thenReturn(Optional.of(testAccount));
 
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+        InsufficientFundsException exception = assertThrows(InsufficientFundsException.class, () -> {
             accountService.withdraw(testAccount.getAccountNumber(), new BigDecimal("1500.00"), "Test withdrawal");
         });
 
@@ -120,7 +184,7 @@ class AccountServiceTest {
     void testWithdrawAccountNotFound() {
         when(accountRepository.findByAccountNumber("INVALID")).thenReturn(Optional.empty());
 
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+        AccountNotFoundException exception = assertThrows(AccountNotFoundException.class, () -> {
             accountService.withdraw("INVALID", new BigDecimal("100.00"), "Test withdrawal");
         });
 
@@ -141,8 +205,8 @@ class AccountServiceTest {
         accountService.transfer(testAccount.getAccountNumber(), toAccount.getAccountNumber(), 
                                new BigDecimal("200.00"), "Test transfer");
 
-        verify(accountRepository, times(2)).findByAccountNumber(testAccount.getAccountNumber());
-        verify(accountRepository, times(2)).findByAccountNumber(toAccount.getAccountNumber());
+        verify(accountRepository).findByAccountNumber(testAccount.getAccountNumber());
+        verify(accountRepository).findByAccountNumber(toAccount.getAccountNumber());
         verify(accountRepository, times(2)).save(any(Account.class));
     }
 
@@ -150,7 +214,7 @@ class AccountServiceTest {
     void testTransferSourceAccountNotFound() {
         when(accountRepository.findByAccountNumber("INVALID")).thenReturn(Optional.empty());
 
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+        AccountNotFoundException exception = assertThrows(AccountNotFoundException.class, () -> {
             accountService.transfer("INVALID", "ACC456", new BigDecimal("100.00"), "Test transfer");
         });
 
@@ -163,7 +227,7 @@ class AccountServiceTest {
             .thenReturn(Optional.of(testAccount));
         when(accountRepository.findByAccountNumber("INVALID")).thenReturn(Optional.empty());
 
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+        AccountNotFoundException exception = assertThrows(AccountNotFoundException.class, () -> {
             accountService.transfer(testAccount.getAccountNumber(), "INVALID", new BigDecimal("100.00"), "Test transfer");
         });
 
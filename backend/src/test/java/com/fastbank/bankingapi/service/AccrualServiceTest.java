@@ -0,0 +1,191 @@
+package com.fastbank.bankingapi.service;
+
+import com.fastbank.bankingapi.dto.AccrualRequest;
+import com.fastbank.bankingapi.dto.AccrualStatus;
+import com.fastbank.bankingapi.metrics.LedgerMetrics;
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+class AccrualServiceTest {
+
+    @TempDir
+    Path dataDir;
+
+    private final TestLedger ledger = new TestLedger();
+    private final List<AccrualService> services = new ArrayList<>();
+    private AccrualService accrualService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        accrualService = newService(false);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AccrualService service : services) {
+            service.stop();
+        }
+    }
+
+    private AccrualService newService(boolean durable) throws Exception {
+        AccrualService service = new AccrualService(ledger.accountRepository, ledger.accountService, 2, durable ? dataDir : null);
+        service.start();
+        services.add(service);
+        return service;
+    }
+
+    private static AccrualStatus await(AccrualService service, String runId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            AccrualStatus status = service.getStatus(runId).orElseThrow();
+            if (status.state() != AccrualStatus.State.QUEUED && status.state() != AccrualStatus.State.RUNNING) {
+                return status;
+            }
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for run " + runId);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void testInterestIsCreditedToPositiveBalances() throws Exception {
+        ledger.openAccount("ACC1", "1000.00");
+        ledger.openAccount("ACC2", "0.00");
+        ledger.openAccount("ACC3", "33.35");
+        for (int i = 0; i < 500; i++) {
+            ledger.openAccount("BULK" + i, "100.00");
+        }
+
+        accrualService.start(new AccrualRequest("eod-1", AccrualRequest.Type.INTEREST, new BigDecimal("0.001"), null));
+        AccrualStatus status = await(accrualService, "eod-1");
+
+        assertEquals(AccrualStatus.State.COMPLETED, status.state());
+        assertEquals(503, status.totalAccounts());
+        assertEquals(503, status.processedAccounts());
+        assertEquals(502, status.posted());
+        assertEquals(1, status.skipped());
+        assertEquals(0, status.failed());
+        assertNotNull(status.finishedAt());
+        assertEquals(new BigDecimal("1001.00"), ledger.balanceOf("ACC1"));
+        assertEquals(new BigDecimal("0.00"), ledger.balanceOf("ACC2"));
+        // 3.335 cents rounds half-even to 3
+        assertEquals(new BigDecimal("33.38"), ledger.balanceOf("ACC3"));
+        assertEquals(new BigDecimal("100.10"), ledger.balanceOf("BULK499"));
+        assertEquals(502, ledger.ledgerMetrics.getSuccessCount(LedgerMetrics.Operation.INTEREST));
+        Transaction interest = ledger.account("ACC1").getTransactions().get(0);
+        assertEquals("INTEREST", interest.getType());
+        assertEquals(AccrualService.transactionId("eod-1", "ACC1"), interest.getId());
+    }
+
+    @Test
+    void testFeeSkipsAccountsThatCannotCoverIt() throws Exception {
+        ledger.openAccount("ACC1", "10.00");
+        ledger.openAccount("ACC2", "2.49");
+
+        accrualService.start(new AccrualRequest("fees", AccrualRequest.Type.FEE, null, new BigDecimal("2.50")));
+        AccrualStatus status = await(accrualService, "fees");
+
+        assertEquals(1, status.posted());
+        assertEquals(1, status.skipped());
+        assertEquals(new BigDecimal("7.50"), ledger.balanceOf("ACC1"));
+        assertEquals(new BigDecimal("2.49"), ledger.balanceOf("ACC2"));
+        assertEquals(1, ledger.ledgerMetrics.getSuccessCount(LedgerMetrics.Operation.FEE));
+        Account account = ledger.account("ACC1");
+        assertEquals("FEE", account.getTransactions().get(0).getType());
+        assertEquals(250, account.getTransactionHistory().insights().byMonth().values().iterator().next().outgoing());
+    }
+
+    @Test
+    void testPostingsGoThroughTheSequencedWriter() throws Exception {
+        ReflectionTestUtils.setField(ledger.accountService, "engineMode", "sequenced");
+        ledger.accountService.startEngine();
+        try {
+            for (int i = 0; i < 100; i++) {
+                ledger.openAccount("ACC" + i, "100.00");
+            }
+
+            accrualService.start(new AccrualRequest("eod-1", AccrualRequest.Type.INTEREST, new BigDecimal("0.01"), null));
+            AccrualStatus status = await(accrualService, "eod-1");
+
+            assertEquals(100, status.posted());
+            assertEquals(new BigDecimal("101.00"), ledger.balanceOf("ACC42"));
+            SequencedLedger writer = (SequencedLedger) ReflectionTestUtils.getField(ledger.accountService, "sequencedLedger");
+            assertEquals(100, writer.getAppliedSequence());
+        } finally {
+            ledger.accountService.stopEngine();
+        }
+    }
+
+    @Test
+    void testCompletedRunIsNotRepeatedAndRunIdsAreNotReused() throws Exception {
+        ledger.openAccount("ACC1", "100.00");
+        AccrualRequest request = new AccrualRequest("eod-1", AccrualRequest.Type.INTEREST, new BigDecimal("0.01"), null);
+        accrualService.start(request);
+        await(accrualService, "eod-1");
+
+        AccrualStatus again = accrualService.start(new AccrualRequest("eod-1", AccrualRequest.Type.INTEREST, new BigDecimal("0.010"), null));
+
+        assertEquals(AccrualStatus.State.COMPLETED, again.state());
+        assertEquals(new BigDecimal("101.00"), ledger.balanceOf("ACC1"));
+        assertThrows(IllegalStateException.class,
+            () -> accrualService.start(new AccrualRequest("eod-1", AccrualRequest.Type.INTEREST, new BigDecimal("0.02"), null)));
+        assertThrows(IllegalArgumentException.class,
+            () -> accrualService.start(new AccrualRequest("../eod", AccrualRequest.Type.INTEREST, new BigDecimal("0.01"), null)));
+        assertThrows(IllegalArgumentException.class,
+            () -> accrualService.start(new AccrualRequest("eod-2", AccrualRequest.Type.FEE, null, new BigDecimal("0.001"))));
+        assertEquals(List.of("eod-1"), accrualService.getRuns().stream().map(AccrualStatus::runId).toList());
+        assertTrue(accrualService.cancel("missing").isEmpty());
+    }
+
+    @Test
+    void testInterruptedRunResumesFromCheckpointWithoutPostingTwice() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            ledger.openAccount("ACC" + i, "50.00");
+        }
+        AccrualService first = newService(true);
+        AccrualRequest request = new AccrualRequest("eod-1", AccrualRequest.Type.INTEREST, new BigDecimal("0.02"), null);
+        first.start(request);
+        assertEquals(200, await(first, "eod-1").posted());
+        first.stop();
+
+        // As if the process died before the last buckets were checkpointed: every posting is made but none recorded
+        Path checkpoint = dataDir.resolve("accruals").resolve("eod-1.properties");
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpoint)) {
+            properties.load(reader);
+        }
+        properties.setProperty("state", "RUNNING");
+        properties.setProperty("done", "");
+        properties.setProperty("posted", "0");
+        try (Writer writer = Files.newBufferedWriter(checkpoint)) {
+            properties.store(writer, null);
+        }
+
+        AccrualService restarted = newService(true);
+        assertEquals(AccrualStatus.State.INTERRUPTED, restarted.getStatus("eod-1").orElseThrow().state());
+        restarted.start(request);
+        AccrualStatus status = await(restarted, "eod-1");
+
+        assertEquals(AccrualStatus.State.COMPLETED, status.state());
+        assertEquals(0, status.posted());
+        assertEquals(200, status.skipped());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(new BigDecimal("51.00"), ledger.balanceOf("ACC" + i));
+            assertEquals(1, ledger.account("ACC" + i).getTransactions().size());
+        }
+    }
+}
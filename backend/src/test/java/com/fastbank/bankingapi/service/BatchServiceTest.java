@@ -0,0 +1,118 @@
+package com.fastbank.bankingapi.service;
+
+import com.fastbank.bankingapi.dto.BatchRequest;
+import com.fastbank.bankingapi.dto.BatchResult;
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.repository.AccountLocks;
+import com.fastbank.bankingapi.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import java.math.BigDecimal;
+import java.util.List;
+
+class BatchServiceTest {
+
+    private AccountRepository accountRepository;
+    private BatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = new AccountRepository();
+        batchService = new BatchService();
+        ReflectionTestUtils.setField(batchService, "accountRepository", accountRepository);
+        AccountLocks accountLocks = new AccountLocks();
+        AccountService accountService = new AccountService();
+        ReflectionTestUtils.setField(accountService, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(accountService, "accountLocks", accountLocks);
+        ReflectionTestUtils.setField(batchService, "accountLocks", accountLocks);
+        ReflectionTestUtils.setField(batchService, "accountService", accountService);
+    }
+
+    private Account openAccount(String accountNumber, String balance) {
+        Account account = new Account("Owner " + accountNumber);
+        account.setAccountNumber(accountNumber);
+        account.setBalance(new BigDecimal(balance));
+        return accountRepository.save(account);
+    }
+
+    private static BatchRequest.Operation deposit(String accountNumber, String amount) {
+        return new BatchRequest.Operation(BatchRequest.Type.DEPOSIT, accountNumber, null, new BigDecimal(amount), "Payroll");
+    }
+
+    private static BatchRequest.Operation withdraw(String accountNumber, String amount) {
+        return new BatchRequest.Operation(BatchRequest.Type.WITHDRAW, accountNumber, null, new BigDecimal(amount), "Fee");
+    }
+
+    private static BatchRequest.Operation transfer(String from, String to, String amount) {
+        return new BatchRequest.Operation(BatchRequest.Type.TRANSFER, from, to, new BigDecimal(amount), "Rent");
+    }
+
+    private BigDecimal balanceOf(String accountNumber) {
+        return accountRepository.findByAccountNumber(accountNumber).orElseThrow().getBalance();
+    }
+
+    @Test
+    void testAppliesInRequestOrderWithPerItemResults() {
+        openAccount("ACC1", "0.00");
+        openAccount("ACC2", "0.00");
+
+        BatchResult result = batchService.apply(new BatchRequest(false, List.of(
+            withdraw("ACC1", "10.00"),         // fails: runs before the deposit
+            deposit("ACC1", "100.00"),
+            transfer("ACC1", "ACC2", "30.00"),
+            deposit("ACC9", "5.00"),           // fails: unknown account
+            deposit("ACC2", "-1.00"))));       // fails: validation
+
+        assertEquals(2, result.applied());
+        assertEquals(3, result.failed());
+        assertEquals(BatchResult.Status.FAILED, result.items().get(0).status());
+        assertEquals("Insufficient funds", result.items().get(0).error());
+        assertEquals(BatchResult.Status.APPLIED, result.items().get(1).status());
+        assertEquals(BatchResult.Status.APPLIED, result.items().get(2).status());
+        assertEquals("Account not found", result.items().get(3).error());
+        assertEquals("Amount must be positive", result.items().get(4).error());
+        assertEquals(new BigDecimal("70.00"), balanceOf("ACC1"));
+        assertEquals(new BigDecimal("30.00"), balanceOf("ACC2"));
+        assertEquals(2, accountRepository.findByAccountNumber("ACC1").orElseThrow().getTransactions().size());
+    }
+
+    @Test
+    void testAtomicBatchAppliesEverything() {
+        openAccount("ACC1", "50.00");
+        openAccount("ACC2", "0.00");
+
+        BatchResult result = batchService.apply(new BatchRequest(true, List.of(
+            deposit("ACC1", "50.00"),
+            transfer("ACC1", "ACC2", "100.00"),
+            withdraw("ACC2", "40.00"))));
+
+        assertEquals(3, result.applied());
+        assertEquals(new BigDecimal("0.00"), balanceOf("ACC1"));
+        assertEquals(new BigDecimal("60.00"), balanceOf("ACC2"));
+    }
+
+    @Test
+    void testAtomicBatchAppliesNothingWhenOneOperationFails() {
+        openAccount("ACC1", "50.00");
+        openAccount("ACC2", "0.00");
+
+        BatchResult result = batchService.apply(new BatchRequest(true, List.of(
+            deposit("ACC2", "10.00"),
+            transfer("ACC1", "ACC2", "60.00"))));
+
+        assertEquals(0, result.applied());
+        assertEquals(1, result.failed());
+        assertEquals(BatchResult.Status.NOT_APPLIED, result.items().get(0).status());
+        assertEquals("Insufficient funds", result.items().get(1).error());
+        assertEquals(new BigDecimal("50.00"), balanceOf("ACC1"));
+        assertEquals(new BigDecimal("0.00"), balanceOf("ACC2"));
+        assertTrue(accountRepository.findByAccountNumber("ACC2").orElseThrow().getTransactions().isEmpty());
+    }
+
+    @Test
+    void testRejectsEmptyBatch() {
+        assertThrows(IllegalArgumentException.class, () -> batchService.apply(new BatchRequest(false, List.of())));
+    }
+}
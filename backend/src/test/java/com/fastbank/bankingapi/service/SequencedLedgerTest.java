@@ -0,0 +1,149 @@
+package com.fastbank.bankingapi.service;
+
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.repository.AccountLocks;
+import com.fastbank.bankingapi.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class SequencedLedgerTest {
+
+    @Test
+    void testCommandsAreAppliedInOrderOnTheWriterThread() throws Exception {
+        List<String> applied = new ArrayList<>();
+        List<String> threads = new ArrayList<>();
+        try (SequencedLedger ledger = new SequencedLedger(4, (kind, accountNumber, to, amount, description, posting) -> {
+            applied.add(description);
+            threads.add(Thread.currentThread().getName());
+            return new Account(accountNumber);
+        })) {
+            ledger.start();
+            for (int i = 0; i < 10; i++) {
+                ledger.submit(SequencedLedger.Kind.DEPOSIT, "ACC1", null, BigDecimal.ONE, "cmd" + i);
+            }
+            assertEquals(10, ledger.getAppliedSequence());
+        }
+        assertEquals(List.of("cmd0", "cmd1", "cmd2", "cmd3", "cmd4", "cmd5", "cmd6", "cmd7", "cmd8", "cmd9"), applied);
+        assertTrue(threads.stream().allMatch("ledger-writer"::equals));
+    }
+
+    @Test
+    void testHandlerErrorsReachTheSubmitterAndTheWriterKeepsGoing() throws Exception {
+        try (SequencedLedger ledger = new SequencedLedger(2, (kind, accountNumber, to, amount, description, posting) -> {
+            if (kind == SequencedLedger.Kind.WITHDRAW) {
+                throw new RuntimeException("Insufficient funds");
+            }
+            return new Account(accountNumber);
+        })) {
+            ledger.start();
+            RuntimeException e = assertThrows(RuntimeException.class,
+                () -> ledger.submit(SequencedLedger.Kind.WITHDRAW, "ACC1", null, BigDecimal.ONE, "w"));
+            assertEquals("Insufficient funds", e.getMessage());
+            assertNotNull(ledger.submit(SequencedLedger.Kind.DEPOSIT, "ACC1", null, BigDecimal.ONE, "d"));
+        }
+    }
+
+    @Test
+    void testManyProducersWrapASmallRing() throws Exception {
+        ConcurrentLinkedQueue<String> applied = new ConcurrentLinkedQueue<>();
+        int threads = 8;
+        int perThread = 2000;
+        try (SequencedLedger ledger = new SequencedLedger(8, (kind, accountNumber, to, amount, description, posting) -> {
+            applied.add(description);
+            return null;
+        })) {
+            ledger.start();
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int n = 0; n < perThread; n++) {
+                        ledger.submit(SequencedLedger.Kind.DEPOSIT, "ACC" + thread, null, BigDecimal.ONE, thread + ":" + n);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+            assertEquals(threads * perThread, ledger.getAppliedSequence());
+        }
+        assertEquals(threads * perThread, applied.size());
+        // Each producer's own commands keep their order
+        int[] last = new int[threads];
+        Arrays.fill(last, -1);
+        for (String entry : applied) {
+            int thread = Integer.parseInt(entry.substring(0, entry.indexOf(':')));
+            int n = Integer.parseInt(entry.substring(entry.indexOf(':') + 1));
+            assertEquals(last[thread] + 1, n);
+            last[thread] = n;
+        }
+    }
+
+    @Test
+    void testSubmitAfterCloseIsRejected() throws Exception {
+        SequencedLedger ledger = new SequencedLedger(4, (kind, accountNumber, to, amount, description, posting) -> null);
+        ledger.start();
+        ledger.close();
+        assertThrows(IllegalStateException.class,
+            () -> ledger.submit(SequencedLedger.Kind.DEPOSIT, "ACC1", null, BigDecimal.ONE, "late"));
+    }
+
+    @Test
+    void testRingSizeMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new SequencedLedger(6, (k, a, t, m, d, p) -> null));
+    }
+
+    @Test
+    void testServiceInSequencedModeKeepsTransfersConsistent() throws Exception {
+        AccountRepository accountRepository = new AccountRepository();
+        AccountService accountService = new AccountService();
+        ReflectionTestUtils.setField(accountService, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(accountService, "accountLocks", new AccountLocks());
+        ReflectionTestUtils.setField(accountService, "engineMode", "sequenced");
+        ReflectionTestUtils.setField(accountService, "ringSize", 16);
+        for (String accountNumber : List.of("ACCA", "ACCB")) {
+            Account account = new Account("Owner " + accountNumber);
+            account.setAccountNumber(accountNumber);
+            account.setBalance(new BigDecimal("1000.00"));
+            accountRepository.save(account);
+        }
+        accountService.startEngine();
+        try {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                String from = t % 2 == 0 ? "ACCA" : "ACCB";
+                String to = t % 2 == 0 ? "ACCB" : "ACCA";
+                futures.add(executor.submit(() -> {
+                    for (int n = 0; n < 500; n++) {
+                        accountService.transfer(from, to, new BigDecimal("1.00"), "Ping-pong");
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            assertThrows(RuntimeException.class,
+                () -> accountService.withdraw("ACCA", new BigDecimal("5000.00"), "Too much"));
+        } finally {
+            accountService.stopEngine();
+        }
+        BigDecimal total = accountRepository.findByAccountNumber("ACCA").orElseThrow().getBalance()
+            .add(accountRepository.findByAccountNumber("ACCB").orElseThrow().getBalance());
+        assertEquals(new BigDecimal("2000.00"), total);
+    }
+}
@@ -0,0 +1,297 @@
+package com.fastbank.bankingapi.service;
+
+import com.fastbank.bankingapi.dto.StandingOrder;
+import com.fastbank.bankingapi.dto.StandingOrderExecution;
+import com.fastbank.bankingapi.dto.StandingOrderRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+class StandingOrderServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 31, 9, 0);
+
+    private final TestLedger ledger = new TestLedger();
+    private StandingOrderService standingOrderService;
+
+    @TempDir
+    Path dataDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        standingOrderService = newService(false);
+        ledger.openAccount("ACC1", "1000.00");
+        ledger.openAccount("ACC2", "0.00");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        standingOrderService.stop();
+    }
+
+    private StandingOrderService newService(boolean durable) throws Exception {
+        StandingOrderService service = new StandingOrderService(ledger.accountService, 2, 10,
+            durable ? dataDir : null, clockAt(START));
+        service.start();
+        return service;
+    }
+
+    private static Clock clockAt(LocalDateTime now) {
+        return Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+
+    // Moves the scheduler's clock to the given time and runs what became due
+    private void runAt(LocalDateTime now) {
+        standingOrderService.setClock(clockAt(now));
+        standingOrderService.runDue(now.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    private List<StandingOrderExecution> awaitHistory(String id, int size) throws InterruptedException {
+        await(() -> standingOrderService.getHistory(id).orElseThrow().size() >= size);
+        // Rescheduling happens under the same lock right after the execution is recorded
+        List<StandingOrderExecution> history = standingOrderService.getHistory(id).orElseThrow();
+        assertEquals(size, history.size());
+        return history;
+    }
+
+    private static StandingOrderRequest monthly(String amount, LocalDateTime firstRunAt) {
+        return new StandingOrderRequest("ACC1", "ACC2", new BigDecimal(amount), "Rent", StandingOrderRequest.Frequency.MONTHLY, firstRunAt);
+    }
+
+    @Test
+    void testRunsOnScheduleAndKeepsToTheCalendar() throws Exception {
+        StandingOrder order = standingOrderService.create(monthly("300.00", START.plusHours(1)));
+
+        runAt(START.plusMinutes(59));
+        assertEquals(new BigDecimal("1000.00"), ledger.balanceOf("ACC1"));
+
+        runAt(START.plusHours(1));
+        List<StandingOrderExecution> history = awaitHistory(order.id(), 1);
+        assertEquals(StandingOrderExecution.Outcome.EXECUTED, history.get(0).outcome());
+        assertEquals(START.plusHours(1), history.get(0).scheduledFor());
+        assertEquals(new BigDecimal("700.00"), ledger.balanceOf("ACC1"));
+        assertEquals(new BigDecimal("300.00"), ledger.balanceOf("ACC2"));
+        assertEquals("Transfer from ACC1: Rent", ledger.account("ACC2").getTransactions().get(0).getDescription());
+        // From the 31st: the last day of February, then back to the 31st
+        assertEquals(LocalDateTime.of(2025, 2, 28, 10, 0), standingOrderService.get(order.id()).orElseThrow().nextRunAt());
+
+        runAt(LocalDateTime.of(2025, 2, 28, 10, 0));
+        awaitHistory(order.id(), 2);
+        assertEquals(LocalDateTime.of(2025, 3, 31, 10, 0), standingOrderService.get(order.id()).orElseThrow().nextRunAt());
+        assertEquals(new BigDecimal("400.00"), ledger.balanceOf("ACC1"));
+    }
+
+    @Test
+    void testInsufficientFundsAreRetriedUntilTheyArrive() throws Exception {
+        StandingOrder order = standingOrderService.create(monthly("1500.00", null));
+
+        runAt(START.plusSeconds(1));
+        List<StandingOrderExecution> history = awaitHistory(order.id(), 1);
+        assertEquals(StandingOrderExecution.Outcome.RETRYING, history.get(0).outcome());
+        assertEquals("Insufficient funds", history.get(0).error());
+        StandingOrder retrying = standingOrderService.get(order.id()).orElseThrow();
+        assertEquals(1, retrying.retries());
+        assertEquals(START.plusSeconds(1).plusHours(1), retrying.nextRunAt());
+
+        ledger.accountService.deposit("ACC1", new BigDecimal("500.00"), "Salary");
+        runAt(START.plusHours(2));
+        history = awaitHistory(order.id(), 2);
+        assertEquals(StandingOrderExecution.Outcome.EXECUTED, history.get(0).outcome());
+        assertEquals(1, history.get(0).attempt());
+        // The retry still counts as the January run
+        assertEquals(START, history.get(0).scheduledFor());
+        StandingOrder paid = standingOrderService.get(order.id()).orElseThrow();
+        assertEquals(0, paid.retries());
+        assertEquals(LocalDateTime.of(2025, 2, 28, 9, 0), paid.nextRunAt());
+        assertEquals(new BigDecimal("1500.00"), ledger.balanceOf("ACC2"));
+    }
+
+    @Test
+    void testGivesUpAfterTheLastRetry() throws Exception {
+        standingOrderService.setMaxRetries(1);
+        StandingOrder order = standingOrderService.create(monthly("5000.00", START.plusHours(1)));
+
+        runAt(START.plusHours(1));
+        awaitHistory(order.id(), 1);
+        runAt(START.plusHours(2));
+        List<StandingOrderExecution> history = awaitHistory(order.id(), 2);
+
+        assertEquals(StandingOrderExecution.Outcome.FAILED, history.get(0).outcome());
+        assertEquals(StandingOrderExecution.Outcome.RETRYING, history.get(1).outcome());
+        assertEquals(LocalDateTime.of(2025, 2, 28, 10, 0), standingOrderService.get(order.id()).orElseThrow().nextRunAt());
+        assertEquals(1, standingOrderService.getFailedCount());
+        assertEquals(new BigDecimal("1000.00"), ledger.balanceOf("ACC1"));
+    }
+
+    @Test
+    void testUpdateReschedulesAndDeleteCancels() throws Exception {
+        StandingOrder rent = standingOrderService.create(monthly("300.00", START.plusHours(1)));
+        StandingOrder savings = standingOrderService.create(monthly("50.00", START.plusHours(1)));
+
+        StandingOrder updated = standingOrderService.update(savings.id(), new StandingOrderRequest("ACC1", "ACC2",
+            new BigDecimal("75.00"), null, StandingOrderRequest.Frequency.WEEKLY, START.plusDays(1))).orElseThrow();
+        assertEquals(START.plusDays(1), updated.nextRunAt());
+        assertEquals("Standing order", updated.description());
+        assertTrue(standingOrderService.delete(rent.id()));
+        assertFalse(standingOrderService.delete(rent.id()));
+        assertEquals(List.of(savings.id()), standingOrderService.getByAccount("ACC1").stream().map(StandingOrder::id).toList());
+
+        runAt(START.plusHours(1));
+        runAt(START.plusDays(1));
+        awaitHistory(savings.id(), 1);
+
+        assertEquals(new BigDecimal("75.00"), ledger.balanceOf("ACC2"));
+        assertEquals(START.plusDays(8), standingOrderService.get(savings.id()).orElseThrow().nextRunAt());
+        assertTrue(standingOrderService.get(rent.id()).isEmpty());
+        assertTrue(standingOrderService.update(rent.id(), monthly("1.00", null)).isEmpty());
+    }
+
+    @Test
+    void testUpdateAfterTheRunFellDueStartsOver() throws Exception {
+        StandingOrder order = standingOrderService.create(monthly("300.00", START.plusHours(1)));
+        // Keep both workers busy, so the due run waits in the queue while the order is updated
+        ThreadPoolExecutor workers = (ThreadPoolExecutor) ReflectionTestUtils.getField(standingOrderService, "workers");
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 2; i++) {
+            workers.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        runAt(START.plusHours(1));
+        standingOrderService.update(order.id(), monthly("900.00", START.plusDays(1)));
+        release.countDown();
+        await(() -> workers.getCompletedTaskCount() == 3);
+
+        assertEquals(new BigDecimal("1000.00"), ledger.balanceOf("ACC1"));
+        assertTrue(standingOrderService.getHistory(order.id()).orElseThrow().isEmpty());
+        assertEquals(START.plusDays(1), standingOrderService.get(order.id()).orElseThrow().nextRunAt());
+
+        runAt(START.plusDays(1));
+        awaitHistory(order.id(), 1);
+        assertEquals(new BigDecimal("100.00"), ledger.balanceOf("ACC1"));
+    }
+
+    @Test
+    void testOrdersSurviveARestart() throws Exception {
+        standingOrderService.stop();
+        standingOrderService = newService(true);
+        StandingOrder rent = standingOrderService.create(monthly("300.00", START.plusHours(1)));
+        StandingOrder gone = standingOrderService.create(monthly("5.00", START.plusHours(1)));
+        standingOrderService.delete(gone.id());
+        runAt(START.plusHours(1));
+        awaitHistory(rent.id(), 1);
+        standingOrderService.stop();
+
+        standingOrderService = newService(true);
+
+        assertEquals(1, standingOrderService.getOrderCount());
+        StandingOrder recovered = standingOrderService.get(rent.id()).orElseThrow();
+        assertEquals(LocalDateTime.of(2025, 2, 28, 10, 0), recovered.nextRunAt());
+        assertEquals("Rent", recovered.description());
+        assertEquals(List.of(rent.id()), standingOrderService.getByAccount("ACC1").stream().map(StandingOrder::id).toList());
+        runAt(LocalDateTime.of(2025, 2, 28, 10, 0));
+        awaitHistory(rent.id(), 1);
+        assertEquals(new BigDecimal("400.00"), ledger.balanceOf("ACC1"));
+    }
+
+    @Test
+    void testRunCutShortByARestartIsNotPaidAgain() throws Exception {
+        standingOrderService.stop();
+        standingOrderService = newService(true);
+        StandingOrder rent = standingOrderService.create(monthly("300.00", START.plusHours(1)));
+        standingOrderService.stop();
+        // As if the process died between logging the run as in flight and recording its outcome
+        Path log = dataDir.resolve("standing-orders").resolve("orders.log");
+        String created = Files.readAllLines(log).getLast();
+        Files.writeString(log, created.substring(0, created.length() - 1) + "1\n", StandardOpenOption.APPEND);
+
+        standingOrderService = newService(true);
+
+        assertEquals(LocalDateTime.of(2025, 2, 28, 10, 0), standingOrderService.get(rent.id()).orElseThrow().nextRunAt());
+        runAt(START.plusHours(3));
+        assertEquals(new BigDecimal("1000.00"), ledger.balanceOf("ACC1"));
+    }
+
+    @Test
+    void testRunIsHeldWhileTheLogCannotBeWritten() throws Exception {
+        standingOrderService.stop();
+        standingOrderService = newService(true);
+        StandingOrder rent = standingOrderService.create(monthly("300.00", START.plusHours(1)));
+        ReflectionTestUtils.setField(standingOrderService, "log", new Writer() {
+            @Override public void write(char[] buffer, int offset, int length) throws IOException { throw new IOException("Disk full"); }
+            @Override public void flush() { }
+            @Override public void close() { }
+        });
+
+        // Without the in-flight marker a restart could pay the run again, so it is not paid yet
+        runAt(START.plusHours(1));
+        await(() -> standingOrderService.get(rent.id()).orElseThrow().nextRunAt().equals(START.plusHours(2)));
+        assertEquals(new BigDecimal("1000.00"), ledger.balanceOf("ACC1"));
+        assertTrue(standingOrderService.getHistory(rent.id()).orElseThrow().isEmpty());
+
+        // The next write reopens the log, and the run goes through
+        runAt(START.plusHours(2));
+        awaitHistory(rent.id(), 1);
+        assertEquals(new BigDecimal("700.00"), ledger.balanceOf("ACC1"));
+        standingOrderService.stop();
+        standingOrderService = newService(true);
+        assertEquals(LocalDateTime.of(2025, 2, 28, 10, 0), standingOrderService.get(rent.id()).orElseThrow().nextRunAt());
+    }
+
+    @Test
+    void testDueOrdersRunInBatches() throws Exception {
+        for (int i = 0; i < 250; i++) {
+            standingOrderService.create(monthly("1.00", START.plusHours(1)));
+        }
+
+        runAt(START.plusHours(1));
+
+        await(() -> standingOrderService.getExecutedCount() == 250);
+        assertEquals(new BigDecimal("250.00"), ledger.balanceOf("ACC2"));
+        assertEquals(250, standingOrderService.getOrderCount());
+    }
+
+    @Test
+    void testRejectsInvalidOrders() {
+        assertThrows(IllegalArgumentException.class, () -> standingOrderService.create(new StandingOrderRequest(
+            "ACC1", "ACC1", BigDecimal.TEN, null, StandingOrderRequest.Frequency.DAILY, null)));
+        assertThrows(IllegalArgumentException.class, () -> standingOrderService.create(new StandingOrderRequest(
+            "ACC1", "ACC9", BigDecimal.TEN, null, StandingOrderRequest.Frequency.DAILY, null)));
+        assertThrows(IllegalArgumentException.class, () -> standingOrderService.create(new StandingOrderRequest(
+            "ACC1", "ACC2", new BigDecimal("0.001"), null, StandingOrderRequest.Frequency.DAILY, null)));
+        assertThrows(IllegalArgumentException.class, () -> standingOrderService.create(new StandingOrderRequest(
+            "ACC1", "ACC2", BigDecimal.TEN, null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> standingOrderService.create(monthly("10.00", START.minusMinutes(1))));
+        assertEquals(0, standingOrderService.getOrderCount());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for standing orders");
+            Thread.sleep(5);
+        }
+    }
+}
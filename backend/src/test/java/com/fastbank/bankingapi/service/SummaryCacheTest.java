@@ -0,0 +1,89 @@
+package com.fastbank.bankingapi.service;
+
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.model.Transaction;
+import com.fastbank.bankingapi.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+class SummaryCacheTest {
+
+    private final SummaryCache cache = new SummaryCache();
+    private final AccountRepository accountRepository = new AccountRepository();
+
+    @Test
+    void testSummaryIsSerializedOnceUntilTheAccountChanges() {
+        Account account = new Account("John Doe");
+        account.setAccountNumber("ACC1");
+        accountRepository.save(account);
+
+        byte[] first = cache.get(account);
+        String json = new String(first, StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("{\"accountNumber\":\"ACC1\",\"ownerName\":\"John Doe\",\"balance\":0.00,\"createdAt\":\""), json);
+        assertTrue(json.endsWith(",\"transactionCount\":0}"), json);
+        assertSame(first, cache.get(account));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        account.credit(new Transaction("ACC1", "DEPOSIT", new BigDecimal("25.00"), "Salary"));
+        accountRepository.save(account);
+
+        String rebuilt = new String(cache.get(account), StandardCharsets.UTF_8);
+        assertTrue(rebuilt.contains("\"balance\":25.00") && rebuilt.contains("\"transactionCount\":1"), rebuilt);
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void testReplacedAccountWithTheSameNumberIsNotServedFromCache() {
+        Account original = new Account("John Doe");
+        original.setAccountNumber("ACC1");
+        Account replacement = new Account("Jane Doe");
+        replacement.setAccountNumber("ACC1");
+
+        cache.get(original);
+
+        assertTrue(new String(cache.get(replacement), StandardCharsets.UTF_8).contains("Jane Doe"));
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    void testLeastRecentlyUsedSummariesAreEvictedPastTheBudget() {
+        // One segment's share fits only a handful of summaries
+        ReflectionTestUtils.setField(cache, "maxBytes", 16L * 1_000);
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Account account = new Account("Owner " + i);
+            account.setAccountNumber("ACC" + i);
+            accounts.add(account);
+            cache.get(account);
+            // Keeps the first account the most recently used one of its segment
+            cache.get(accounts.get(0));
+        }
+
+        assertTrue(cache.getEvictionCount() > 1_000, "evictions: " + cache.getEvictionCount());
+        assertTrue(cache.getBytes() <= 16L * 1_000, "bytes: " + cache.getBytes());
+        long hits = cache.getHitCount();
+        cache.get(accounts.get(0));
+        assertEquals(hits + 1, cache.getHitCount());
+        long misses = cache.getMissCount();
+        cache.get(accounts.get(1));
+        assertEquals(misses + 1, cache.getMissCount());
+    }
+
+    @Test
+    void testZeroBudgetDisablesCaching() {
+        ReflectionTestUtils.invokeMethod(cache, "setMaxMegabytes", 0L);
+        Account account = new Account("John Doe");
+
+        byte[] first = cache.get(account);
+
+        assertNotSame(first, cache.get(account));
+        assertEquals(0, cache.getBytes());
+        assertEquals(0, cache.getHitCount());
+    }
+}
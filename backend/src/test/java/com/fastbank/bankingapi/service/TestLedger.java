@@ -0,0 +1,35 @@
+package com.fastbank.bankingapi.service;
+
+import com.fastbank.bankingapi.metrics.LedgerMetrics;
+import com.fastbank.bankingapi.model.Account;
+import com.fastbank.bankingapi.repository.AccountRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.math.BigDecimal;
+
+/** An in-memory account repository and the {@link AccountService} over it, for services built on top. */
+final class TestLedger {
+
+    final AccountRepository accountRepository = new AccountRepository();
+    final LedgerMetrics ledgerMetrics = new LedgerMetrics();
+    final AccountService accountService = new AccountService();
+
+    TestLedger() {
+        ReflectionTestUtils.setField(accountService, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(accountService, "ledgerMetrics", ledgerMetrics);
+    }
+
+    Account openAccount(String accountNumber, String balance) {
+        Account account = new Account("Owner " + accountNumber);
+        account.setAccountNumber(accountNumber);
+        account.setBalance(new BigDecimal(balance));
+        return accountRepository.save(account);
+    }
+
+    Account account(String accountNumber) {
+        return accountRepository.findByAccountNumber(accountNumber).orElseThrow();
+    }
+
+    BigDecimal balanceOf(String accountNumber) {
+        return account(accountNumber).getBalance();
+    }
+}
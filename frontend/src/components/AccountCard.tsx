@@ -1,8 +1,8 @@
 import React from 'react';
-import { Account } from '../types';
+import { AccountSummary } from '../types';
 
 interface AccountCardProps {
-  account: Account;
+  account: AccountSummary;
   onClick?: () => void;
 }
 
@@ -60,7 +60,7 @@ const AccountCard: React.FC<AccountCardProps> = ({ account, onClick }) => {
             <path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M9 5H7a2 2 0 00-2 2v10a2 2 0 002 2h8a2 2 0 002-2V7a2 2 0 00-2-2h-2M9 5a2 2 0 002 2h2a2 2 0 002-2M9 5a2 2 0 012-2h2a2 2 0 012 2" />
           </svg>
           <span className="bg-gradient-to-r from-purple-400 to-pink-400 bg-clip-text text-transparent font-semibold">
-            {account.transactions.length} transactions
+            {account.transactionCount} transactions
           </span>
         </div>
       </div>
@@ -1,7 +1,11 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import { accountService } from '../services/api';
-import { Account, Transaction } from '../types';
+import { AccountSummary, Transaction } from '../types';
+import InsightsPanel from './InsightsPanel';
+import useAccountEvents from '../hooks/useAccountEvents';
+
+const RECENT_LIMIT = 5;
 
 // Dashboard component - matches wireframe #2
 const Dashboard: React.FC = () => {
@@ -10,9 +14,13 @@ const Dashboard: React.FC = () => {
   const navigate = useNavigate();
 
   // Component state
-  const [account, setAccount] = useState<Account | null>(null);
+  const [account, setAccount] = useState<AccountSummary | null>(null);
+  const [recentTransactions, setRecentTransactions] = useState<Transaction[]>([]);
+  const [hasMoreTransactions, setHasMoreTransactions] = useState(false);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
+  // The first snapshot matches what loadAccountData fetched; later ones mean events were missed
+  const snapshotSeen = useRef(false);
 
   // Load account data when component mounts
   useEffect(() => {
@@ -25,8 +33,14 @@ const Dashboard: React.FC = () => {
   const loadAccountData = async () => {
     try {
       setLoading(true);
-      const accountData = await accountService.getAccountByNumber(accountNumber!);
+      // Summary and the last 5 transactions only - never the full history
+      const [accountData, recent] = await Promise.all([
+        accountService.getAccountByNumber(accountNumber!),
+        accountService.getTransactions(accountNumber!, { limit: RECENT_LIMIT }),
+      ]);
       setAccount(accountData);
+      setRecentTransactions(recent.items);
+      setHasMoreTransactions(recent.nextCursor !== null);
     } catch (err) {
       setError('Failed to load account data');
     } finally {
@@ -34,6 +48,42 @@ const Dashboard: React.FC = () => {
     }
   };
 
+  const loadRecentTransactions = async () => {
+    try {
+      const recent = await accountService.getTransactions(accountNumber!, { limit: RECENT_LIMIT });
+      setRecentTransactions(recent.items);
+      setHasMoreTransactions(recent.nextCursor !== null);
+    } catch (err) {
+      // Keep showing what we have; the next snapshot retries
+    }
+  };
+
+  // Live updates instead of refetching: balance and new transactions are pushed as they are applied
+  useAccountEvents(accountNumber, {
+    onSnapshot: (event) => {
+      setAccount(previous => previous && { ...previous, balance: event.balance });
+      if (snapshotSeen.current) {
+        loadRecentTransactions();
+      }
+      snapshotSeen.current = true;
+    },
+    onTransaction: (event) => {
+      const transaction = event.transaction!;
+      setAccount(previous => previous && {
+        ...previous,
+        balance: event.balance,
+        transactionCount: previous.transactionCount + 1,
+      });
+      // Already listed when a refetch after a snapshot picked it up
+      setRecentTransactions(previous => previous.some(existing => existing.id === transaction.id)
+        ? previous
+        : [transaction, ...previous].slice(0, RECENT_LIMIT));
+      if (recentTransactions.length >= RECENT_LIMIT) {
+        setHasMoreTransactions(true);
+      }
+    },
+  });
+
   // Navigation functions for action buttons
   const handleDeposit = () => {
     navigate(`/transaction/${accountNumber}/deposit`);
@@ -60,6 +110,10 @@ const Dashboard: React.FC = () => {
   };
 
   // Format date display
+  // Interest is money in, like a deposit
+  const isIncoming = (transaction: Transaction) =>
+    transaction.type === 'DEPOSIT' || transaction.type === 'INTEREST';
+
   const formatDate = (dateString: string) => {
     return new Date(dateString).toLocaleDateString('de-DE', {
       year: 'numeric',
@@ -182,7 +236,7 @@ const Dashboard: React.FC = () => {
             <h2 className="text-xl font-bold gradient-text">Recent Transactions</h2>
           </div>
 
-          {account.transactions.length === 0 ? (
+          {recentTransactions.length === 0 ? (
             <div className="text-center py-12">
               <div className="w-20 h-20 mx-auto mb-4 bg-gray-800/50 rounded-2xl flex items-center justify-center">
                 <svg className="w-10 h-10 text-gray-400" fill="none" stroke="currentColor" viewBox="0 0 24 24">
@@ -196,20 +250,18 @@ const Dashboard: React.FC = () => {
             </div>
           ) : (
             <div className="space-y-3">
-              {account.transactions
-                .slice(-5) // Show last 5 transactions
-                .reverse() // Show newest first
+              {recentTransactions // Already newest first
                 .map((transaction: Transaction) => (
                   <div key={transaction.id} className="transaction-item flex items-center justify-between">
                     <div className="flex items-center flex-1">
                       <div className={`w-12 h-12 rounded-xl flex items-center justify-center mr-4 ${
-                        transaction.type === 'DEPOSIT'
+                        isIncoming(transaction)
                           ? 'bg-emerald-500/20 border border-emerald-500/30'
                           : transaction.type === 'WITHDRAW'
                           ? 'bg-red-500/20 border border-red-500/30'
                           : 'bg-purple-500/20 border border-purple-500/30'
                       }`}>
-                        {transaction.type === 'DEPOSIT' ? (
+                        {isIncoming(transaction) ? (
                           <svg className="w-6 h-6 text-emerald-400" fill="none" stroke="currentColor" viewBox="0 0 24 24">
                             <path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M12 6v6m0 0v6m0-6h6m-6 0H6" />
                           </svg>
@@ -241,18 +293,18 @@ const Dashboard: React.FC = () => {
                     </div>
                     <div className="text-right">
                       <span className={`font-semibold text-lg ${
-                        transaction.type === 'DEPOSIT'
+                        isIncoming(transaction)
                           ? 'text-emerald-400'
                           : 'text-red-400'
                       }`}>
-                        {transaction.type === 'DEPOSIT' ? '+' : '-'}
+                        {isIncoming(transaction) ? '+' : '-'}
                         {formatCurrency(transaction.amount)}
                       </span>
                     </div>
                   </div>
                 ))}
 
-              {account.transactions.length > 5 && (
+              {hasMoreTransactions && (
                 <div className="pt-6 text-center border-t border-gray-800/50">
                   <button className="text-purple-400 hover:text-purple-300 text-sm font-medium flex items-center mx-auto group">
                     View All Transactions
@@ -265,6 +317,11 @@ const Dashboard: React.FC = () => {
             </div>
           )}
         </div>
+
+        {/* Spending by category and month */}
+        <div className="mt-8">
+          <InsightsPanel accountNumber={account.accountNumber} />
+        </div>
       </main>
     </div>
   );
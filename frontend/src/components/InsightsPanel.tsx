@@ -1,17 +1,83 @@
-import React from 'react';
+import React, { useEffect, useState } from 'react';
+import { accountService } from '../services/api';
+import { AccountInsights } from '../types';
+
+interface InsightsPanelProps {
+  accountNumber: string;
+}
+
+// InsightsPanel component - spending per category and per month
+const InsightsPanel: React.FC<InsightsPanelProps> = ({ accountNumber }) => {
+  const [insights, setInsights] = useState<AccountInsights | null>(null);
+  const [error, setError] = useState('');
+
+  useEffect(() => {
+    accountService.getInsights(accountNumber)
+      .then(setInsights)
+      .catch(() => setError('Failed to load insights'));
+  }, [accountNumber]);
+
+  const formatCurrency = (amount: number) => {
+    return new Intl.NumberFormat('de-DE', {
+      style: 'currency',
+      currency: 'EUR'
+    }).format(amount);
+  };
+
+  if (error) {
+    return <div className="card text-center py-8 text-red-400">{error}</div>;
+  }
+
+  if (!insights) {
+    return (
+      <div className="card text-center py-8">
+        <div className="loading-spinner mx-auto"></div>
+      </div>
+    );
+  }
+
+  const spending = insights.categories.filter(total => total.outgoing > 0);
+  const largest = Math.max(...spending.map(total => total.outgoing), 1);
+  const recentMonths = insights.months.slice(-6);
 
-// InsightsPanel component - placeholder for future AI features
-const InsightsPanel: React.FC = () => {
   return (
-    <div className="card text-center py-8">
-      <div className="text-4xl mb-4">🤖</div>
-      <h2 className="text-xl font-bold text-white mb-2">AI Insights</h2>
-      <p className="text-white mb-4">
-        Coming soon! AI-powered financial insights and recommendations.
-      </p>
-      <div className="text-sm text-white">
-        This feature will be implemented in the next phase.
+    <div className="card">
+      <div className="card-header">
+        <h2 className="text-xl font-bold gradient-text">Insights</h2>
       </div>
+
+      {spending.length === 0 ? (
+        <p className="text-gray-400 text-center py-6">No spending yet</p>
+      ) : (
+        <div className="space-y-3 mb-8">
+          {spending.map(total => (
+            <div key={total.category}>
+              <div className="flex justify-between text-sm mb-1">
+                <span className="text-gray-100">{total.category}</span>
+                <span className="text-gray-400">{formatCurrency(total.outgoing)}</span>
+              </div>
+              <div className="h-2 bg-gray-800/50 rounded-full">
+                <div
+                  className="h-2 rounded-full bg-gradient-to-r from-purple-500 to-indigo-600"
+                  style={{ width: `${(total.outgoing / largest) * 100}%` }}
+                ></div>
+              </div>
+            </div>
+          ))}
+        </div>
+      )}
+
+      {recentMonths.length > 0 && (
+        <div className="grid grid-cols-3 md:grid-cols-6 gap-3">
+          {recentMonths.map(month => (
+            <div key={month.month} className="text-center">
+              <p className="text-xs text-gray-400 mb-1">{month.month}</p>
+              <p className="text-sm text-emerald-400">+{formatCurrency(month.incoming)}</p>
+              <p className="text-sm text-red-400">-{formatCurrency(month.outgoing)}</p>
+            </div>
+          ))}
+        </div>
+      )}
     </div>
   );
 };
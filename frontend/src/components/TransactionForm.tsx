@@ -1,7 +1,7 @@
 import React, { useState, useEffect } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import { accountService } from '../services/api';
-import { Account, TransactionType, TransactionRequest, TransferRequest } from '../types';
+import { AccountSummary, TransactionType, TransactionRequest, TransferRequest } from '../types';
 
 // TransactionForm component - handles deposit, withdraw, and transfer (wireframes #3, #4, #5)
 const TransactionForm: React.FC = () => {
@@ -9,11 +9,11 @@ const TransactionForm: React.FC = () => {
   const navigate = useNavigate();
 
   // Form state
-  const [account, setAccount] = useState<Account | null>(null);
+  const [account, setAccount] = useState<AccountSummary | null>(null);
   const [amount, setAmount] = useState('');
   const [description, setDescription] = useState('');
   const [toAccountNumber, setToAccountNumber] = useState('');
-  const [toAccount, setToAccount] = useState<Account | null>(null);
+  const [toAccount, setToAccount] = useState<AccountSummary | null>(null);
 
   // UI state
   const [loading, setLoading] = useState(false);
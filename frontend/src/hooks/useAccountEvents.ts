@@ -0,0 +1,26 @@
+import { useEffect, useRef } from 'react';
+import { accountService } from '../services/api';
+import { AccountEvent } from '../types';
+
+interface AccountEventHandlers {
+  onSnapshot: (event: AccountEvent) => void;
+  onTransaction: (event: AccountEvent) => void;
+}
+
+// Keeps one event stream open per account while the component is mounted.
+// The browser reconnects on its own; each reconnect starts with a fresh snapshot
+export const useAccountEvents = (accountNumber: string | undefined, handlers: AccountEventHandlers) => {
+  // Latest handlers, so re-renders don't reopen the connection
+  const handlersRef = useRef(handlers);
+  handlersRef.current = handlers;
+
+  useEffect(() => {
+    if (!accountNumber) return;
+    return accountService.subscribeToEvents(accountNumber, {
+      onSnapshot: (event) => handlersRef.current.onSnapshot(event),
+      onTransaction: (event) => handlersRef.current.onTransaction(event),
+    });
+  }, [accountNumber]);
+};
+
+export default useAccountEvents;
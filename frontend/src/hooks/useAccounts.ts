@@ -1,21 +1,23 @@
 import { useState, useEffect } from 'react';
 import { accountService } from '../services/api';
-import { Account } from '../types';
+import { AccountSummary } from '../types';
 
 // Custom hook for managing account data
 // This demonstrates React's hook pattern for reusable logic
 export const useAccounts = () => {
-  const [accounts, setAccounts] = useState<Account[]>([]);
+  const [accounts, setAccounts] = useState<AccountSummary[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState<string | null>(null);
 
-  // Load all accounts
+  // Load the first page of accounts
   const loadAccounts = async () => {
     try {
       setLoading(true);
       setError(null);
-      const data = await accountService.getAllAccounts();
-      setAccounts(data);
+      const page = await accountService.getAccounts();
+      setAccounts(page.accounts);
+      setNextCursor(page.nextCursor);
     } catch (err) {
       setError('Failed to load accounts');
     } finally {
@@ -28,6 +30,21 @@ export const useAccounts = () => {
     loadAccounts();
   }, []);
 
+  // Append the next page of accounts
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    try {
+      setLoading(true);
+      const page = await accountService.getAccounts(nextCursor);
+      setAccounts(previous => [...previous, ...page.accounts]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      setError('Failed to load accounts');
+    } finally {
+      setLoading(false);
+    }
+  };
+
   // Refresh accounts data
   const refreshAccounts = () => {
     loadAccounts();
@@ -37,6 +54,8 @@ export const useAccounts = () => {
     accounts,
     loading,
     error,
+    hasMore: nextCursor !== null,
+    loadMore,
     refreshAccounts
   };
 };
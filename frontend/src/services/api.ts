@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { Account, TransactionRequest, TransferRequest } from '../types';
+import { Account, AccountEvent, AccountInsights, AccountPage, AccountSummary, TransactionPage, TransactionRequest, TransferRequest } from '../types';
 
 // Create an axios instance with base configuration
 const api = axios.create({
@@ -9,22 +9,51 @@ const api = axios.create({
   },
 });
 
+// Money-moving calls carry an Idempotency-Key so a retried request is applied only once.
+// Pass the same key again when retrying the same submission.
+const idempotent = (idempotencyKey: string = crypto.randomUUID()) => ({
+  headers: { 'Idempotency-Key': idempotencyKey },
+});
+
 // API service functions - these make HTTP requests to your backend
 export const accountService = {
-  // Get all accounts
-  getAllAccounts: async (): Promise<Account[]> => {
-    const response = await api.get('/accounts');
+  // Get one page of accounts, ordered by account number
+  getAccounts: async (cursor?: string, limit?: number): Promise<AccountPage> => {
+    const response = await api.get('/accounts', { params: { cursor, limit } });
+    return response.data;
+  },
+
+  // Find account by account number (rejects with a 404 if it does not exist)
+  getAccountByNumber: async (accountNumber: string): Promise<AccountSummary> => {
+    const response = await api.get(`/accounts/${accountNumber}`);
+    return response.data;
+  },
+
+  // Get transactions newest first, optionally limited to a time range
+  getTransactions: async (
+    accountNumber: string,
+    params: { from?: string; to?: string; cursor?: number; limit?: number } = {}
+  ): Promise<TransactionPage> => {
+    const response = await api.get(`/accounts/${accountNumber}/transactions`, { params });
+    return response.data;
+  },
+
+  // Per-category and per-month totals, kept up to date by the backend as transactions are applied
+  getInsights: async (accountNumber: string): Promise<AccountInsights> => {
+    const response = await api.get(`/accounts/${accountNumber}/insights`);
     return response.data;
   },
 
-  // Find account by account number
-  getAccountByNumber: async (accountNumber: string): Promise<Account> => {
-    const accounts = await accountService.getAllAccounts();
-    const account = accounts.find(acc => acc.accountNumber === accountNumber);
-    if (!account) {
-      throw new Error('Account not found');
-    }
-    return account;
+  // Live balance changes and new transactions (Server-Sent Events). A snapshot opens every
+  // connection and replaces events the client fell too far behind on. Returns a function that closes it
+  subscribeToEvents: (
+    accountNumber: string,
+    handlers: { onSnapshot: (event: AccountEvent) => void; onTransaction: (event: AccountEvent) => void }
+  ): (() => void) => {
+    const source = new EventSource(`${api.defaults.baseURL}/accounts/${accountNumber}/events`);
+    source.addEventListener('snapshot', (message) => handlers.onSnapshot(JSON.parse((message as MessageEvent).data)));
+    source.addEventListener('transaction', (message) => handlers.onTransaction(JSON.parse((message as MessageEvent).data)));
+    return () => source.close();
   },
 
   // Create new account
@@ -34,20 +63,20 @@ export const accountService = {
   },
 
   // Deposit money
-  deposit: async (accountNumber: string, request: TransactionRequest): Promise<Account> => {
-    const response = await api.post(`/accounts/${accountNumber}/deposit`, request);
+  deposit: async (accountNumber: string, request: TransactionRequest, idempotencyKey?: string): Promise<Account> => {
+    const response = await api.post(`/accounts/${accountNumber}/deposit`, request, idempotent(idempotencyKey));
     return response.data;
   },
 
   // Withdraw money
-  withdraw: async (accountNumber: string, request: TransactionRequest): Promise<Account> => {
-    const response = await api.post(`/accounts/${accountNumber}/withdraw`, request);
+  withdraw: async (accountNumber: string, request: TransactionRequest, idempotencyKey?: string): Promise<Account> => {
+    const response = await api.post(`/accounts/${accountNumber}/withdraw`, request, idempotent(idempotencyKey));
     return response.data;
   },
 
   // Transfer money between accounts
-  transfer: async (request: TransferRequest): Promise<void> => {
-    await api.post('/accounts/transfer', request);
+  transfer: async (request: TransferRequest, idempotencyKey?: string): Promise<void> => {
+    await api.post('/accounts/transfer', request, idempotent(idempotencyKey));
   },
 };
 
@@ -4,7 +4,7 @@
 export interface Transaction {
   id: string;
   accountNumber: string;
-  type: 'DEPOSIT' | 'WITHDRAW' | 'TRANSFER';
+  type: 'DEPOSIT' | 'WITHDRAW' | 'TRANSFER' | 'INTEREST' | 'FEE';
   amount: number;
   description: string;
   timestamp: string;
@@ -19,6 +19,54 @@ export interface Account {
   transactions: Transaction[];
 }
 
+// Account without its transaction list, as returned by lookups and listings
+export interface AccountSummary {
+  accountNumber: string;
+  ownerName: string;
+  balance: number;
+  createdAt: string;
+  transactionCount: number;
+}
+
+// Paged responses - pass nextCursor back to fetch the following page
+export interface AccountPage {
+  accounts: AccountSummary[];
+  nextCursor: string | null;
+}
+
+export interface TransactionPage {
+  items: Transaction[]; // newest first
+  nextCursor: number | null;
+}
+
+// Message on GET /accounts/{n}/events: "snapshot" events carry no transaction
+export interface AccountEvent {
+  accountNumber: string;
+  balance: number;
+  transaction: Transaction | null;
+}
+
+// Running totals from GET /accounts/{n}/insights; amounts are always positive
+export interface CategoryTotal {
+  category: string;
+  incoming: number;
+  outgoing: number;
+  count: number;
+}
+
+export interface MonthTotal {
+  month: string; // yyyy-MM
+  incoming: number;
+  outgoing: number;
+  count: number;
+}
+
+export interface AccountInsights {
+  accountNumber: string;
+  categories: CategoryTotal[]; // largest outgoing first
+  months: MonthTotal[]; // oldest first, up to 24
+}
+
 // Request types for API calls
 export interface TransactionRequest {
   amount: number;